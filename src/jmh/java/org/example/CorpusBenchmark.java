@@ -0,0 +1,109 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 文本处理与建图的基准测试.
+ * 每次调用都处理整份语料，因此以单次平均耗时计。
+ * 运行方式：{@code mvn -Pbench package && java -jar target/benchmarks.jar Corpus -prof gc}，
+ * 可用 {@code -p corpusMb=1,16} 只测部分规模。1024 MB 的语料需要较大的堆。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx12g", "--add-modules=jdk.incubator.vector"})
+public class CorpusBenchmark {
+    @Param({"1", "16", "128", "1024"})
+    int corpusMb;
+
+    private Path file;
+    private String processedText;
+
+    /**
+     * 生成（或复用缓存的）语料并预先处理一次.
+     *
+     * @throws IOException 如果读写语料失败.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = ZipfCorpus.file(corpusMb);
+        processedText = Main.processText(file.toString());
+    }
+
+    /**
+     * 读取并清洗文本.
+     *
+     * @return 处理后的文本.
+     * @throws IOException 如果读文件失败.
+     */
+    @Benchmark
+    public String processText() throws IOException {
+        return Main.processText(file.toString());
+    }
+
+    /**
+     * 用原来的逐字符实现读取并清洗文本，与 {@link #processText()} 对照.
+     *
+     * @return 处理后的文本.
+     * @throws IOException 如果读文件失败.
+     */
+    @Benchmark
+    public String processTextScalar() throws IOException {
+        return TextNormalizer.normalizeScalar(new String(Files.readAllBytes(file)));
+    }
+
+    /**
+     * 由处理后的文本顺序建图.
+     *
+     * @return 图的版本号.
+     * @throws IOException 如果建图失败.
+     */
+    @Benchmark
+    public long buildGraph() throws IOException {
+        Main.clearGraph();
+        Main.buildGraph(processedText);
+        return Main.graphVersion();
+    }
+
+    /**
+     * 由处理后的文本并行建图.
+     *
+     * @return 图的版本号.
+     */
+    @Benchmark
+    public long buildGraphParallel() {
+        Main.clearGraph();
+        Main.buildGraphParallel(processedText);
+        return Main.graphVersion();
+    }
+
+    /**
+     * 从文件流式分词并建图，包含读文件与清洗.
+     *
+     * @return 图的版本号.
+     * @throws IOException 如果读文件失败.
+     */
+    @Benchmark
+    public long buildGraphFromFile() throws IOException {
+        Main.clearGraph();
+        Main.buildGraphFromFile(file.toString());
+        return Main.graphVersion();
+    }
+}
@@ -0,0 +1,185 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 建好图之后各项查询的基准测试.
+ * 同时报告吞吐量和延迟分布 (SampleTime)；查询参数按 Zipf 分布预先抽取，
+ * 因此高频词与低频词的查询比例与真实文本一致。
+ * 运行方式：{@code mvn -Pbench package && java -jar target/benchmarks.jar Query -prof gc}.
+ *
+ * <p>{@link Main#randomWalk()} 需要从控制台逐步读取输入并写文件，无法直接测量，
+ * 这里测量语义相同的 {@link GraphQueries#randomWalk} 和按权重采样的 {@link RandomWalker}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx12g"})
+public class QueryBenchmark {
+    /** 预先抽取的查询个数，必须是 2 的幂. */
+    private static final int QUERIES = 1 << 12;
+    /** generateNewText 输入的单词数. */
+    private static final int SENTENCE_WORDS = 32;
+
+    @Param({"1", "16", "128", "1024"})
+    int corpusMb;
+
+    private final String[] firstWords = new String[QUERIES];
+    private final String[] secondWords = new String[QUERIES];
+    private final String[] sentences = new String[QUERIES];
+    private FrozenGraph frozen;
+    private RandomWalker walker;
+    private PrintStream console;
+
+    /** 每个线程各自的查询游标与随机数源. */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+        final Random random = new Random(7);
+        final SplittableRandom splittable = new SplittableRandom(7);
+
+        int advance() {
+            return next++ & (QUERIES - 1);
+        }
+    }
+
+    /**
+     * 建图并抽取查询参数.
+     *
+     * @throws IOException 如果读写语料失败.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Main.clearGraph();
+        Main.buildGraphFromFile(ZipfCorpus.file(corpusMb).toString());
+        frozen = Main.freezeGraph();
+        walker = new RandomWalker(frozen);
+
+        ZipfCorpus corpus = new ZipfCorpus(ZipfCorpus.DEFAULT_VOCABULARY,
+                ZipfCorpus.DEFAULT_EXPONENT);
+        SplittableRandom random = new SplittableRandom(ZipfCorpus.DEFAULT_SEED + 1);
+        for (int i = 0; i < QUERIES; i++) {
+            firstWords[i] = presentWord(corpus, random);
+            secondWords[i] = presentWord(corpus, random);
+            StringBuilder sentence = new StringBuilder();
+            for (int w = 0; w < SENTENCE_WORDS; w++) {
+                if (w > 0) {
+                    sentence.append(' ');
+                }
+                sentence.append(ZipfCorpus.word(corpus.sample(random)));
+            }
+            sentences[i] = sentence.toString();
+        }
+        // queryBridgeWords 和 generateNewText 会打印到控制台，测量期间丢弃输出
+        console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    /** 抽取一个在图中出现过的单词，小语料中可能缺少部分低频词. */
+    private String presentWord(ZipfCorpus corpus, SplittableRandom random) {
+        while (true) {
+            String word = ZipfCorpus.word(corpus.sample(random));
+            if (frozen.id(word) >= 0) {
+                return word;
+            }
+        }
+    }
+
+    /**
+     * 恢复控制台输出.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(console);
+    }
+
+    /**
+     * 在可变图上查询桥接词.
+     *
+     * @param cursor 查询游标.
+     * @return 桥接词.
+     */
+    @Benchmark
+    public String queryBridgeWords(Cursor cursor) {
+        int i = cursor.advance();
+        return Main.queryBridgeWords(firstWords[i], secondWords[i]);
+    }
+
+    /**
+     * 在冻结图上查询桥接词.
+     *
+     * @param cursor 查询游标.
+     * @return 桥接词.
+     */
+    @Benchmark
+    public List<String> bridgeWordsFrozen(Cursor cursor) {
+        int i = cursor.advance();
+        return GraphQueries.bridgeWords(frozen, firstWords[i], secondWords[i]);
+    }
+
+    /**
+     * 按桥接词扩展一段文本.
+     *
+     * @param cursor 查询游标.
+     * @return 新文本.
+     */
+    @Benchmark
+    public String generateNewText(Cursor cursor) {
+        return Main.generateNewText(sentences[cursor.advance()]);
+    }
+
+    /**
+     * 点对点最短路径.
+     *
+     * @param cursor 查询游标.
+     * @return 路径.
+     */
+    @Benchmark
+    public String shortestPath(Cursor cursor) {
+        int i = cursor.advance();
+        return Main.shortestPath(firstWords[i], secondWords[i]);
+    }
+
+    /**
+     * 等概率选择出边的随机游走.
+     *
+     * @param cursor 查询游标.
+     * @return 游走路径.
+     */
+    @Benchmark
+    public String randomWalk(Cursor cursor) {
+        return GraphQueries.randomWalk(frozen, cursor.random);
+    }
+
+    /**
+     * 按权重采样的随机游走.
+     *
+     * @param cursor 查询游标.
+     * @return 经过的节点编号.
+     */
+    @Benchmark
+    public int[] weightedWalk(Cursor cursor) {
+        return walker.walk(cursor.splittable.nextInt(frozen.nodeCount()), cursor.splittable, -1);
+    }
+}
@@ -0,0 +1,141 @@
+package org.example;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * 基准测试用的合成语料.
+ * 单词按 Zipf 分布抽取（第 r 个单词的概率正比于 1 / r^s），并插入标点、大写字母和换行，
+ * 使 {@link Main#processText(String)} 的每个处理步骤都有实际工作量。
+ * 相同参数生成的文件完全相同，并缓存在临时目录中供多次运行复用。
+ */
+final class ZipfCorpus {
+    /** 默认词表大小. */
+    static final int DEFAULT_VOCABULARY = 50_000;
+    /** 默认 Zipf 指数，接近英文文本的统计特征. */
+    static final double DEFAULT_EXPONENT = 1.07;
+    /** 默认随机种子. */
+    static final long DEFAULT_SEED = 42;
+
+    private final String[] words;
+    private final double[] cumulative;
+
+    /**
+     * 构造语料生成器.
+     *
+     * @param vocabulary 词表大小.
+     * @param exponent   Zipf 指数.
+     */
+    ZipfCorpus(int vocabulary, double exponent) {
+        words = new String[vocabulary];
+        cumulative = new double[vocabulary];
+        double total = 0;
+        for (int rank = 0; rank < vocabulary; rank++) {
+            words[rank] = word(rank);
+            total += 1.0 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = total;
+        }
+        for (int rank = 0; rank < vocabulary; rank++) {
+            cumulative[rank] /= total;
+        }
+    }
+
+    /**
+     * 第 rank 个单词：把编号写成 26 进制的小写字母串，保证各不相同.
+     *
+     * @param rank 频率排名，从 0 开始.
+     * @return 单词.
+     */
+    static String word(int rank) {
+        StringBuilder word = new StringBuilder();
+        int value = rank;
+        do {
+            word.append((char) ('a' + value % 26));
+            value = value / 26 - 1;
+        } while (value >= 0);
+        return word.reverse().toString();
+    }
+
+    /**
+     * 按 Zipf 分布抽取一个单词的排名.
+     *
+     * @param random 随机数源.
+     * @return 排名.
+     */
+    int sample(SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, words.length - 1);
+    }
+
+    /**
+     * 写出约 bytes 字节的语料.
+     *
+     * @param path  输出文件.
+     * @param bytes 目标大小，写完最后一个单词后停止.
+     * @param seed  随机种子.
+     * @throws IOException 如果写文件失败.
+     */
+    void write(Path path, long bytes, long seed) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        try (BufferedWriter out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            long written = 0;
+            int sentence = 0;
+            int line = 0;
+            while (written < bytes) {
+                String word = words[sample(random)];
+                if (sentence == 0) {
+                    // 句首大写
+                    word = Character.toUpperCase(word.charAt(0)) + word.substring(1);
+                }
+                out.write(word);
+                written += word.length();
+                sentence++;
+                line++;
+                if (sentence >= 5 + random.nextInt(15)) {
+                    out.write(random.nextInt(4) == 0 ? "?" : ".");
+                    written++;
+                    sentence = 0;
+                } else if (random.nextInt(10) == 0) {
+                    out.write(',');
+                    written++;
+                }
+                if (line >= 12 && random.nextInt(4) == 0) {
+                    out.write('\n');
+                    line = 0;
+                } else {
+                    out.write(' ');
+                }
+                written++;
+            }
+        }
+    }
+
+    /**
+     * 取得默认参数下约 megabytes MB 的语料文件，不存在时生成.
+     *
+     * @param megabytes 语料大小（MB）.
+     * @return 文件路径.
+     * @throws IOException 如果生成失败.
+     */
+    static Path file(int megabytes) throws IOException {
+        Path dir = Paths.get(System.getProperty("java.io.tmpdir"), "wordgraph-bench");
+        Files.createDirectories(dir);
+        Path path = dir.resolve("zipf-" + DEFAULT_VOCABULARY + "-" + DEFAULT_EXPONENT
+                + "-" + DEFAULT_SEED + "-" + megabytes + "mb.txt");
+        if (!Files.exists(path)) {
+            // 先写临时文件再改名，中断的生成不会留下不完整的缓存
+            Path partial = Files.createTempFile(dir, "zipf", ".tmp");
+            new ZipfCorpus(DEFAULT_VOCABULARY, DEFAULT_EXPONENT)
+                    .write(partial, (long) megabytes << 20, DEFAULT_SEED);
+            Files.move(partial, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,250 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 两点之间所有等长的最短路径.
+ * 只运行一次 Dijkstra，松弛时为每个节点记录所有距离相等的前驱（而不是只保留一个父节点），
+ * 得到以终点为汇点的前驱 DAG；路径条数在 DAG 上按距离顺序累加得到，不需要列出路径，
+ * 路径本身在迭代时才沿前驱深度优先展开，因此即使并列路径数以指数增长，
+ * 计数和取前几条路径的开销也只与搜索访问的边数成正比。
+ *
+ * <p>边权都是正数，前驱关系不会成环；终点出堆后即可停止，之后出堆的节点不可能是终点的前驱。
+ */
+public final class AllShortestPaths {
+    /** 不可达时的距离. */
+    public static final long UNREACHABLE = Long.MAX_VALUE;
+
+    private final WordGraph graph;
+    private final int source;
+    private final int target;
+    private final long distance;
+    private final long pathCount;
+    /** 节点的前驱链表头，指向 predecessors/nextEntry 中的下标，-1 表示没有前驱. */
+    private final int[] firstEntry;
+    private final int[] predecessors;
+    private final int[] nextEntry;
+    private final int maxLength;
+
+    private AllShortestPaths(WordGraph graph, int source, int target, long distance,
+                             long pathCount, int[] firstEntry, int[] predecessors,
+                             int[] nextEntry, int maxLength) {
+        this.graph = graph;
+        this.source = source;
+        this.target = target;
+        this.distance = distance;
+        this.pathCount = pathCount;
+        this.firstEntry = firstEntry;
+        this.predecessors = predecessors;
+        this.nextEntry = nextEntry;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * 搜索两点之间的所有最短路径.
+     *
+     * @param graph  图.
+     * @param source 起点编号.
+     * @param target 终点编号.
+     * @return 结果；不可达时路径条数为 0.
+     */
+    public static AllShortestPaths compute(WordGraph graph, int source, int target) {
+        int n = graph.nodeCount();
+        long[] distances = new long[n];
+        int[] firstEntry = new int[n];
+        Arrays.fill(distances, UNREACHABLE);
+        Arrays.fill(firstEntry, -1);
+        int[][] entries = {new int[16], new int[16]};
+        int[] entryCount = new int[1];
+        int[] settledOrder = new int[n];
+        int settled = 0;
+        distances[source] = 0;
+        IndexedMinHeap heap = new IndexedMinHeap(n);
+        heap.insertOrDecrease(source, 0);
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            settledOrder[settled++] = current;
+            if (current == target) {
+                break;
+            }
+            long base = distances[current];
+            graph.forEachSuccessor(current, (next, weight) -> {
+                long candidate = base + weight;
+                if (candidate > distances[next]) {
+                    return;
+                }
+                if (candidate < distances[next]) {
+                    // 找到更短的距离，之前记录的前驱全部作废
+                    distances[next] = candidate;
+                    firstEntry[next] = -1;
+                    heap.insertOrDecrease(next, candidate);
+                }
+                int entry = entryCount[0]++;
+                if (entry == entries[0].length) {
+                    entries[0] = Arrays.copyOf(entries[0], entry * 2);
+                    entries[1] = Arrays.copyOf(entries[1], entry * 2);
+                }
+                entries[0][entry] = current;
+                entries[1][entry] = firstEntry[next];
+                firstEntry[next] = entry;
+            });
+        }
+        if (distances[target] == UNREACHABLE) {
+            return new AllShortestPaths(graph, source, target, UNREACHABLE, 0,
+                    firstEntry, entries[0], entries[1], 0);
+        }
+        // 按出堆顺序（即距离递增）累加路径条数，溢出时封顶
+        long[] counts = new long[n];
+        counts[source] = 1;
+        int[] lengths = new int[n];
+        lengths[source] = 1;
+        for (int i = 1; i < settled; i++) {
+            int node = settledOrder[i];
+            long count = 0;
+            for (int e = firstEntry[node]; e >= 0; e = entries[1][e]) {
+                int previous = entries[0][e];
+                count = count > UNREACHABLE - counts[previous]
+                        ? UNREACHABLE : count + counts[previous];
+                lengths[node] = Math.max(lengths[node], lengths[previous] + 1);
+            }
+            counts[node] = count;
+        }
+        return new AllShortestPaths(graph, source, target, distances[target], counts[target],
+                firstEntry, entries[0], entries[1], lengths[target]);
+    }
+
+    /**
+     * 以单词搜索两点之间的所有最短路径.
+     *
+     * @param graph 图.
+     * @param start 起始单词.
+     * @param end   终止单词.
+     * @return 结果；任一单词不在图中时返回 null.
+     */
+    public static AllShortestPaths compute(WordGraph graph, String start, String end) {
+        int source = graph.id(start);
+        int target = graph.id(end);
+        return source < 0 || target < 0 ? null : compute(graph, source, target);
+    }
+
+    /**
+     * 最短距离.
+     *
+     * @return 距离；不可达时返回 {@link #UNREACHABLE}.
+     */
+    public long distance() {
+        return distance;
+    }
+
+    /**
+     * 最短路径的条数，不需要列出路径.
+     *
+     * @return 条数，超过 Long.MAX_VALUE 时返回 Long.MAX_VALUE；不可达时返回 0.
+     */
+    public long pathCount() {
+        return pathCount;
+    }
+
+    /**
+     * 惰性地依次给出所有最短路径.
+     * 每次取下一条路径时才沿前驱 DAG 展开，只取前几条时不会枚举其余路径。
+     *
+     * @return 路径上的节点编号，从起点到终点；每个数组都是新分配的.
+     */
+    public Iterator<int[]> iterator() {
+        return new PathIterator();
+    }
+
+    /**
+     * 所有最短路径组成的顺序流，与 {@link #iterator()} 一样惰性.
+     *
+     * @return 路径流.
+     */
+    public Stream<int[]> paths() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(),
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * 最多列出 limit 条最短路径.
+     *
+     * @param limit 上限.
+     * @return 与 {@link Main#shortestPath(String, String)} 格式相同的路径；不可达时为空列表.
+     */
+    public List<String> pathStrings(int limit) {
+        List<String> result = new ArrayList<>();
+        Iterator<int[]> paths = iterator();
+        while (result.size() < limit && paths.hasNext()) {
+            StringBuilder path = new StringBuilder();
+            for (int node : paths.next()) {
+                path.append(graph.word(node)).append(' ');
+            }
+            result.add(path.toString());
+        }
+        return result;
+    }
+
+    /** 从终点出发沿前驱深度优先展开，栈中保存当前的部分路径与每层下一个要尝试的前驱. */
+    private final class PathIterator implements Iterator<int[]> {
+        private final int[] stack = new int[maxLength];
+        private final int[] cursor = new int[maxLength];
+        private int depth;
+        private int[] next;
+
+        PathIterator() {
+            if (pathCount > 0) {
+                stack[0] = target;
+                cursor[0] = firstEntry[target];
+                depth = 0;
+                next = target == source ? new int[] {source} : advance();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public int[] next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            int[] result = next;
+            next = advance();
+            return result;
+        }
+
+        private int[] advance() {
+            while (depth >= 0) {
+                int entry = cursor[depth];
+                if (entry < 0) {
+                    depth--;
+                    continue;
+                }
+                cursor[depth] = nextEntry[entry];
+                int node = predecessors[entry];
+                if (node == source) {
+                    int[] path = new int[depth + 2];
+                    path[0] = source;
+                    for (int i = 0; i <= depth; i++) {
+                        path[depth + 1 - i] = stack[i];
+                    }
+                    return path;
+                }
+                depth++;
+                stack[depth] = node;
+                cursor[depth] = firstEntry[node];
+            }
+            return null;
+        }
+    }
+}
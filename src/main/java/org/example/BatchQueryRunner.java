@@ -0,0 +1,361 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.foreign.Arena;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 非交互式的批量查询.
+ * 从文件逐行读取查询，在线程池上并行执行，每条查询完成后立即写出一行结果（JSON lines 或 TSV），
+ * 因此输出顺序是完成顺序，每行带有查询所在的行号。查询只读 {@link QueryService}，不经过控制台。
+ *
+ * <p>每行一条查询，空行和以 # 开头的行被忽略：
+ * <pre>
+ * bridge 单词1 单词2
+ * generate 任意文本
+ * path 单词1 单词2
+ * walk [种子]
+ * </pre>
+ * walk 不给种子时以行号为种子，因此同一个查询文件的结果可以复现。
+ */
+public final class BatchQueryRunner {
+
+    /**
+     * 输出格式.
+     */
+    public enum Format {
+        /** 每行一个 JSON 对象. */
+        JSONL,
+        /** 行号、操作、结果，以制表符分隔. */
+        TSV
+    }
+
+    /**
+     * 一次批量执行的统计.
+     */
+    public static final class Report {
+        private final long queries;
+        private final long errors;
+        private final long elapsedNanos;
+
+        Report(long queries, long errors, long elapsedNanos) {
+            this.queries = queries;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * 执行的查询数.
+         *
+         * @return 查询数.
+         */
+        public long queries() {
+            return queries;
+        }
+
+        /**
+         * 出错的查询数（格式错误或单词不在图中）.
+         *
+         * @return 出错数.
+         */
+        public long errors() {
+            return errors;
+        }
+
+        /**
+         * 从读第一行到最后一个结果写出的耗时.
+         *
+         * @return 纳秒.
+         */
+        public long elapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * 吞吐量.
+         *
+         * @return 每秒查询数.
+         */
+        public double queriesPerSecond() {
+            return elapsedNanos == 0 ? 0 : queries * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d queries in %.1f ms (%.0f queries/s), %d errors",
+                    queries, elapsedNanos / 1e6, queriesPerSecond(), errors);
+        }
+    }
+
+    private final QueryService service;
+    private final Format format;
+
+    /**
+     * 创建批量查询执行器.
+     *
+     * @param service 查询入口.
+     * @param format  输出格式.
+     */
+    public BatchQueryRunner(QueryService service, Format format) {
+        this.service = service;
+        this.format = format;
+    }
+
+    /**
+     * 执行所有查询.
+     * 读取在当前线程进行，最多 maxInFlight 条查询同时在执行或等待执行，因此查询文件可以很大。
+     *
+     * @param queries     查询输入.
+     * @param out         结果输出，由各工作线程加锁写入.
+     * @param executor    执行查询的线程池，调用者负责关闭.
+     * @param maxInFlight 同时在处理中的最大查询数.
+     * @return 统计.
+     * @throws IOException 如果读写失败.
+     */
+    public Report run(BufferedReader queries, Writer out, ExecutorService executor,
+                      int maxInFlight) throws IOException {
+        long start = System.nanoTime();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        AtomicLong errors = new AtomicLong();
+        AtomicReference<IOException> failure = new AtomicReference<>();
+        long count = 0;
+        long lineNumber = 0;
+        try {
+            for (String line = queries.readLine(); line != null && failure.get() == null;
+                    line = queries.readLine()) {
+                lineNumber++;
+                String query = line.trim();
+                if (query.isEmpty() || query.startsWith("#")) {
+                    continue;
+                }
+                long number = lineNumber;
+                inFlight.acquire();
+                count++;
+                executor.execute(() -> {
+                    try {
+                        StringBuilder result = new StringBuilder();
+                        if (!answer(number, query, result)) {
+                            errors.incrementAndGet();
+                        }
+                        result.append('\n');
+                        synchronized (out) {
+                            out.append(result);
+                        }
+                    } catch (IOException e) {
+                        failure.compareAndSet(null, e);
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, new IOException("query at line " + number
+                                + " failed", e));
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            // 等待所有查询完成
+            inFlight.acquire(maxInFlight);
+            inFlight.release(maxInFlight);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted", e);
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        synchronized (out) {
+            out.flush();
+        }
+        return new Report(count, errors.get(), System.nanoTime() - start);
+    }
+
+    /**
+     * 执行一条查询并把结果格式化为一行（不含换行符）.
+     *
+     * @param lineNumber 查询所在的行号.
+     * @param query      去掉首尾空白的查询.
+     * @param out        输出.
+     * @return 查询是否成功.
+     */
+    boolean answer(long lineNumber, String query, StringBuilder out) {
+        int split = 0;
+        while (split < query.length() && !Character.isWhitespace(query.charAt(split))) {
+            split++;
+        }
+        String op = query.substring(0, split).toLowerCase(Locale.ROOT);
+        String rest = query.substring(split).trim().toLowerCase(Locale.ROOT);
+        String[] args = rest.isEmpty() ? new String[0] : rest.split("\\s+");
+        String error = null;
+        String text = null;
+        List<String> words = null;
+        switch (op) {
+            case "bridge":
+                if (args.length != 2) {
+                    error = "usage: bridge word1 word2";
+                } else if ((error = service.missingWords(args[0], args[1])) == null) {
+                    words = service.bridgeWords(args[0], args[1]);
+                }
+                break;
+            case "generate":
+                text = service.generateNewText(rest);
+                break;
+            case "path":
+                if (args.length != 2) {
+                    error = "usage: path word1 word2";
+                } else if ((error = service.missingWords(args[0], args[1])) == null) {
+                    text = service.shortestPath(args[0], args[1]);
+                }
+                break;
+            case "walk":
+                if (args.length > 1) {
+                    error = "usage: walk [seed]";
+                } else {
+                    try {
+                        long seed = args.length == 0 ? lineNumber : Long.parseLong(args[0]);
+                        text = service.randomWalk(seed);
+                    } catch (NumberFormatException e) {
+                        error = "invalid seed: " + args[0];
+                    }
+                }
+                break;
+            default:
+                error = "unknown query: " + op;
+        }
+        if (format == Format.JSONL) {
+            out.append("{\"line\":").append(lineNumber).append(",\"op\":");
+            Json.quote(out, op);
+            if (error != null) {
+                Json.quote(out.append(",\"error\":"), error);
+            } else if (words != null) {
+                Json.array(out.append(",\"result\":"), words);
+            } else {
+                Json.quote(out.append(",\"result\":"), text);
+            }
+            out.append('}');
+        } else {
+            out.append(lineNumber).append('\t').append(op).append('\t');
+            if (error != null) {
+                out.append("ERROR\t").append(error);
+            } else {
+                out.append("OK\t").append(words != null ? String.join(" ", words) : text);
+            }
+        }
+        return error == null;
+    }
+
+    /**
+     * 命令行入口.
+     * 用法：{@code BatchQueryRunner [--snapshot] [--offheap | --compressed] [--threads N]
+     * [--format jsonl|tsv] [--out 文件] [--metrics] 图文件 查询文件}；不加 --snapshot 时图文件是文本文件。
+     * 加 --offheap 时图放在堆外（{@link OffHeapGraph}）：快照整体映射，文本建图后复制到堆外
+     * 并丢弃堆上的节点；加 --compressed 时改用压缩的 {@link CompressedGraph}，同样丢弃堆上的节点。
+     * 压缩图由建好的图转换而来，只减少查询期间常驻的内存：从文本建图时峰值内存仍包括
+     * 堆上的节点和 {@link FrozenGraph}，从快照建图时包括整个快照；要降低峰值内存应先保存快照。
+     * 快照旁边有 {@link LandmarkIndex#pathFor 路标距离表}时用它加速最短路径查询。
+     * 结果写到标准输出或 --out 指定的文件，统计写到标准错误，
+     * 加 --metrics 时还包括各操作的延迟统计。
+     *
+     * @param args 命令行参数.
+     * @throws IOException 如果读写失败.
+     */
+    public static void main(String[] args) throws IOException {
+        boolean snapshot = false;
+        boolean offHeap = false;
+        boolean compressed = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Format format = Format.JSONL;
+        String output = null;
+        int i = 0;
+        for (; i < args.length && args[i].startsWith("--"); i++) {
+            switch (args[i]) {
+                case "--snapshot":
+                    snapshot = true;
+                    break;
+                case "--offheap":
+                    offHeap = true;
+                    break;
+                case "--compressed":
+                    compressed = true;
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--format":
+                    format = Format.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                    break;
+                case "--out":
+                    output = args[++i];
+                    break;
+                case "--metrics":
+                    Metrics.setEnabled(true);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown option: " + args[i]);
+            }
+        }
+        if (args.length - i != 2 || (offHeap && compressed)) {
+            System.err.println("usage: BatchQueryRunner [--snapshot] [--offheap | --compressed]"
+                    + " [--threads N] [--format jsonl|tsv] [--out file] [--metrics]"
+                    + " graph-file query-file");
+            System.err.println("  --compressed only shrinks the graph kept for queries;"
+                    + " loading still builds the full graph first");
+            System.exit(2);
+        }
+        // 堆外的图在整个运行期间有效，随 Arena 一起释放
+        Arena arena = Arena.ofShared();
+        WordGraph graph;
+        if (snapshot && offHeap) {
+            graph = OffHeapGraph.map(Paths.get(args[i]), arena);
+        } else if (snapshot) {
+            graph = GraphSnapshot.open(Paths.get(args[i]));
+        } else {
+            Main.buildGraphFromFile(args[i]);
+            graph = Main.freezeGraph();
+            if (offHeap) {
+                graph = OffHeapGraph.copyOf(graph, arena);
+                Main.clearGraph();
+            } else if (compressed) {
+                graph = CompressedGraph.of(graph);
+                Main.clearGraph();
+            }
+        }
+        if (snapshot && compressed) {
+            graph = CompressedGraph.of(graph);
+        }
+        // 与快照一起保存的路标距离表；压缩图重新编号，不能使用
+        LandmarkIndex landmarks = null;
+        Path landmarkPath = LandmarkIndex.pathFor(Paths.get(args[i]));
+        if (snapshot && !compressed && Files.exists(landmarkPath)) {
+            landmarks = LandmarkIndex.read(landmarkPath, graph);
+        }
+        BatchQueryRunner runner = new BatchQueryRunner(
+                new QueryService(graph, QueryService.DEFAULT_CACHE_SIZE, landmarks), format);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Writer out = output == null
+                ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                : Files.newBufferedWriter(Paths.get(output));
+        try (arena; BufferedReader in = Files.newBufferedReader(Paths.get(args[i + 1])); out) {
+            Report report = runner.run(in, out, executor, threads * 64);
+            System.err.println(report);
+            System.err.println(Metrics.GraphStats.of(graph));
+            if (Metrics.isEnabled()) {
+                Metrics.report().forEach(System.err::println);
+                runner.service.cacheReport().forEach(System.err::println);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package org.example;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * 压缩存储的只读图，思路来自 WebGraph.
+ * 单词按出现频率从高到低编号，高频词的编号小；每个节点的邻接表按编号排序后，
+ * 依次存放度数、目标编号之差（第一项为编号本身）和权重减一，都以变长整数 (varint) 编码，
+ * 共用一个 byte 数组，通过每个节点一项的偏移索引随机访问。
+ * 共现图的度数与权重都近似服从 Zipf 分布，大多数差值和权重只占一个字节，
+ * 每条边通常只需 2~4 字节，而 {@link FrozenGraph} 需要 16 字节，{@link Type} 中的哈希表更多。
+ *
+ * <p>查询时在访问边的同时解码，不展开成数组。单词以 UTF-8 字节拼接存放，按字节序排好的编号表
+ * 用于二分查找单词；{@link #edgeWeight} 在出边表与入边表中选较短的一个顺序查找。
+ */
+public final class CompressedGraph implements WordGraph {
+    private final int nodeCount;
+    private final long edgeCount;
+    private final byte[] strings;
+    private final int[] wordOffsets;
+    /** 按单词的 UTF-8 字节序排列的编号. */
+    private final int[] sortedIds;
+    private final byte[] successors;
+    private final int[] outOffsets;
+    private final byte[] predecessors;
+    private final int[] inOffsets;
+
+    private CompressedGraph(int nodeCount, long edgeCount, byte[] strings, int[] wordOffsets,
+                            int[] sortedIds, byte[] successors, int[] outOffsets,
+                            byte[] predecessors, int[] inOffsets) {
+        this.nodeCount = nodeCount;
+        this.edgeCount = edgeCount;
+        this.strings = strings;
+        this.wordOffsets = wordOffsets;
+        this.sortedIds = sortedIds;
+        this.successors = successors;
+        this.outOffsets = outOffsets;
+        this.predecessors = predecessors;
+        this.inOffsets = inOffsets;
+    }
+
+    /**
+     * 压缩任意图，单词重新按频率编号.
+     * 单词的频率取入边与出边权重之和中较大的一个，即它在文本中出现的次数（首尾单词少算一次）。
+     *
+     * @param graph 图.
+     * @return 压缩后的图，与原图的编号不同.
+     */
+    public static CompressedGraph of(WordGraph graph) {
+        int n = graph.nodeCount();
+        long[] frequencies = new long[n];
+        Integer[] order = new Integer[n];
+        for (int v = 0; v < n; v++) {
+            long[] sums = new long[2];
+            graph.forEachSuccessor(v, (next, weight) -> sums[0] += weight);
+            graph.forEachPredecessor(v, (previous, weight) -> sums[1] += weight);
+            frequencies[v] = Math.max(sums[0], sums[1]);
+            order[v] = v;
+        }
+        Arrays.sort(order, Comparator.<Integer>comparingLong(v -> -frequencies[v])
+                .thenComparing(graph::word));
+        int[] newIds = new int[n];
+        for (int id = 0; id < n; id++) {
+            newIds[order[id]] = id;
+        }
+
+        byte[][] encoded = new byte[n][];
+        int[] wordOffsets = new int[n + 1];
+        long stringBytes = 0;
+        for (int id = 0; id < n; id++) {
+            encoded[id] = graph.word(order[id]).getBytes(StandardCharsets.UTF_8);
+            stringBytes += encoded[id].length;
+            if (stringBytes > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("word table too large: " + stringBytes);
+            }
+            wordOffsets[id + 1] = (int) stringBytes;
+        }
+        byte[] strings = new byte[(int) stringBytes];
+        for (int id = 0; id < n; id++) {
+            System.arraycopy(encoded[id], 0, strings, wordOffsets[id], encoded[id].length);
+        }
+        Integer[] sorted = new Integer[n];
+        for (int id = 0; id < n; id++) {
+            sorted[id] = id;
+        }
+        Arrays.sort(sorted, (a, b) -> Arrays.compareUnsigned(encoded[a], encoded[b]));
+        int[] sortedIds = new int[n];
+        for (int i = 0; i < n; i++) {
+            sortedIds[i] = sorted[i];
+        }
+
+        int[] outOffsets = new int[n + 1];
+        int[] inOffsets = new int[n + 1];
+        byte[] successors = encodeLists(graph, order, newIds, true, outOffsets);
+        byte[] predecessors = encodeLists(graph, order, newIds, false, inOffsets);
+        return new CompressedGraph(n, graph.edgeCount(), strings, wordOffsets, sortedIds,
+                successors, outOffsets, predecessors, inOffsets);
+    }
+
+    /** 按新编号依次编码每个节点的出边或入边表. */
+    private static byte[] encodeLists(WordGraph graph, Integer[] order, int[] newIds,
+                                      boolean outgoing, int[] offsets) {
+        VarIntWriter out = new VarIntWriter();
+        long[][] row = {new long[16]};
+        for (int id = 0; id < order.length; id++) {
+            offsets[id] = out.size();
+            int[] degree = {0};
+            WordGraph.EdgeVisitor collect = (node, weight) -> {
+                if (degree[0] == row[0].length) {
+                    row[0] = Arrays.copyOf(row[0], degree[0] * 2);
+                }
+                // 权重至少为 1，打包后按新编号排序
+                row[0][degree[0]++] = (long) newIds[node] << 32 | (weight - 1L);
+            };
+            if (outgoing) {
+                graph.forEachSuccessor(order[id], collect);
+            } else {
+                graph.forEachPredecessor(order[id], collect);
+            }
+            Arrays.sort(row[0], 0, degree[0]);
+            out.write(degree[0]);
+            int previous = -1;
+            for (int i = 0; i < degree[0]; i++) {
+                int node = (int) (row[0][i] >>> 32);
+                out.write(node - previous - 1);
+                out.write((int) row[0][i]);
+                previous = node;
+            }
+        }
+        offsets[order.length] = out.size();
+        return out.toByteArray();
+    }
+
+    @Override
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    @Override
+    public long edgeCount() {
+        return edgeCount;
+    }
+
+    @Override
+    public int id(String word) {
+        byte[] key = word.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = nodeCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int id = sortedIds[mid];
+            int cmp = Arrays.compareUnsigned(strings, wordOffsets[id], wordOffsets[id + 1],
+                    key, 0, key.length);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String word(int id) {
+        return new String(strings, wordOffsets[id], wordOffsets[id + 1] - wordOffsets[id],
+                StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int outDegree(int node) {
+        return new VarIntReader(successors, outOffsets[node]).next();
+    }
+
+    @Override
+    public int inDegree(int node) {
+        return new VarIntReader(predecessors, inOffsets[node]).next();
+    }
+
+    @Override
+    public void forEachSuccessor(int node, EdgeVisitor visitor) {
+        decode(successors, outOffsets[node], visitor);
+    }
+
+    @Override
+    public void forEachPredecessor(int node, EdgeVisitor visitor) {
+        decode(predecessors, inOffsets[node], visitor);
+    }
+
+    private static void decode(byte[] lists, int offset, EdgeVisitor visitor) {
+        VarIntReader in = new VarIntReader(lists, offset);
+        int node = -1;
+        for (int i = in.next(); i > 0; i--) {
+            node += in.next() + 1;
+            visitor.visit(node, in.next() + 1);
+        }
+    }
+
+    @Override
+    public int edgeWeight(int from, int to) {
+        // 同一条边同时出现在 from 的出边表和 to 的入边表中，在较短的表中查找
+        VarIntReader out = new VarIntReader(successors, outOffsets[from]);
+        VarIntReader in = new VarIntReader(predecessors, inOffsets[to]);
+        int outDegree = out.next();
+        int inDegree = in.next();
+        VarIntReader list = outDegree <= inDegree ? out : in;
+        int key = outDegree <= inDegree ? to : from;
+        int node = -1;
+        for (int i = Math.min(outDegree, inDegree); i > 0; i--) {
+            node += list.next() + 1;
+            int weight = list.next() + 1;
+            if (node >= key) {
+                return node == key ? weight : 0;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 估算本图占用的堆内存，可与 {@link FrozenGraph#estimatedBytes()} 比较.
+     *
+     * @return 估算的字节数.
+     */
+    public long estimatedBytes() {
+        return array(strings.length) + array(predecessors.length) + array(successors.length)
+                + 4 * array(4L * (nodeCount + 1));
+    }
+
+    private static long array(long bytes) {
+        return (16 + bytes + 7) & ~7L;
+    }
+
+    /** 无符号 LEB128：每字节低 7 位为数据，最高位表示后面还有字节. */
+    private static final class VarIntWriter {
+        private byte[] bytes = new byte[1 << 10];
+        private int size;
+
+        void write(int value) {
+            if (size + 5 > bytes.length) {
+                if (bytes.length > Integer.MAX_VALUE / 2) {
+                    throw new IllegalArgumentException("adjacency lists exceed 2GB");
+                }
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            while ((value & ~0x7F) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+
+    private static final class VarIntReader {
+        private final byte[] bytes;
+        private int position;
+
+        VarIntReader(byte[] bytes, int position) {
+            this.bytes = bytes;
+            this.position = position;
+        }
+
+        int next() {
+            int b = bytes[position++];
+            if (b >= 0) {
+                return b;
+            }
+            int value = b & 0x7F;
+            for (int shift = 7; ; shift += 7) {
+                b = bytes[position++];
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+    }
+}
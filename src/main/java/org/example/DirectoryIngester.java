@@ -0,0 +1,361 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * 目录导入流水线.
+ * 递归遍历目录，把每个文件作为一篇独立的文档（文档之间不连边）加入图中，
+ * 分为四个阶段：遍历目录 → 读取并分词 → 统计边 → 合并到图，阶段之间用有界队列连接。
+ * 下游跟不上时上游在 put 上阻塞（背压），因此除图本身之外的内存只取决于线程数、队列长度和
+ * 每批的单词数，与语料的总大小无关；文件由 {@link WordTokenizer} 流式读取，单个大文件也不会整体载入。
+ *
+ * <p>合并只在调用 {@link #ingest} 的线程上进行，图不需要加锁。
+ * 得到的图与依次对每个文件调用 {@link Main#ingestFile(String, boolean)}（不连接前一篇）相同。
+ */
+public final class DirectoryIngester {
+    /** 每批的单词数. */
+    static final int BATCH_WORDS = 1 << 14;
+    /** 进度回调的最小间隔. */
+    static final long REPORT_INTERVAL_NANOS = 1_000_000_000L;
+
+    private static final Path END_OF_FILES = Paths.get("");
+    private static final WordBatch END_OF_WORDS = new WordBatch(null, new String[0], 0);
+    private static final Map<String, Map<String, int[]>> END_OF_EDGES = new HashMap<>();
+
+    /**
+     * 导入进度.
+     */
+    public static final class Progress {
+        private final long files;
+        private final long bytes;
+        private final long words;
+        private final long elapsedNanos;
+
+        Progress(long files, long bytes, long words, long elapsedNanos) {
+            this.files = files;
+            this.bytes = bytes;
+            this.words = words;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * 已读完的文件数.
+         *
+         * @return 文件数.
+         */
+        public long files() {
+            return files;
+        }
+
+        /**
+         * 已读完的文件的总字节数.
+         *
+         * @return 字节数.
+         */
+        public long bytes() {
+            return bytes;
+        }
+
+        /**
+         * 已分词的单词数（含重复）.
+         *
+         * @return 单词数.
+         */
+        public long words() {
+            return words;
+        }
+
+        /**
+         * 从开始导入到现在的时间.
+         *
+         * @return 纳秒.
+         */
+        public long elapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * 单词吞吐量.
+         *
+         * @return 每秒分词的单词数.
+         */
+        public double wordsPerSecond() {
+            return elapsedNanos == 0 ? 0 : words * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * 读取吞吐量.
+         *
+         * @return 每秒读完的 MB 数.
+         */
+        public double megabytesPerSecond() {
+            return elapsedNanos == 0 ? 0 : bytes * 1e9 / elapsedNanos / (1 << 20);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "files=%d MB=%.1f words=%d elapsed=%.1fs words/s=%.0f MB/s=%.1f",
+                    files, bytes / (double) (1 << 20), words, elapsedNanos / 1e9,
+                    wordsPerSecond(), megabytesPerSecond());
+        }
+    }
+
+    /** 一篇文档中连续的一批单词；previous 是同一文档中紧挨在这批之前的单词. */
+    private static final class WordBatch {
+        final String previous;
+        final String[] words;
+        final int size;
+
+        WordBatch(String previous, String[] words, int size) {
+            this.previous = previous;
+            this.words = words;
+            this.size = size;
+        }
+    }
+
+    private final int readers;
+    private final int counters;
+    private final int queueCapacity;
+    private final LongAdder files = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder words = new LongAdder();
+    private volatile long startNanos;
+
+    /**
+     * 创建流水线.
+     *
+     * @param readers       读取并分词的线程数.
+     * @param counters      统计边的线程数.
+     * @param queueCapacity 每个阶段之间的队列长度（批数）.
+     */
+    public DirectoryIngester(int readers, int counters, int queueCapacity) {
+        if (readers < 1 || counters < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("readers, counters and queueCapacity must be > 0");
+        }
+        this.readers = readers;
+        this.counters = counters;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * 当前进度，可以在导入过程中从其他线程读取.
+     *
+     * @return 进度.
+     */
+    public Progress progress() {
+        long start = startNanos;
+        return new Progress(files.sum(), bytes.sum(), words.sum(),
+                start == 0 ? 0 : System.nanoTime() - start);
+    }
+
+    /**
+     * 导入目录下所有匹配的文件.
+     *
+     * @param root     目录；也可以是单个文件.
+     * @param glob     文件名的 glob 模式，例如 {@code *.txt}；null 表示所有普通文件.
+     * @param nodes    要加入的图，只在调用线程上修改.
+     * @param listener 进度回调，在调用线程上大约每秒调用一次，结束时再调用一次；可以为 null.
+     * @return 最终进度.
+     * @throws IOException 如果遍历目录或读取文件失败，此时图中可能已合并了部分文件.
+     */
+    public Progress ingest(Path root, String glob, Map<String, Type> nodes,
+                           Consumer<Progress> listener) throws IOException {
+        PathMatcher matcher = glob == null ? null
+                : root.getFileSystem().getPathMatcher("glob:" + glob);
+        BlockingQueue<Path> paths = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<WordBatch> batches = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Map<String, Map<String, int[]>>> counts =
+                new ArrayBlockingQueue<>(queueCapacity);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicInteger activeReaders = new AtomicInteger(readers);
+        startNanos = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(1 + readers + counters);
+        try {
+            executor.execute(() -> walk(root, matcher, paths, failure));
+            for (int i = 0; i < readers; i++) {
+                executor.execute(() -> read(paths, batches, activeReaders, failure));
+            }
+            for (int i = 0; i < counters; i++) {
+                executor.execute(() -> count(batches, counts, failure));
+            }
+            long lastReport = System.nanoTime();
+            for (int finished = 0; finished < counters; ) {
+                Map<String, Map<String, int[]>> batch = counts.take();
+                if (batch == END_OF_EDGES) {
+                    finished++;
+                    continue;
+                }
+                // 出错后只排空队列，让上游线程能够退出
+                if (failure.get() == null) {
+                    try {
+                        Main.mergeCounts(nodes, batch);
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+                if (listener != null && System.nanoTime() - lastReport >= REPORT_INTERVAL_NANOS) {
+                    listener.accept(progress());
+                    lastReport = System.nanoTime();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("directory ingestion interrupted");
+        } finally {
+            // 正常结束时各阶段都已退出；出错时中断还阻塞在队列上的线程（例如读取线程都已退出时的遍历线程）
+            executor.shutdownNow();
+        }
+        Throwable error = failure.get();
+        if (error instanceof UncheckedIOException) {
+            throw ((UncheckedIOException) error).getCause();
+        } else if (error instanceof IOException) {
+            throw (IOException) error;
+        } else if (error instanceof Error) {
+            throw (Error) error;
+        } else if (error != null) {
+            throw new IOException("directory ingestion failed", error);
+        }
+        Progress result = progress();
+        if (listener != null) {
+            listener.accept(result);
+        }
+        return result;
+    }
+
+    /**
+     * 放入结束标记.
+     * 各阶段在 finally 中调用，无论正常结束还是因异常或 Error 退出，下游都能收到结束标记，
+     * {@link #ingest} 不会一直等待；被中断说明 {@link #ingest} 已经返回，不再需要标记。
+     */
+    private static <T> void putMarkers(BlockingQueue<T> queue, T marker, int count) {
+        try {
+            for (int i = 0; i < count; i++) {
+                queue.put(marker);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** 第一阶段：惰性遍历目录，结束时为每个读取线程放一个结束标记. */
+    private void walk(Path root, PathMatcher matcher, BlockingQueue<Path> paths,
+                      AtomicReference<Throwable> failure) {
+        try (Stream<Path> tree = Files.walk(root)) {
+            Iterator<Path> it = tree.iterator();
+            while (it.hasNext() && failure.get() == null) {
+                Path path = it.next();
+                if (Files.isRegularFile(path)
+                        && (matcher == null || matcher.matches(path.getFileName()))) {
+                    paths.put(path);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            putMarkers(paths, END_OF_FILES, readers);
+        }
+    }
+
+    /** 第二阶段：流式分词，按批交给下游；最后一个退出的读取线程为每个统计线程放结束标记. */
+    private void read(BlockingQueue<Path> paths, BlockingQueue<WordBatch> batches,
+                      AtomicInteger activeReaders, AtomicReference<Throwable> failure) {
+        try {
+            for (Path path = paths.take(); path != END_OF_FILES; path = paths.take()) {
+                // 出错后只取走剩余的路径，让遍历线程能够退出
+                if (failure.get() == null) {
+                    readFile(path, batches);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            if (activeReaders.decrementAndGet() == 0) {
+                putMarkers(batches, END_OF_WORDS, counters);
+            }
+        }
+    }
+
+    private void readFile(Path path, BlockingQueue<WordBatch> batches)
+            throws IOException, InterruptedException {
+        try (WordTokenizer tokenizer = WordTokenizer.open(path)) {
+            String previous = null;
+            String[] batch = new String[BATCH_WORDS];
+            int size = 0;
+            for (String word = tokenizer.nextWord(); word != null; word = tokenizer.nextWord()) {
+                if (word.isEmpty()) {
+                    continue;
+                }
+                batch[size++] = word;
+                if (size == BATCH_WORDS) {
+                    batches.put(new WordBatch(previous, batch, size));
+                    words.add(size);
+                    previous = batch[size - 1];
+                    batch = new String[BATCH_WORDS];
+                    size = 0;
+                }
+            }
+            if (size > 0) {
+                batches.put(new WordBatch(previous, batch, size));
+                words.add(size);
+            }
+        }
+        files.increment();
+        bytes.add(Files.size(path));
+    }
+
+    /** 第三阶段：在本地表中统计一批单词的边，包括与前一批相接的那条边. */
+    private void count(BlockingQueue<WordBatch> batches,
+                       BlockingQueue<Map<String, Map<String, int[]>>> counts,
+                       AtomicReference<Throwable> failure) {
+        try {
+            for (WordBatch batch = batches.take(); batch != END_OF_WORDS; batch = batches.take()) {
+                if (failure.get() != null) {
+                    continue;
+                }
+                Map<String, Map<String, int[]>> edges = new HashMap<>();
+                Map<String, int[]> prevEdges = batch.previous == null ? null
+                        : edges.computeIfAbsent(batch.previous, k -> new HashMap<>());
+                for (int i = 0; i < batch.size; i++) {
+                    String word = batch.words[i];
+                    Map<String, int[]> wordEdges =
+                            edges.computeIfAbsent(word, k -> new HashMap<>());
+                    if (prevEdges != null) {
+                        prevEdges.computeIfAbsent(word, k -> new int[1])[0]++;
+                    }
+                    prevEdges = wordEdges;
+                }
+                counts.put(edges);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            putMarkers(counts, END_OF_EDGES, 1);
+        }
+    }
+}
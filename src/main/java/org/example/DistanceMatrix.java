@@ -0,0 +1,737 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * 所有单词对之间的最短距离.
+ * 每个起点运行一次单源搜索，起点之间互不相关，在 {@link ForkJoinPool} 上并行计算；
+ * 距离按行写入一个紧凑的 int 矩阵，矩阵放在堆上的数组中，堆上放不下时映射到文件。
+ * 词表很大时 n² 的矩阵不现实，可以只导出每个单词在若干跳以内、或最近的若干个单词的距离
+ * （{@link #exportNearest}），按行流式写出，一批并行计算的行合计最多缓存约
+ * {@link #BATCH_ENTRIES} 个单词（每个线程至少一行），内存不随行数增长。
+ *
+ * <p>导出文件格式（小端）：
+ * <pre>
+ * 0   int   MAGIC
+ * 4   int   FORMAT_VERSION
+ * 8   int   单词数 n
+ * 12  int   布局：0 为稠密矩阵，1 为稀疏行
+ * 16  int   跳数上限，0 表示不限
+ * 20  int   每行最多的单词数，0 表示不限
+ * 24  long  单词的 UTF-8 总字节数
+ * 32        n 个单词，每个为 int 字节数加 UTF-8 字节，随后补零到 8 字节对齐
+ *           稠密：n 行，每行 n 个 int 距离，不可达为 -1
+ *           稀疏：n 行，每行为 int 个数 k、k 个目标编号、k 个距离，按距离递增，不含起点自身
+ * </pre>
+ * 稠密文件可以用 {@link #map} 整体映射后随机访问；两种布局都可以用 {@link RowReader} 按行顺序读取。
+ */
+public final class DistanceMatrix {
+    /** 不可达时的距离. */
+    public static final int UNREACHABLE = -1;
+
+    static final int MAGIC = 0x57474450;
+    /** 格式版本. */
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    static final int DENSE = 0;
+    static final int SPARSE = 1;
+    /** 稀疏导出时每批并行计算的最多行数. */
+    static final int BATCH_ROWS = 4096;
+    /** 稀疏导出时一批行最多缓存的单词数（按每行可能的最大个数估计）. */
+    static final long BATCH_ENTRIES = 1L << 22;
+    /** 并行任务不再切分的行数. */
+    private static final int MIN_ROWS_PER_TASK = 8;
+    private static final ValueLayout.OfInt INT_LAYOUT =
+            ValueLayout.JAVA_INT.withOrder(ByteOrder.LITTLE_ENDIAN);
+    /** 单词表中的长度不一定对齐. */
+    private static final ValueLayout.OfInt UNALIGNED_INT =
+            ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfLong LONG_LAYOUT =
+            ValueLayout.JAVA_LONG.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    private final String[] words;
+    private final MemorySegment cells;
+    /** 第一行在 cells 中的字节偏移. */
+    private final long rowsOffset;
+
+    private DistanceMatrix(String[] words, MemorySegment cells, long rowsOffset) {
+        this.words = words;
+        this.cells = cells;
+        this.rowsOffset = rowsOffset;
+    }
+
+    /**
+     * 判断 n 个单词的矩阵能否放在堆上.
+     * 矩阵不能超过一个 int 数组的长度，也不能超过最大堆的四分之一。
+     *
+     * @param nodeCount 单词数.
+     * @return 能放在堆上时返回 true.
+     */
+    public static boolean fitsOnHeap(int nodeCount) {
+        long cellCount = (long) nodeCount * nodeCount;
+        return cellCount <= Integer.MAX_VALUE - 8
+                && cellCount * Integer.BYTES <= Runtime.getRuntime().maxMemory() / 4;
+    }
+
+    /**
+     * 在堆上计算完整的距离矩阵.
+     *
+     * @param graph 图.
+     * @param pool  并行计算所用的线程池.
+     * @return 距离矩阵.
+     * @throws IllegalArgumentException 如果矩阵放不下，见 {@link #fitsOnHeap}.
+     * @throws ArithmeticException      如果某个距离超出 int 范围.
+     */
+    public static DistanceMatrix compute(WordGraph graph, ForkJoinPool pool) {
+        int n = graph.nodeCount();
+        if (!fitsOnHeap(n)) {
+            throw new IllegalArgumentException("distance matrix of " + n
+                    + " words does not fit on the heap, map it to a file instead");
+        }
+        DistanceMatrix matrix = new DistanceMatrix(words(graph),
+                MemorySegment.ofArray(new int[n * n]), 0);
+        matrix.fill(graph, pool);
+        return matrix;
+    }
+
+    /**
+     * 计算完整的距离矩阵并直接写入映射的文件.
+     * 完成后文件就是一个稠密布局的导出文件，矩阵的大小只受磁盘限制。
+     *
+     * @param graph 图.
+     * @param pool  并行计算所用的线程池.
+     * @param file  输出文件，已存在时会被覆盖.
+     * @param arena 映射所属的 Arena，必须允许线程池中的线程访问（例如 {@link Arena#ofShared()}）.
+     * @return 距离矩阵，在 Arena 关闭前有效.
+     * @throws IOException 如果创建或映射文件失败.
+     */
+    public static DistanceMatrix compute(WordGraph graph, ForkJoinPool pool, Path file,
+                                         Arena arena) throws IOException {
+        int n = graph.nodeCount();
+        String[] words = words(graph);
+        byte[] header = header(words, DENSE, 0, 0);
+        MemorySegment segment;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // 映射的区域超出文件时文件会被扩展
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    header.length + (long) Integer.BYTES * n * n, arena);
+        }
+        MemorySegment.copy(header, 0, segment, ValueLayout.JAVA_BYTE, 0, header.length);
+        DistanceMatrix matrix = new DistanceMatrix(words, segment, header.length);
+        matrix.fill(graph, pool);
+        segment.force();
+        return matrix;
+    }
+
+    private static String[] words(WordGraph graph) {
+        String[] words = new String[graph.nodeCount()];
+        for (int v = 0; v < words.length; v++) {
+            words[v] = graph.word(v);
+        }
+        return words;
+    }
+
+    private void fill(WordGraph graph, ForkJoinPool pool) {
+        int n = words.length;
+        ThreadLocal<Search> searches = ThreadLocal.withInitial(() -> new Search(graph));
+        pool.invoke(new RowTask(0, n, source -> {
+            Search search = searches.get();
+            int[] row = search.denseRow(source);
+            MemorySegment.copy(row, 0, cells, INT_LAYOUT,
+                    rowsOffset + (long) Integer.BYTES * n * source, n);
+        }));
+    }
+
+    /**
+     * 把稠密布局的导出文件整体映射为距离矩阵，不复制数据.
+     *
+     * @param path  导出文件.
+     * @param arena 映射所属的 Arena，关闭时解除映射.
+     * @return 距离矩阵.
+     * @throws IOException 如果文件不存在、格式不正确或不是稠密布局.
+     */
+    public static DistanceMatrix map(Path path, Arena arena) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("not a distance file: " + path);
+            }
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    channel.size(), arena);
+            if (segment.get(INT_LAYOUT, 0) != MAGIC) {
+                throw new IOException("not a distance file: " + path);
+            }
+            int version = segment.get(INT_LAYOUT, 4);
+            if (version != FORMAT_VERSION) {
+                throw new IOException("unsupported distance file version " + version);
+            }
+            if (segment.get(INT_LAYOUT, 12) != DENSE) {
+                throw new IOException("not a dense distance matrix: " + path);
+            }
+            int n = segment.get(INT_LAYOUT, 8);
+            long stringBytes = segment.get(LONG_LAYOUT, 24);
+            long rowsOffset = align(HEADER_BYTES + (long) Integer.BYTES * n + stringBytes);
+            if (n < 0 || stringBytes < 0
+                    || channel.size() != rowsOffset + (long) Integer.BYTES * n * n) {
+                throw new IOException("truncated or corrupt distance file: " + path);
+            }
+            String[] words = new String[n];
+            long position = HEADER_BYTES;
+            for (int v = 0; v < n; v++) {
+                byte[] bytes = new byte[segment.get(UNALIGNED_INT, position)];
+                MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, position + Integer.BYTES,
+                        bytes, 0, bytes.length);
+                words[v] = new String(bytes, StandardCharsets.UTF_8);
+                position += Integer.BYTES + bytes.length;
+            }
+            return new DistanceMatrix(words, segment, rowsOffset);
+        }
+    }
+
+    /**
+     * 单词数.
+     *
+     * @return 矩阵的行数和列数.
+     */
+    public int nodeCount() {
+        return words.length;
+    }
+
+    /**
+     * 编号对应的单词，与计算时所用的图相同.
+     *
+     * @param id 编号.
+     * @return 单词.
+     */
+    public String word(int id) {
+        return words[id];
+    }
+
+    /**
+     * 两个单词之间的最短距离.
+     *
+     * @param from 起点编号.
+     * @param to   终点编号.
+     * @return 距离；不可达时返回 {@link #UNREACHABLE}.
+     */
+    public int distance(int from, int to) {
+        return cells.get(INT_LAYOUT,
+                rowsOffset + Integer.BYTES * ((long) words.length * from + to));
+    }
+
+    /**
+     * 以稠密布局导出，可以被 {@link #map} 或 {@link RowReader} 读取.
+     *
+     * @param out 输出流，不会被关闭.
+     * @throws IOException 如果写入失败.
+     */
+    public void export(OutputStream out) throws IOException {
+        int n = words.length;
+        out.write(header(words, DENSE, 0, 0));
+        LittleEndianOutput rows = new LittleEndianOutput(out);
+        int[] row = new int[n];
+        for (int source = 0; source < n; source++) {
+            MemorySegment.copy(cells, INT_LAYOUT,
+                    rowsOffset + (long) Integer.BYTES * n * source, row, 0, n);
+            rows.writeInts(row, n);
+        }
+        rows.flush();
+    }
+
+    /**
+     * 以稀疏布局流式导出每个单词到附近单词的距离.
+     * 两个上限都为 0 时导出所有可达的单词，与完整矩阵等价但不需要 n² 的内存。
+     *
+     * @param graph   图.
+     * @param pool    并行计算所用的线程池.
+     * @param maxHops 大于 0 时只考虑边数不超过它的路径，距离是这些路径中的最短距离.
+     * @param topN    大于 0 时每行只保留距离最近的 topN 个单词，距离相同时取舍不定.
+     * @param out     输出流，不会被关闭.
+     * @throws IOException 如果写入失败.
+     */
+    public static void exportNearest(WordGraph graph, ForkJoinPool pool, int maxHops, int topN,
+                                     OutputStream out) throws IOException {
+        if (maxHops < 0 || topN < 0) {
+            throw new IllegalArgumentException("maxHops and topN must be >= 0");
+        }
+        int n = graph.nodeCount();
+        out.write(header(words(graph), SPARSE, maxHops, topN));
+        LittleEndianOutput rows = new LittleEndianOutput(out);
+        ThreadLocal<Search> searches = ThreadLocal.withInitial(() -> new Search(graph));
+        int batch = batchRows(n, topN, pool.getParallelism());
+        int[][] targets = new int[batch][];
+        int[][] distances = new int[batch][];
+        // 一批行并行计算后按起点顺序写出，再计算下一批
+        for (int first = 0; first < n; first += batch) {
+            int start = first;
+            int end = Math.min(n, first + batch);
+            pool.invoke(new RowTask(start, end, source -> {
+                Search search = searches.get();
+                int count = search.nearest(source, maxHops, topN);
+                targets[source - start] = Arrays.copyOf(search.targets, count);
+                distances[source - start] = Arrays.copyOf(search.distances, count);
+            }));
+            for (int i = 0; i < end - start; i++) {
+                rows.writeInt(targets[i].length);
+                rows.writeInts(targets[i], targets[i].length);
+                rows.writeInts(distances[i], distances[i].length);
+                targets[i] = null;
+                distances[i] = null;
+            }
+        }
+        rows.flush();
+    }
+
+    /**
+     * 每批计算的行数：按每行最多 min(topN, n - 1) 个单词估计，合计不超过 {@link #BATCH_ENTRIES}，
+     * 但至少每个线程一行、至多 {@link #BATCH_ROWS} 行.
+     */
+    static int batchRows(int n, int topN, int parallelism) {
+        long perRow = Math.max(1, topN == 0 ? n - 1L : Math.min(topN, n - 1L));
+        long rows = Math.max(parallelism, BATCH_ENTRIES / perRow);
+        return (int) Math.max(1, Math.min(Math.min(rows, BATCH_ROWS), n));
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+
+    /** 文件头、单词表与对齐用的填充. */
+    private static byte[] header(String[] words, int layout, int maxHops, int topN) {
+        byte[][] encoded = new byte[words.length][];
+        long stringBytes = 0;
+        for (int v = 0; v < words.length; v++) {
+            encoded[v] = words[v].getBytes(StandardCharsets.UTF_8);
+            stringBytes += encoded[v].length;
+        }
+        long size = align(HEADER_BYTES + (long) Integer.BYTES * words.length + stringBytes);
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("word table too large: " + stringBytes + " bytes");
+        }
+        ByteBuffer header = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(words.length).putInt(layout)
+                .putInt(maxHops).putInt(topN).putLong(stringBytes);
+        for (byte[] word : encoded) {
+            header.putInt(word.length).put(word);
+        }
+        return header.array();
+    }
+
+    /** 把 [lo, hi) 中的起点对半切分，直到足够小后依次处理. */
+    private static final class RowTask extends RecursiveAction {
+        private final int lo;
+        private final int hi;
+        private final IntConsumer row;
+
+        RowTask(int lo, int hi, IntConsumer row) {
+            this.lo = lo;
+            this.hi = hi;
+            this.row = row;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= MIN_ROWS_PER_TASK) {
+                for (int source = lo; source < hi; source++) {
+                    row.accept(source);
+                }
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new RowTask(lo, mid, row), new RowTask(mid, hi, row));
+        }
+    }
+
+    /** 一个线程的单源搜索状态，数组在起点之间复用，只重置访问过的节点. */
+    private static final class Search {
+        private final WordGraph graph;
+        private final long[] best;
+        private final IndexedMinHeap heap;
+        private final int[] touched;
+        private int touchedCount;
+        /** 按出堆顺序排列的节点. */
+        private final int[] settled;
+        /** 限跳搜索中节点最近一次被加入下一轮的轮次. */
+        private final int[] roundOf;
+        private int round;
+        private int[] frontier;
+        private int[] nextFrontier;
+        private final long[] frontierDistances;
+        private final int[] row;
+        /** 最近一次 {@link #nearest} 的结果. */
+        final int[] targets;
+        final int[] distances;
+
+        Search(WordGraph graph) {
+            int n = graph.nodeCount();
+            this.graph = graph;
+            best = new long[n];
+            Arrays.fill(best, Long.MAX_VALUE);
+            heap = new IndexedMinHeap(n);
+            touched = new int[n];
+            settled = new int[n];
+            roundOf = new int[n];
+            frontier = new int[n];
+            nextFrontier = new int[n];
+            frontierDistances = new long[n];
+            row = new int[n];
+            targets = new int[n];
+            distances = new int[n];
+        }
+
+        private void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                best[touched[i]] = Long.MAX_VALUE;
+            }
+            touchedCount = 0;
+            heap.clear();
+        }
+
+        private void reach(int node, long distance) {
+            if (best[node] == Long.MAX_VALUE) {
+                touched[touchedCount++] = node;
+            }
+            best[node] = distance;
+        }
+
+        /** Dijkstra，出堆 limit 个节点后停止，返回出堆的节点数. */
+        private int dijkstra(int source, int limit) {
+            reset();
+            reach(source, 0);
+            heap.insertOrDecrease(source, 0);
+            int count = 0;
+            while (!heap.isEmpty() && count < limit) {
+                int current = heap.poll();
+                settled[count++] = current;
+                long base = best[current];
+                graph.forEachSuccessor(current, (next, weight) -> {
+                    long candidate = base + weight;
+                    if (candidate < best[next]) {
+                        reach(next, candidate);
+                        heap.insertOrDecrease(next, candidate);
+                    }
+                });
+            }
+            return count;
+        }
+
+        /** 边数不超过 maxHops 的最短距离：逐轮松弛上一轮距离变小的节点的出边. */
+        private void hopBounded(int source, int maxHops) {
+            reset();
+            reach(source, 0);
+            frontier[0] = source;
+            int size = 1;
+            for (int hop = 0; hop < maxHops && size > 0; hop++) {
+                // 只用上一轮结束时的距离松弛，保证路径的边数不超过轮数
+                for (int i = 0; i < size; i++) {
+                    frontierDistances[i] = best[frontier[i]];
+                }
+                if (++round == 0) {
+                    Arrays.fill(roundOf, 0);
+                    round = 1;
+                }
+                int[] nextSize = {0};
+                for (int i = 0; i < size; i++) {
+                    long base = frontierDistances[i];
+                    graph.forEachSuccessor(frontier[i], (next, weight) -> {
+                        long candidate = base + weight;
+                        if (candidate < best[next]) {
+                            reach(next, candidate);
+                            if (roundOf[next] != round) {
+                                roundOf[next] = round;
+                                nextFrontier[nextSize[0]++] = next;
+                            }
+                        }
+                    });
+                }
+                int[] swap = frontier;
+                frontier = nextFrontier;
+                nextFrontier = swap;
+                size = nextSize[0];
+            }
+        }
+
+        /** 完整的一行距离，数组会被复用. */
+        int[] denseRow(int source) {
+            int count = dijkstra(source, Integer.MAX_VALUE);
+            Arrays.fill(row, UNREACHABLE);
+            for (int i = 0; i < count; i++) {
+                row[settled[i]] = Math.toIntExact(best[settled[i]]);
+            }
+            return row;
+        }
+
+        /** 把起点附近的单词按距离递增写入 targets 和 distances，返回个数. */
+        int nearest(int source, int maxHops, int topN) {
+            int count = 0;
+            if (maxHops == 0) {
+                // 多出堆一个起点自身；topN 为 Integer.MAX_VALUE 时加一会溢出
+                int limit = topN == 0 ? Integer.MAX_VALUE
+                        : (int) Math.min(Integer.MAX_VALUE, topN + 1L);
+                int settledCount = dijkstra(source, limit);
+                // 出堆顺序就是距离顺序，第一个是起点自身
+                for (int i = 1; i < settledCount; i++) {
+                    targets[count] = settled[i];
+                    distances[count++] = Math.toIntExact(best[settled[i]]);
+                }
+                return count;
+            }
+            hopBounded(source, maxHops);
+            long[] order = new long[touchedCount - 1];
+            for (int i = 0; i < touchedCount; i++) {
+                int node = touched[i];
+                if (node != source) {
+                    order[count++] = (long) Math.toIntExact(best[node]) << 32 | node;
+                }
+            }
+            Arrays.sort(order);
+            count = topN == 0 ? order.length : Math.min(topN, order.length);
+            for (int i = 0; i < count; i++) {
+                targets[i] = (int) order[i];
+                distances[i] = (int) (order[i] >>> 32);
+            }
+            return count;
+        }
+    }
+
+    /** 带缓冲的小端输出. */
+    private static final class LittleEndianOutput {
+        private final OutputStream out;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16)
+                .order(ByteOrder.LITTLE_ENDIAN);
+
+        LittleEndianOutput(OutputStream out) {
+            this.out = out;
+        }
+
+        void writeInt(int value) throws IOException {
+            if (buffer.remaining() < Integer.BYTES) {
+                drain();
+            }
+            buffer.putInt(value);
+        }
+
+        void writeInts(int[] values, int count) throws IOException {
+            for (int i = 0; i < count; i++) {
+                writeInt(values[i]);
+            }
+        }
+
+        private void drain() throws IOException {
+            out.write(buffer.array(), 0, buffer.position());
+            buffer.clear();
+        }
+
+        void flush() throws IOException {
+            drain();
+            out.flush();
+        }
+    }
+
+    /**
+     * 按行顺序读取导出文件，不需要把文件整体载入或映射.
+     * 两种布局都以稀疏行的形式给出：稠密布局的行只列出可达的单词，包括距离为 0 的起点自身。
+     */
+    public static final class RowReader implements Closeable {
+        private final DataInputStream in;
+        private final String[] words;
+        private final boolean dense;
+        private final int maxHops;
+        private final int topN;
+        private final int[] targets;
+        private final int[] distances;
+        private final byte[] bytes = new byte[1 << 12];
+        private int source = -1;
+        private int count;
+
+        private RowReader(DataInputStream in, String[] words, boolean dense, int maxHops,
+                          int topN) {
+            this.in = in;
+            this.words = words;
+            this.dense = dense;
+            this.maxHops = maxHops;
+            this.topN = topN;
+            this.targets = new int[words.length];
+            this.distances = new int[words.length];
+        }
+
+        /**
+         * 读取文件头与单词表.
+         *
+         * @param input 导出文件的内容，由读取器负责关闭.
+         * @return 读取器，位于第一行之前.
+         * @throws IOException 如果读取失败或格式不正确.
+         */
+        public static RowReader open(InputStream input) throws IOException {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(input, 1 << 16));
+            try {
+                if (Integer.reverseBytes(in.readInt()) != MAGIC) {
+                    throw new IOException("not a distance file");
+                }
+                int version = Integer.reverseBytes(in.readInt());
+                if (version != FORMAT_VERSION) {
+                    throw new IOException("unsupported distance file version " + version);
+                }
+                int n = Integer.reverseBytes(in.readInt());
+                int layout = Integer.reverseBytes(in.readInt());
+                int maxHops = Integer.reverseBytes(in.readInt());
+                int topN = Integer.reverseBytes(in.readInt());
+                long stringBytes = Long.reverseBytes(in.readLong());
+                if (n < 0 || (layout != DENSE && layout != SPARSE)) {
+                    throw new IOException("corrupt distance file header");
+                }
+                String[] words = new String[n];
+                for (int v = 0; v < n; v++) {
+                    byte[] word = new byte[Integer.reverseBytes(in.readInt())];
+                    in.readFully(word);
+                    words[v] = new String(word, StandardCharsets.UTF_8);
+                }
+                long read = HEADER_BYTES + (long) Integer.BYTES * n + stringBytes;
+                in.skipNBytes(align(read) - read);
+                return new RowReader(in, words, layout == DENSE, maxHops, topN);
+            } catch (IOException | RuntimeException e) {
+                in.close();
+                throw e;
+            }
+        }
+
+        /**
+         * 单词表.
+         *
+         * @return 以编号为下标的单词.
+         */
+        public String[] words() {
+            return words.clone();
+        }
+
+        /**
+         * 是否为稠密布局.
+         *
+         * @return 稠密布局时返回 true.
+         */
+        public boolean isDense() {
+            return dense;
+        }
+
+        /**
+         * 导出时的跳数上限.
+         *
+         * @return 跳数上限，0 表示不限.
+         */
+        public int maxHops() {
+            return maxHops;
+        }
+
+        /**
+         * 导出时每行最多的单词数.
+         *
+         * @return 上限，0 表示不限.
+         */
+        public int topN() {
+            return topN;
+        }
+
+        /**
+         * 读取下一行.
+         *
+         * @return 还有行时返回 true.
+         * @throws IOException 如果读取失败或文件被截断.
+         */
+        public boolean next() throws IOException {
+            if (source + 1 >= words.length) {
+                return false;
+            }
+            source++;
+            if (dense) {
+                readInts(distances, words.length);
+                count = 0;
+                for (int v = 0; v < words.length; v++) {
+                    if (distances[v] != UNREACHABLE) {
+                        targets[count] = v;
+                        distances[count++] = distances[v];
+                    }
+                }
+            } else {
+                count = Integer.reverseBytes(in.readInt());
+                if (count < 0 || count > words.length) {
+                    throw new IOException("corrupt row " + source + ": " + count + " entries");
+                }
+                readInts(targets, count);
+                readInts(distances, count);
+            }
+            return true;
+        }
+
+        private void readInts(int[] dest, int length) throws IOException {
+            for (int done = 0; done < length; ) {
+                int chunk = Math.min(length - done, bytes.length / Integer.BYTES);
+                in.readFully(bytes, 0, chunk * Integer.BYTES);
+                ByteBuffer.wrap(bytes, 0, chunk * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                        .asIntBuffer().get(dest, done, chunk);
+                done += chunk;
+            }
+        }
+
+        /**
+         * 当前行的起点.
+         *
+         * @return 起点编号.
+         */
+        public int source() {
+            return source;
+        }
+
+        /**
+         * 当前行的单词个数.
+         *
+         * @return 个数.
+         */
+        public int count() {
+            return count;
+        }
+
+        /**
+         * 当前行的第 i 个目标.
+         *
+         * @param i 下标，小于 {@link #count()}.
+         * @return 目标编号.
+         */
+        public int target(int i) {
+            return targets[i];
+        }
+
+        /**
+         * 当前行的第 i 个距离.
+         *
+         * @param i 下标，小于 {@link #count()}.
+         * @return 从起点到第 i 个目标的距离.
+         */
+        public int distance(int i) {
+            return distances[i];
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
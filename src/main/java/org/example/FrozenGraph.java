@@ -0,0 +1,212 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * 冻结（只读）的单词图.
+ * 单词按字典序编号，邻接关系以压缩稀疏行 (CSR) 形式存放在基本类型数组中：
+ * 节点 v 的出边为 targets/weights 的 [offsets[v], offsets[v+1]) 区间，并按目标编号排序；
+ * 同时保存一份转置 CSR 作为入边索引。
+ */
+public final class FrozenGraph implements WordGraph {
+    /** 64 位 JVM（压缩指针）下的对象头与引用大小，用于估算内存. */
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+
+    private final String[] words;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+    private final int[] inOffsets;
+    private final int[] sources;
+    private final int[] inWeights;
+
+    /**
+     * 由字典和出边 CSR 构造图，入边索引在此计算.
+     *
+     * @param words   按字典序排列的单词.
+     * @param offsets 长度为 words.length + 1 的行偏移.
+     * @param targets 每条出边的目标编号，每行内递增.
+     * @param weights 每条出边的权重.
+     */
+    FrozenGraph(String[] words, int[] offsets, int[] targets, int[] weights) {
+        this.words = words;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        int n = words.length;
+        inOffsets = new int[n + 1];
+        for (int target : targets) {
+            inOffsets[target + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            inOffsets[v + 1] += inOffsets[v];
+        }
+        sources = new int[targets.length];
+        inWeights = new int[targets.length];
+        int[] next = Arrays.copyOf(inOffsets, n);
+        // 按来源递增的顺序填充，每行入边自然有序
+        for (int v = 0; v < n; v++) {
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                int slot = next[targets[e]]++;
+                sources[slot] = v;
+                inWeights[slot] = weights[e];
+            }
+        }
+    }
+
+    /**
+     * 由 {@link Main} 使用的节点表生成冻结图.
+     *
+     * @param nodes 单词到节点的映射.
+     * @return 冻结图.
+     */
+    public static FrozenGraph of(Map<String, Type> nodes) {
+        String[] words = nodes.keySet().toArray(new String[0]);
+        Arrays.sort(words);
+        Map<Type, Integer> ids = new IdentityHashMap<>(words.length);
+        for (int i = 0; i < words.length; i++) {
+            ids.put(nodes.get(words[i]), i);
+        }
+        int[] offsets = new int[words.length + 1];
+        for (int i = 0; i < words.length; i++) {
+            offsets[i + 1] = offsets[i] + nodes.get(words[i]).outgoingEdges.size();
+        }
+        int[] targets = new int[offsets[words.length]];
+        int[] weights = new int[targets.length];
+        long[] row = new long[0];
+        for (int i = 0; i < words.length; i++) {
+            Map<Type, Integer> edges = nodes.get(words[i]).outgoingEdges;
+            if (row.length < edges.size()) {
+                row = new long[edges.size()];
+            }
+            int k = 0;
+            for (Map.Entry<Type, Integer> edge : edges.entrySet()) {
+                row[k++] = ((long) ids.get(edge.getKey()) << 32)
+                        | (edge.getValue() & 0xFFFFFFFFL);
+            }
+            Arrays.sort(row, 0, k);
+            for (int j = 0; j < k; j++) {
+                targets[offsets[i] + j] = (int) (row[j] >>> 32);
+                weights[offsets[i] + j] = (int) row[j];
+            }
+        }
+        return new FrozenGraph(words, offsets, targets, weights);
+    }
+
+    @Override
+    public int nodeCount() {
+        return words.length;
+    }
+
+    @Override
+    public long edgeCount() {
+        return targets.length;
+    }
+
+    @Override
+    public int id(String word) {
+        int id = Arrays.binarySearch(words, word);
+        return id >= 0 ? id : -1;
+    }
+
+    @Override
+    public String word(int id) {
+        return words[id];
+    }
+
+    @Override
+    public int outDegree(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    @Override
+    public int inDegree(int node) {
+        return inOffsets[node + 1] - inOffsets[node];
+    }
+
+    @Override
+    public void forEachSuccessor(int node, EdgeVisitor visitor) {
+        for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+            visitor.visit(targets[e], weights[e]);
+        }
+    }
+
+    @Override
+    public void forEachPredecessor(int node, EdgeVisitor visitor) {
+        for (int e = inOffsets[node]; e < inOffsets[node + 1]; e++) {
+            visitor.visit(sources[e], inWeights[e]);
+        }
+    }
+
+    @Override
+    public int edgeWeight(int from, int to) {
+        int e = Arrays.binarySearch(targets, offsets[from], offsets[from + 1], to);
+        return e >= 0 ? weights[e] : 0;
+    }
+
+    /**
+     * 估算本图占用的堆内存.
+     * 单词字符串与 {@link Type} 版本共享，因此两种估算都计入字符串本身。
+     *
+     * @return 估算的字节数.
+     */
+    public long estimatedBytes() {
+        long bytes = align(ARRAY_HEADER + (long) REFERENCE * words.length);
+        for (String word : words) {
+            bytes += stringBytes(word);
+        }
+        bytes += 2 * align(ARRAY_HEADER + 4L * offsets.length);
+        bytes += 4 * align(ARRAY_HEADER + 4L * targets.length);
+        return bytes;
+    }
+
+    /**
+     * 估算 {@link Main} 中 {@code Map<String, Type>} 结构占用的堆内存，用于和冻结图对比.
+     * 每个节点计入外层 HashMap.Node、Type 对象、出边与入边两个 HashMap 及其桶数组；
+     * 每条边在两侧各计入一个 HashMap.Node，权重超出 Integer 缓存范围时每侧再计入一个 Integer。
+     *
+     * @param nodes 单词到节点的映射.
+     * @return 估算的字节数.
+     */
+    public static long estimatedBytes(Map<String, Type> nodes) {
+        final long mapNode = align(OBJECT_HEADER + 4 + 3L * REFERENCE);
+        final long hashMap = align(OBJECT_HEADER + 4L * 4 + 4L * REFERENCE);
+        final long type = align(OBJECT_HEADER + 3L * REFERENCE);
+        final long integer = align(OBJECT_HEADER + 4);
+        long bytes = hashMap + tableBytes(nodes.size());
+        for (Map.Entry<String, Type> entry : nodes.entrySet()) {
+            Map<Type, Integer> edges = entry.getValue().outgoingEdges;
+            Map<Type, Integer> incoming = entry.getValue().incomingEdges;
+            bytes += mapNode + type + 2 * hashMap + stringBytes(entry.getKey());
+            bytes += edges.isEmpty() ? 0 : tableBytes(edges.size());
+            bytes += incoming.isEmpty() ? 0 : tableBytes(incoming.size());
+            for (Integer weight : edges.values()) {
+                bytes += 2 * (mapNode + (weight > 127 ? integer : 0));
+            }
+        }
+        return bytes;
+    }
+
+    private static long tableBytes(int size) {
+        int capacity = 16;
+        while (capacity * 0.75 < size) {
+            capacity <<= 1;
+        }
+        return align(ARRAY_HEADER + (long) REFERENCE * capacity);
+    }
+
+    private static long stringBytes(String s) {
+        // String 对象 + 压缩 (Latin-1) 或 UTF-16 的 byte[]
+        boolean latin1 = s.chars().allMatch(c -> c < 256);
+        return align(OBJECT_HEADER + 4 + 4 + 1 + 1 + REFERENCE)
+                + align(ARRAY_HEADER + (long) s.length() * (latin1 ? 1 : 2));
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
@@ -0,0 +1,26 @@
+package org.example;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 建图各阶段的 JFR 事件（读文本、统计边、冻结、写快照等）.
+ * 没有在录制时 begin/commit 几乎没有开销。
+ */
+@Name("org.example.GraphBuild")
+@Label("Graph Build Phase")
+@Category("Word Graph")
+@Description("A phase of building, freezing or saving the word graph")
+final class GraphBuildEvent extends Event {
+    @Label("Phase")
+    String phase;
+
+    @Label("Words")
+    long words;
+
+    @Label("Edges")
+    long edges;
+}
@@ -0,0 +1,173 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+/**
+ * 基于 {@link WordGraph} 的查询.
+ * 与 {@link Main} 中的同名功能语义一致，但不读写控制台，可用于任何只读图。
+ */
+public final class GraphQueries {
+    /** 与 {@link Main#shortestPath(String, String)} 相同的无路径结果. */
+    public static final String NO_PATH = "No path found";
+
+    private GraphQueries() {
+    }
+
+    /**
+     * 查询桥接词.
+     *
+     * @param graph 图.
+     * @param word1 第一个单词.
+     * @param word2 第二个单词.
+     * @return 按编号排序的桥接词列表；任一单词不在图中时返回 null.
+     */
+    public static List<String> bridgeWords(WordGraph graph, String word1, String word2) {
+        int from = graph.id(word1);
+        int to = graph.id(word2);
+        if (from < 0 || to < 0) {
+            return null;
+        }
+        List<String> bridges = new ArrayList<>();
+        forEachBridge(graph, from, to, bridge -> bridges.add(graph.word(bridge)));
+        return bridges;
+    }
+
+    /**
+     * 按编号访问两个节点之间的所有桥接节点.
+     * 用 from 的后继集合与 to 的前驱集合求交，遍历较小的一侧，
+     * 每个候选用一次有序邻接表上的二分查找确认。
+     *
+     * @param graph 图.
+     * @param from  第一个节点编号.
+     * @param to    第二个节点编号.
+     * @param sink  桥接节点的消费者.
+     */
+    public static void forEachBridge(WordGraph graph, int from, int to, IntConsumer sink) {
+        if (graph.outDegree(from) <= graph.inDegree(to)) {
+            graph.forEachSuccessor(from, (bridge, weight) -> {
+                if (graph.edgeWeight(bridge, to) > 0) {
+                    sink.accept(bridge);
+                }
+            });
+        } else {
+            graph.forEachPredecessor(to, (bridge, weight) -> {
+                if (graph.edgeWeight(from, bridge) > 0) {
+                    sink.accept(bridge);
+                }
+            });
+        }
+    }
+
+    /**
+     * 计算两个单词之间的最短路径.
+     *
+     * @param graph 图.
+     * @param start 起始单词.
+     * @param end   终止单词.
+     * @return 与 {@link Main#shortestPath(String, String)} 格式相同的路径（每个单词后跟一个空格），
+     *         或 {@link #NO_PATH}.
+     */
+    public static String shortestPath(WordGraph graph, String start, String end) {
+        int source = graph.id(start);
+        int target = graph.id(end);
+        if (source < 0 || target < 0) {
+            return NO_PATH;
+        }
+        return new ShortestPathEngine(graph).shortestPath(start, end);
+    }
+
+    static String formatPath(WordGraph graph, int[] previous, int target) {
+        List<String> path = new ArrayList<>();
+        for (int node = target; node >= 0; node = previous[node]) {
+            path.add(graph.word(node));
+        }
+        StringBuilder result = new StringBuilder();
+        for (int i = path.size() - 1; i >= 0; i--) {
+            result.append(path.get(i)).append(' ');
+        }
+        return result.toString();
+    }
+
+    /**
+     * 非交互式随机游走.
+     * 从随机节点出发，每步等概率选择一条出边，遇到无出边的节点或重复的边时停止。
+     *
+     * @param graph  图.
+     * @param random 随机数源.
+     * @return 以空格连接的游走路径；图为空时返回空字符串.
+     */
+    public static String randomWalk(WordGraph graph, Random random) {
+        if (graph.nodeCount() == 0) {
+            return "";
+        }
+        int current = random.nextInt(graph.nodeCount());
+        StringBuilder walk = new StringBuilder(graph.word(current));
+        Set<Long> visitedEdges = new HashSet<>();
+        while (graph.outDegree(current) > 0) {
+            int next = successorAt(graph, current, random.nextInt(graph.outDegree(current)));
+            if (!visitedEdges.add(((long) current << 32) | next)) {
+                break;
+            }
+            walk.append(' ').append(graph.word(next));
+            current = next;
+        }
+        return walk.toString();
+    }
+
+    /**
+     * 节点的 k 跳邻域 (ego network).
+     * 从中心节点出发同时沿出边和入边做广度优先搜索，距离不超过 hops 的节点都属于邻域；
+     * 节点数达到 maxNodes 时提前停止，因此结果大小与整个图的规模无关。
+     *
+     * @param graph    图.
+     * @param center   中心节点编号.
+     * @param hops     最大跳数.
+     * @param maxNodes 最多返回的节点数.
+     * @return 按广度优先顺序排列的节点编号，第一个是中心节点.
+     */
+    public static int[] neighbourhood(WordGraph graph, int center, int hops, int maxNodes) {
+        int[][] queue = {new int[16]};
+        int[] size = {1};
+        queue[0][0] = center;
+        BitSet seen = new BitSet();
+        seen.set(center);
+        WordGraph.EdgeVisitor visit = (next, weight) -> {
+            if (size[0] < maxNodes && !seen.get(next)) {
+                seen.set(next);
+                if (size[0] == queue[0].length) {
+                    queue[0] = Arrays.copyOf(queue[0], size[0] * 2);
+                }
+                queue[0][size[0]++] = next;
+            }
+        };
+        int head = 0;
+        for (int depth = 0; depth < hops && head < size[0]; depth++) {
+            // 逐层扩展，本层的节点是 [head, levelEnd)
+            int levelEnd = size[0];
+            while (head < levelEnd && size[0] < maxNodes) {
+                int node = queue[0][head++];
+                graph.forEachSuccessor(node, visit);
+                graph.forEachPredecessor(node, visit);
+            }
+        }
+        return Arrays.copyOf(queue[0], Math.min(size[0], maxNodes));
+    }
+
+    /** 取节点的第 index 个后继. */
+    private static int successorAt(WordGraph graph, int node, int index) {
+        int[] state = {index, -1};
+        graph.forEachSuccessor(node, (next, weight) -> {
+            if (state[0]-- == 0) {
+                state[1] = next;
+            }
+        });
+        return state[1];
+    }
+}
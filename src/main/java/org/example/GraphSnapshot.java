@@ -0,0 +1,373 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * 图的二进制快照.
+ * 建图后写出一次，之后通过 {@link FileChannel#map} 打开即可直接查询，不需要重新解析文本或建图。
+ *
+ * <p>文件格式（小端序）：64 字节的文件头，依次为魔数、格式版本、节点数 n、保留字段、边数 m、
+ * 字符串区字节数、其后所有数据的 CRC32C 校验和；之后依次是
+ * 单词偏移 int[n+1]、按单词的 UTF-8 字节序（无符号）排列的单词编号 int[n]、出边偏移 int[n+1]、出边目标 int[m]、
+ * 出边权重 int[m]、入边偏移 int[n+1]、入边来源 int[m]、入边权重 int[m]，
+ * 最后是 UTF-8 编码的单词字符串区。每个区段单独映射，因此每个区段不能超过 2GB。
+ */
+public final class GraphSnapshot implements WordGraph {
+    /** 魔数 "WGSF". */
+    static final int MAGIC = 0x57475346;
+    /** 格式版本；版本 2 起单词编号按 UTF-8 字节序而不是 String 的字典序排列. */
+    static final int FORMAT_VERSION = 2;
+    static final int HEADER_BYTES = 64;
+
+    private final int nodeCount;
+    private final long edgeCount;
+    private final IntBuffer wordOffsets;
+    private final IntBuffer sortedIds;
+    private final IntBuffer offsets;
+    private final IntBuffer targets;
+    private final IntBuffer weights;
+    private final IntBuffer inOffsets;
+    private final IntBuffer sources;
+    private final IntBuffer inWeights;
+    private final ByteBuffer strings;
+
+    private GraphSnapshot(FileChannel channel, int nodeCount, long edgeCount, long stringBytes)
+            throws IOException {
+        this.nodeCount = nodeCount;
+        this.edgeCount = edgeCount;
+        long position = HEADER_BYTES;
+        wordOffsets = mapInts(channel, position, nodeCount + 1L);
+        position += 4L * (nodeCount + 1);
+        sortedIds = mapInts(channel, position, nodeCount);
+        position += 4L * nodeCount;
+        offsets = mapInts(channel, position, nodeCount + 1L);
+        position += 4L * (nodeCount + 1);
+        targets = mapInts(channel, position, edgeCount);
+        position += 4L * edgeCount;
+        weights = mapInts(channel, position, edgeCount);
+        position += 4L * edgeCount;
+        inOffsets = mapInts(channel, position, nodeCount + 1L);
+        position += 4L * (nodeCount + 1);
+        sources = mapInts(channel, position, edgeCount);
+        position += 4L * edgeCount;
+        inWeights = mapInts(channel, position, edgeCount);
+        position += 4L * edgeCount;
+        strings = channel.map(FileChannel.MapMode.READ_ONLY, position, stringBytes);
+    }
+
+    private static IntBuffer mapInts(FileChannel channel, long position, long count)
+            throws IOException {
+        if (count * 4 > Integer.MAX_VALUE) {
+            throw new IOException("snapshot section too large: " + count + " ints");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, count * 4)
+                .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    /**
+     * 写出快照.
+     *
+     * @param graph 要保存的图.
+     * @param path  快照文件路径.
+     * @throws IOException 如果写文件失败.
+     */
+    public static void write(WordGraph graph, Path path) throws IOException {
+        int n = graph.nodeCount();
+        byte[][] encoded = new byte[n][];
+        long stringBytes = 0;
+        for (int v = 0; v < n; v++) {
+            encoded[v] = graph.word(v).getBytes(StandardCharsets.UTF_8);
+            stringBytes += encoded[v].length;
+        }
+        if (stringBytes > Integer.MAX_VALUE) {
+            throw new IOException("snapshot string table too large: " + stringBytes + " bytes");
+        }
+        Integer[] order = new Integer[n];
+        for (int v = 0; v < n; v++) {
+            order[v] = v;
+        }
+        // 字节序与 String.compareTo 只在增补平面字符上不同，按字节排序后查找时不必解码
+        Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(encoded[a], encoded[b]));
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.position(HEADER_BYTES);
+            SectionWriter out = new SectionWriter(channel);
+            int offset = 0;
+            out.putInt(0);
+            for (int v = 0; v < n; v++) {
+                offset += encoded[v].length;
+                out.putInt(offset);
+            }
+            for (Integer v : order) {
+                out.putInt(v);
+            }
+            writeAdjacency(out, graph, true);
+            writeAdjacency(out, graph, false);
+            for (byte[] word : encoded) {
+                out.put(word);
+            }
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(n).putInt(0)
+                    .putLong(graph.edgeCount()).putLong(stringBytes).putLong(out.checksum());
+            header.clear();
+            channel.write(header, 0);
+        }
+    }
+
+    private static void writeAdjacency(SectionWriter out, WordGraph graph, boolean outgoing)
+            throws IOException {
+        int n = graph.nodeCount();
+        int offset = 0;
+        out.putInt(0);
+        for (int v = 0; v < n; v++) {
+            offset += outgoing ? graph.outDegree(v) : graph.inDegree(v);
+            out.putInt(offset);
+        }
+        // 先写端点再写权重，各需一次遍历
+        for (int pass = 0; pass < 2; pass++) {
+            boolean nodesPass = pass == 0;
+            for (int v = 0; v < n; v++) {
+                WordGraph.EdgeVisitor visitor = (node, weight) -> out.putIntUnchecked(
+                        nodesPass ? node : weight);
+                if (outgoing) {
+                    graph.forEachSuccessor(v, visitor);
+                } else {
+                    graph.forEachPredecessor(v, visitor);
+                }
+                out.rethrow();
+            }
+        }
+    }
+
+    /**
+     * 打开快照，不校验数据.
+     *
+     * @param path 快照文件路径.
+     * @return 可直接查询的图.
+     * @throws IOException 如果文件不存在或格式不正确.
+     */
+    public static GraphSnapshot open(Path path) throws IOException {
+        return open(path, false);
+    }
+
+    /**
+     * 打开快照.
+     *
+     * @param path   快照文件路径.
+     * @param verify 是否校验 CRC32C（需要读取整个文件）.
+     * @return 可直接查询的图.
+     * @throws IOException 如果文件不存在、格式不正确或校验失败.
+     */
+    public static GraphSnapshot open(Path path, boolean verify) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("not a graph snapshot: " + path);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("not a graph snapshot: " + path);
+            }
+            if (header.getInt(4) != FORMAT_VERSION) {
+                throw new IOException("unsupported snapshot version " + header.getInt(4));
+            }
+            int nodeCount = header.getInt(8);
+            long edgeCount = header.getLong(16);
+            long stringBytes = header.getLong(24);
+            if (nodeCount < 0 || edgeCount < 0
+                    || channel.size() != expectedSize(nodeCount, edgeCount, stringBytes)) {
+                throw new IOException("truncated or corrupt snapshot: " + path);
+            }
+            if (verify && checksum(channel) != header.getLong(32)) {
+                throw new IOException("snapshot checksum mismatch: " + path);
+            }
+            return new GraphSnapshot(channel, nodeCount, edgeCount, stringBytes);
+        }
+    }
+
+    /** n 个节点、m 条边、字符串区 stringBytes 字节的快照文件大小. */
+    static long expectedSize(int nodeCount, long edgeCount, long stringBytes) {
+        return HEADER_BYTES + 4L * (4L * nodeCount + 3 + 4 * edgeCount) + stringBytes;
+    }
+
+    private static long checksum(FileChannel channel) throws IOException {
+        CRC32C crc = new CRC32C();
+        long position = HEADER_BYTES;
+        long size = channel.size();
+        while (position < size) {
+            long length = Math.min(size - position, 1 << 30);
+            crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+            position += length;
+        }
+        return crc.getValue();
+    }
+
+    @Override
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    @Override
+    public long edgeCount() {
+        return edgeCount;
+    }
+
+    @Override
+    public int id(String word) {
+        byte[] key = word.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = nodeCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int id = sortedIds.get(mid);
+            int cmp = compareWord(id, key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /** 按无符号字节序比较编号为 id 的单词与 key，不解码字符串. */
+    private int compareWord(int id, byte[] key) {
+        int start = wordOffsets.get(id);
+        int length = wordOffsets.get(id + 1) - start;
+        int common = Math.min(length, key.length);
+        for (int k = 0; k < common; k++) {
+            int cmp = Byte.compareUnsigned(strings.get(start + k), key[k]);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return length - key.length;
+    }
+
+    @Override
+    public String word(int id) {
+        int start = wordOffsets.get(id);
+        byte[] bytes = new byte[wordOffsets.get(id + 1) - start];
+        strings.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int outDegree(int node) {
+        return offsets.get(node + 1) - offsets.get(node);
+    }
+
+    @Override
+    public int inDegree(int node) {
+        return inOffsets.get(node + 1) - inOffsets.get(node);
+    }
+
+    @Override
+    public void forEachSuccessor(int node, EdgeVisitor visitor) {
+        for (int e = offsets.get(node), end = offsets.get(node + 1); e < end; e++) {
+            visitor.visit(targets.get(e), weights.get(e));
+        }
+    }
+
+    @Override
+    public void forEachPredecessor(int node, EdgeVisitor visitor) {
+        for (int e = inOffsets.get(node), end = inOffsets.get(node + 1); e < end; e++) {
+            visitor.visit(sources.get(e), inWeights.get(e));
+        }
+    }
+
+    @Override
+    public int edgeWeight(int from, int to) {
+        int low = offsets.get(from);
+        int high = offsets.get(from + 1) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int target = targets.get(mid);
+            if (target < to) {
+                low = mid + 1;
+            } else if (target > to) {
+                high = mid - 1;
+            } else {
+                return weights.get(mid);
+            }
+        }
+        return 0;
+    }
+
+    /** 带缓冲并同时计算 CRC32C 的顺序写入器. */
+    private static final class SectionWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer =
+                ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        private final CRC32C crc = new CRC32C();
+        private IOException failure;
+
+        SectionWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putInt(int value) throws IOException {
+            if (buffer.remaining() < 4) {
+                flush();
+            }
+            buffer.putInt(value);
+        }
+
+        /** 供访问者回调使用，异常暂存后由 {@link #rethrow()} 抛出. */
+        void putIntUnchecked(int value) {
+            if (failure != null) {
+                return;
+            }
+            try {
+                putInt(value);
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+
+        void rethrow() throws IOException {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        void put(byte[] bytes) throws IOException {
+            int written = 0;
+            while (written < bytes.length) {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                int length = Math.min(buffer.remaining(), bytes.length - written);
+                buffer.put(bytes, written, length);
+                written += length;
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        long checksum() {
+            return crc.getValue();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 支持并发读写的图存储，采用写时复制.
+ * 写入者在私有的可变节点表上追加文档，然后冻结出一个新的 {@link FrozenGraph}，
+ * 通过一次 volatile 写整体发布；读者只需读取 {@link #current()}，不加锁，
+ * 拿到的版本在使用期间不会被修改，因此一次查询中看到的总是同一个一致的图。
+ *
+ * <p>写入之间由对象锁串行化，每次写入的冻结开销与整个图的大小成正比，
+ * 适合批量导入文档而不是逐词写入。
+ *
+ * <p>节点数达到 {@link Main#landmarkMinNodes} 的版本发布后在后台建立路标距离表，
+ * 建好时这个版本换用以距离表加速最短路径的查询入口；建好之前又发布了新版本时不再为旧版本建立。
+ */
+public final class GraphStore {
+
+    /**
+     * 一个已发布的只读版本.
+     */
+    public static final class Version {
+        private final long number;
+        private final WordGraph graph;
+        private volatile QueryService queries;
+        private volatile RandomWalker walker;
+        private volatile CompletableFuture<LandmarkIndex> landmarkBuild =
+                CompletableFuture.completedFuture(null);
+
+        Version(long number, WordGraph graph, LandmarkIndex landmarks) {
+            this.number = number;
+            this.graph = graph;
+            this.queries = new QueryService(graph, QueryService.DEFAULT_CACHE_SIZE, landmarks);
+        }
+
+        /** 图足够大且还没有距离表时在后台建立，建好后换用新的查询入口（结果缓存随之清空）. */
+        private void buildLandmarks(GraphStore store) {
+            if (queries.landmarks() != null || graph.nodeCount() < Main.landmarkMinNodes) {
+                return;
+            }
+            landmarkBuild = LandmarkIndex.buildInBackground(graph, () -> store.current == this)
+                    .thenApply(built -> {
+                        if (built != null) {
+                            queries = new QueryService(graph, QueryService.DEFAULT_CACHE_SIZE,
+                                    built);
+                        }
+                        return built;
+                    });
+        }
+
+        /**
+         * 版本号，每次发布加一.
+         *
+         * @return 版本号.
+         */
+        public long number() {
+            return number;
+        }
+
+        /**
+         * 这个版本的图.
+         *
+         * @return 只读图.
+         */
+        public WordGraph graph() {
+            return graph;
+        }
+
+        /**
+         * 这个版本上的查询入口，路标距离表建好后会换成新的实例.
+         *
+         * @return 查询入口.
+         */
+        public QueryService queries() {
+            return queries;
+        }
+
+        /**
+         * 这个版本上的随机游走引擎，第一次使用时构造.
+         *
+         * @return 随机游走引擎.
+         */
+        public RandomWalker walker() {
+            RandomWalker result = walker;
+            if (result == null) {
+                // 并发时可能重复构造，结果相同，不需要加锁
+                result = new RandomWalker(graph);
+                walker = result;
+            }
+            return result;
+        }
+
+        /** 在后台为这个版本建立路标距离表的任务，供测试等待；没有建立时结果为 null. */
+        CompletableFuture<LandmarkIndex> landmarkBuild() {
+            return landmarkBuild;
+        }
+    }
+
+    private final Map<String, Type> nodes = new HashMap<>();
+    private Type lastNode;
+    private volatile Version current;
+
+    /**
+     * 创建空的存储.
+     */
+    public GraphStore() {
+        current = new Version(0, FrozenGraph.of(nodes), null);
+    }
+
+    /**
+     * 以一个已有的图（例如打开的快照）为初始版本创建存储.
+     *
+     * @param initial 初始图，作为版本 0 直接发布.
+     */
+    public GraphStore(WordGraph initial) {
+        this(initial, null);
+    }
+
+    /**
+     * 以一个已有的图和为它保存的路标距离表创建存储.
+     *
+     * @param initial   初始图，作为版本 0 直接发布.
+     * @param landmarks 同一个图的路标距离表；为 null 时图足够大则在后台建立.
+     */
+    public GraphStore(WordGraph initial, LandmarkIndex landmarks) {
+        Main.copyGraph(initial, nodes);
+        current = new Version(0, initial, landmarks);
+        current.buildLandmarks(this);
+    }
+
+    /**
+     * 当前发布的版本，读者不需要加锁.
+     *
+     * @return 当前版本.
+     */
+    public Version current() {
+        return current;
+    }
+
+    /**
+     * 追加一篇文档并发布新版本，语义与 {@link Main#ingestDocument(String, boolean)} 相同.
+     *
+     * @param processedText 处理过的文档文本.
+     * @param linkPrevious  是否与上一篇文档首尾相连.
+     * @return 写入后的当前版本；文档没有单词时不发布新版本.
+     */
+    public synchronized Version ingest(String processedText, boolean linkPrevious) {
+        Type prevNode = linkPrevious ? lastNode : null;
+        boolean added = false;
+        for (String word : processedText.split("\\s+")) {
+            if (!word.isEmpty()) {
+                prevNode = Main.addWord(nodes, prevNode, word);
+                added = true;
+            }
+        }
+        return added ? publish(prevNode) : current;
+    }
+
+    /**
+     * 从文件追加一篇文档并发布新版本，单词由 {@link WordTokenizer} 流式读取.
+     *
+     * @param file         文本文件.
+     * @param linkPrevious 是否与上一篇文档首尾相连.
+     * @return 写入后的当前版本；文档没有单词时不发布新版本.
+     * @throws IOException 如果读取文件失败.
+     */
+    public synchronized Version ingestFile(Path file, boolean linkPrevious) throws IOException {
+        try (WordTokenizer tokenizer = WordTokenizer.open(file)) {
+            Type prevNode = linkPrevious ? lastNode : null;
+            boolean added = false;
+            for (String word = tokenizer.nextWord(); word != null; word = tokenizer.nextWord()) {
+                if (!word.isEmpty()) {
+                    prevNode = Main.addWord(nodes, prevNode, word);
+                    added = true;
+                }
+            }
+            return added ? publish(prevNode) : current;
+        }
+    }
+
+    private Version publish(Type last) {
+        long start = Metrics.start();
+        GraphBuildEvent event = Metrics.beginPhase();
+        lastNode = last;
+        Version next = new Version(current.number + 1, FrozenGraph.of(nodes), null);
+        current = next;
+        Metrics.endPhase(event, start, Metrics.Operation.FREEZE_GRAPH, "publish",
+                next.graph.nodeCount(), next.graph.edgeCount());
+        next.buildLandmarks(this);
+        return next;
+    }
+}
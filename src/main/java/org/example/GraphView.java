@@ -0,0 +1,349 @@
+package org.example;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.graphstream.algorithm.Toolkit;
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.SingleGraph;
+import org.graphstream.stream.file.FileSinkImages;
+import org.graphstream.ui.graphicGraph.GraphPosLengthUtils;
+import org.graphstream.ui.layout.springbox.implementations.SpringBox;
+
+/**
+ * 按需构建的 GraphStream 视图.
+ * 只把需要显示的节点和边（整个小图、某个单词的邻域或若干条路径）加入 GraphStream 图，
+ * 高亮路径时只改动上一次和这一次涉及的边，因此开销与路径长度成正比，与整个单词图无关。
+ * 只有这个类引用 GraphStream，无界面模式下不会加载它。
+ *
+ * <p>导出图片在后台线程上进行：调用线程只复制当前视图，之后的高亮和加点不影响正在导出的图片。
+ * 布局只在视图的节点或边变化后重新计算一次，之后的导出直接使用缓存的坐标。
+ */
+public final class GraphView {
+    /** 邻域视图默认最多包含的节点数. */
+    public static final int DEFAULT_MAX_NODES = 300;
+
+    private static final String DEFAULT_EDGE_STYLE = "fill-color: black;";
+    private static final String[] PALETTE = {
+            "rgb(255, 0, 0)",    // 红色
+            "rgb(0, 255, 0)",    // 绿色
+            "rgb(0, 0, 255)",    // 蓝色
+            "rgb(255, 165, 0)",  // 橙色
+            "rgb(255, 192, 203)", // 粉色
+            "rgb(165, 42, 42)",  // 棕色
+            "rgb(0, 0, 139)",    // 深蓝色
+            "rgb(173, 216, 230)", // 浅蓝色
+            "rgb(255, 215, 0)",  // 金色
+            "rgb(192, 192, 192)", // 银色
+            "rgb(128, 128, 0)",  // 橄榄绿
+            "rgb(0, 128, 128)",  // 海蓝色
+            "rgb(147, 112, 219)", // 淡紫色
+            "rgb(128, 128, 128)", // 灰色
+            "rgb(255, 0, 255)",  // 洋红色
+            "rgb(135, 206, 235)", // 天蓝色
+            "rgb(210, 105, 30)"   // 巧克力色
+    };
+    /** 布局稳定度达到这个值时停止计算. */
+    private static final double LAYOUT_STABILIZATION = 0.9;
+    /** 所有视图共用的导出线程，空闲时退出；是守护线程，不阻止程序结束（未完成的导出随之放弃）. */
+    private static final ThreadPoolExecutor EXPORTER = newExporter();
+
+    private final WordGraph source;
+    private final Graph graph = new SingleGraph("WordGraph");
+    private final List<Edge> highlighted = new ArrayList<>();
+    /** 节点或边每增加一次加一，用于判断缓存的布局是否过期. */
+    private int structureVersion;
+    // 以下字段只在导出线程上访问
+    private final Map<String, double[]> layout = new HashMap<>();
+    private int layoutVersion = -1;
+    private int layoutComputations;
+
+    /**
+     * 创建一个空视图，之后加入的节点和边都取自 source.
+     *
+     * @param source 单词图.
+     */
+    public GraphView(WordGraph source) {
+        this.source = source;
+        graph.addAttribute("ui.stylesheet",
+                "node { shape:box;fill-color: cyan; size: 60px; "
+                        + "text-size: 20; text-alignment: center;} "
+                        + "edge { shape: line; arrow-shape: arrow; size: 2px; "
+                        + "text-size: 16;arrow-size: 8px;text-alignment: center;}");
+    }
+
+    /**
+     * 包含整个图的视图，只适用于小图.
+     *
+     * @param source 单词图.
+     * @return 视图.
+     */
+    public static GraphView of(WordGraph source) {
+        GraphView view = new GraphView(source);
+        int n = source.nodeCount();
+        for (int v = 0; v < n; v++) {
+            view.addNode(v);
+        }
+        for (int v = 0; v < n; v++) {
+            int from = v;
+            source.forEachSuccessor(v, (to, weight) -> view.addEdge(from, to, weight));
+        }
+        return view;
+    }
+
+    /**
+     * 单词的 k 跳邻域视图，包含邻域中的节点以及它们之间的所有边.
+     *
+     * @param source   单词图.
+     * @param word     中心单词.
+     * @param hops     最大跳数.
+     * @param maxNodes 最多包含的节点数.
+     * @return 视图；单词不在图中时返回 null.
+     */
+    public static GraphView egoNetwork(WordGraph source, String word, int hops, int maxNodes) {
+        int center = source.id(word);
+        if (center < 0) {
+            return null;
+        }
+        GraphView view = new GraphView(source);
+        int[] members = GraphQueries.neighbourhood(source, center, hops, maxNodes);
+        for (int v : members) {
+            view.addNode(v);
+        }
+        for (int v : members) {
+            String from = source.word(v);
+            source.forEachSuccessor(v, (to, weight) -> {
+                if (view.graph.getNode(source.word(to)) != null) {
+                    view.addEdge(from, source.word(to), weight);
+                }
+            });
+        }
+        Node node = view.graph.getNode(word);
+        node.addAttribute("ui.style", "fill-color: orange; text-alignment: center;");
+        return view;
+    }
+
+    private static ThreadPoolExecutor newExporter() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), task -> {
+                    Thread thread = new Thread(task, "graph-image-export");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * 第 k 条路径的颜色.
+     * 前 17 条使用固定的调色板，之后按黄金角旋转色相生成，相邻路径的颜色总是明显不同。
+     *
+     * @param k 路径序号，从 0 开始.
+     * @return 颜色，如 {@code rgb(255, 0, 0)}.
+     */
+    public static String pathColor(int k) {
+        if (k >= 0 && k < PALETTE.length) {
+            return PALETTE[k];
+        }
+        float hue = (float) ((Math.abs((long) k) * 0.6180339887498949) % 1.0);
+        Color color = Color.getHSBColor(hue, 0.8f, 0.85f);
+        return "rgb(" + color.getRed() + ", " + color.getGreen() + ", " + color.getBlue() + ")";
+    }
+
+    /**
+     * 高亮一条路径，同时取消上一次高亮的路径.
+     * 路径上不在视图中的节点和边会先被加入视图；只有上一条路径独有的边会被恢复默认样式。
+     *
+     * @param path  以空白分隔的单词序列.
+     * @param color 边的颜色，如 {@code rgb(255, 0, 0)}.
+     */
+    public void highlight(String path, String color) {
+        List<Edge> edges = new ArrayList<>();
+        String[] words = path.trim().split("\\s+");
+        for (int i = 0; i + 1 < words.length; i++) {
+            int from = source.id(words[i]);
+            int to = source.id(words[i + 1]);
+            if (from < 0 || to < 0) {
+                continue;
+            }
+            addNode(from);
+            addNode(to);
+            edges.add(addEdge(words[i], words[i + 1], source.edgeWeight(from, to)));
+        }
+        Set<Edge> next = new HashSet<>(edges);
+        for (Edge edge : highlighted) {
+            if (!next.contains(edge)) {
+                edge.addAttribute("ui.style", DEFAULT_EDGE_STYLE);
+            }
+        }
+        String style = "fill-color: " + color + ";";
+        for (Edge edge : edges) {
+            edge.addAttribute("ui.style", style);
+        }
+        highlighted.clear();
+        highlighted.addAll(edges);
+    }
+
+    /**
+     * 取消所有高亮.
+     */
+    public void clearHighlight() {
+        for (Edge edge : highlighted) {
+            edge.addAttribute("ui.style", DEFAULT_EDGE_STYLE);
+        }
+        highlighted.clear();
+    }
+
+    /**
+     * 在窗口中显示视图.
+     */
+    public void display() {
+        graph.display();
+    }
+
+    /**
+     * 把视图保存为 PNG 图片，等待保存完成.
+     *
+     * @param file 图片文件路径.
+     * @throws IOException 如果写文件失败.
+     */
+    public void saveImage(String file) throws IOException {
+        try {
+            saveImageAsync(file).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 在后台把视图保存为 PNG 图片.
+     * 调用线程上只复制当前视图（与显示的子图大小成正比），布局和渲染都在导出线程上进行；
+     * 视图结构没有变化时复用上一次计算的布局，不再重新计算。
+     *
+     * @param file 图片文件路径.
+     * @return 保存完成时得到文件路径；写文件失败时以 {@link UncheckedIOException} 异常完成.
+     */
+    public CompletableFuture<Path> saveImageAsync(String file) {
+        Graph copy = copy();
+        int version = structureVersion;
+        return CompletableFuture.supplyAsync(() -> {
+            export(copy, version, file);
+            return Paths.get(file);
+        }, EXPORTER);
+    }
+
+    /** 只在导出线程上调用. */
+    private void export(Graph copy, int version, String file) {
+        if (version != layoutVersion) {
+            // 固定随机种子，相同的视图得到相同的布局
+            Toolkit.computeLayout(copy, new SpringBox(false, new Random(42)),
+                    LAYOUT_STABILIZATION);
+            layout.clear();
+            for (Node node : copy) {
+                layout.put(node.getId(), GraphPosLengthUtils.nodePosition(node));
+            }
+            layoutVersion = version;
+            layoutComputations++;
+        } else {
+            for (Node node : copy) {
+                double[] xyz = layout.get(node.getId());
+                node.addAttribute("xyz", xyz[0], xyz[1], xyz[2]);
+            }
+        }
+        FileSinkImages fileSink = new FileSinkImages(
+                FileSinkImages.OutputType.PNG, FileSinkImages.Resolutions.HD1080);
+        fileSink.setLayoutPolicy(FileSinkImages.LayoutPolicy.NO_LAYOUT);
+        try {
+            fileSink.writeAll(copy, file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** 复制节点、边和它们的样式属性. */
+    private Graph copy() {
+        Graph copy = new SingleGraph("WordGraphImage");
+        copy.addAttribute("ui.stylesheet", graph.<Object>getAttribute("ui.stylesheet"));
+        for (Node node : graph) {
+            Node added = copy.addNode(node.getId());
+            for (String key : node.getAttributeKeySet()) {
+                added.addAttribute(key, node.<Object>getAttribute(key));
+            }
+        }
+        for (Edge edge : graph.getEachEdge()) {
+            Edge added = copy.addEdge(edge.getId(), edge.getSourceNode().getId(),
+                    edge.getTargetNode().getId(), edge.isDirected());
+            for (String key : edge.getAttributeKeySet()) {
+                added.addAttribute(key, edge.<Object>getAttribute(key));
+            }
+        }
+        return copy;
+    }
+
+    /** 布局计算的次数，供测试检查缓存是否生效；只能在导出完成后读取. */
+    int layoutComputations() {
+        return layoutComputations;
+    }
+
+    /**
+     * 视图中的节点数.
+     *
+     * @return 节点数.
+     */
+    public int nodeCount() {
+        return graph.getNodeCount();
+    }
+
+    /**
+     * 视图中的边数.
+     *
+     * @return 边数.
+     */
+    public int edgeCount() {
+        return graph.getEdgeCount();
+    }
+
+    private void addNode(int v) {
+        String word = source.word(v);
+        if (graph.getNode(word) == null) {
+            Node node = graph.addNode(word);
+            structureVersion++;
+            node.addAttribute("ui.label", word);
+            node.addAttribute("ui.style", "text-alignment: center;");
+        }
+    }
+
+    private void addEdge(int from, int to, int weight) {
+        addEdge(source.word(from), source.word(to), weight);
+    }
+
+    private Edge addEdge(String from, String to, int weight) {
+        String id = from + "->" + to;
+        Edge edge = graph.getEdge(id);
+        if (edge == null) {
+            edge = graph.addEdge(id, from, to, true);
+            structureVersion++;
+            edge.addAttribute("ui.label", Integer.toString(weight)); // 为边添加权重标签
+        }
+        return edge;
+    }
+}
@@ -0,0 +1,118 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * 以节点编号为元素的索引二叉堆.
+ * 记录每个节点在堆中的位置，支持 O(log n) 的降键操作，堆中不会出现过期元素。
+ */
+final class IndexedMinHeap {
+    private final int[] heap;
+    private final int[] positions;
+    private final long[] keys;
+    private int size;
+
+    /**
+     * 创建堆.
+     *
+     * @param capacity 节点编号的上界（不含）.
+     */
+    IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        positions = new int[capacity];
+        keys = new long[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** 堆顶的键，堆为空时返回 Long.MAX_VALUE. */
+    long minKey() {
+        return size == 0 ? Long.MAX_VALUE : keys[heap[0]];
+    }
+
+    /**
+     * 插入节点，或在新键更小时降低已有节点的键.
+     *
+     * @param node 节点编号.
+     * @param key  键.
+     */
+    void insertOrDecrease(int node, long key) {
+        int position = positions[node];
+        if (position < 0) {
+            keys[node] = key;
+            heap[size] = node;
+            positions[node] = size;
+            siftUp(size++);
+        } else if (key < keys[node]) {
+            keys[node] = key;
+            siftUp(position);
+        }
+    }
+
+    /**
+     * 取出键最小的节点.
+     *
+     * @return 节点编号.
+     */
+    int poll() {
+        int top = heap[0];
+        positions[top] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    /** 清空堆，开销与当前元素个数成正比，便于在多次查询之间复用. */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int index) {
+        int node = heap[index];
+        long key = keys[node];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            int parentNode = heap[parent];
+            if (keys[parentNode] <= key) {
+                break;
+            }
+            heap[index] = parentNode;
+            positions[parentNode] = index;
+            index = parent;
+        }
+        heap[index] = node;
+        positions[node] = index;
+    }
+
+    private void siftDown(int index) {
+        int node = heap[index];
+        long key = keys[node];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && keys[heap[right]] < keys[heap[child]]) {
+                child = right;
+            }
+            int childNode = heap[child];
+            if (key <= keys[childNode]) {
+                break;
+            }
+            heap[index] = childNode;
+            positions[childNode] = index;
+            index = child;
+        }
+        heap[index] = node;
+        positions[node] = index;
+    }
+}
@@ -0,0 +1,70 @@
+package org.example;
+
+import java.util.List;
+
+/**
+ * 输出 JSON 用的最小工具，只处理字符串转义.
+ */
+final class Json {
+    private Json() {
+    }
+
+    /**
+     * 把字符串写成带引号的 JSON 字符串.
+     *
+     * @param out   输出.
+     * @param value 字符串，为 null 时写出 null.
+     * @return out.
+     */
+    static StringBuilder quote(StringBuilder out, String value) {
+        if (value == null) {
+            return out.append("null");
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        return out.append('"');
+    }
+
+    /**
+     * 把字符串列表写成 JSON 数组.
+     *
+     * @param out    输出.
+     * @param values 字符串列表.
+     * @return out.
+     */
+    static StringBuilder array(StringBuilder out, List<String> values) {
+        out.append('[');
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            quote(out, values.get(i));
+        }
+        return out.append(']');
+    }
+}
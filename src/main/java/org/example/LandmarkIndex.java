@@ -0,0 +1,387 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 路标 (landmark) 距离表，用于 ALT（A*、路标、三角不等式）最短路径搜索.
+ * 预先选出 k 个路标 L，保存每个节点到路标的距离 d(v, L) 和路标到节点的距离 d(L, v)。
+ * 由三角不等式 d(s, t) ≥ d(L, t) − d(L, s) 与 d(s, t) ≥ d(s, L) − d(t, L)，
+ * 所有路标给出的下界取最大值就是一个一致的 A* 启发函数，搜索结果仍然精确；
+ * 同一个下界也是不需要搜索、立即可得的距离估计，d(s, L) + d(L, t) 的最小值则是一个上界。
+ *
+ * <p>路标用“最远点”策略选取：第一个是度数最大的节点，之后每次选与已选路标往返距离之和
+ * 最小值最大的节点，与所有路标都不连通的节点优先，这样路标分散在图的各处和各个连通部分。
+ * 距离表按节点连续存放，一次下界计算只读两段连续的内存。
+ */
+public final class LandmarkIndex {
+    /** 不可达时表中记录的距离. */
+    static final int UNREACHABLE = Integer.MAX_VALUE;
+    /** 默认的路标个数. */
+    public static final int DEFAULT_LANDMARKS = 16;
+
+    static final int MAGIC = 0x57474c4d;
+    /** 格式版本. */
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    /** 选路标时不可达的距离按这个值计，比任何真实的往返距离都大. */
+    private static final long FAR = 1L << 40;
+    private static final ThreadPoolExecutor BUILDER = newBuilder();
+
+    private final WordGraph graph;
+    private final int[] landmarks;
+    /** fromLandmark[v * k + i] = d(landmarks[i], v). */
+    private final int[] fromLandmark;
+    /** toLandmark[v * k + i] = d(v, landmarks[i]). */
+    private final int[] toLandmark;
+
+    private LandmarkIndex(WordGraph graph, int[] landmarks, int[] fromLandmark,
+                          int[] toLandmark) {
+        this.graph = graph;
+        this.landmarks = landmarks;
+        this.fromLandmark = fromLandmark;
+        this.toLandmark = toLandmark;
+    }
+
+    /**
+     * 选取路标并计算距离表.
+     * 每个路标各需一次正向和一次反向的完整 Dijkstra。
+     *
+     * @param graph 图.
+     * @param count 路标个数，超过节点数时取节点数.
+     * @return 距离表.
+     * @throws ArithmeticException 如果某个距离超出 int 范围.
+     */
+    public static LandmarkIndex build(WordGraph graph, int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("count must be > 0: " + count);
+        }
+        int n = graph.nodeCount();
+        int k = Math.min(count, n);
+        if ((long) n * k > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("too many landmarks for " + n + " nodes: " + k);
+        }
+        int[] landmarks = new int[k];
+        int[] fromLandmark = new int[n * k];
+        int[] toLandmark = new int[n * k];
+        long[] closest = new long[n];
+        Arrays.fill(closest, Long.MAX_VALUE);
+        for (int i = 0; i < k; i++) {
+            int landmark = i == 0 ? highestDegree(graph) : farthest(graph, closest);
+            landmarks[i] = landmark;
+            long[] from = distances(graph, landmark, true);
+            long[] to = distances(graph, landmark, false);
+            for (int v = 0; v < n; v++) {
+                fromLandmark[v * k + i] = from[v] == Long.MAX_VALUE
+                        ? UNREACHABLE : Math.toIntExact(from[v]);
+                toLandmark[v * k + i] = to[v] == Long.MAX_VALUE
+                        ? UNREACHABLE : Math.toIntExact(to[v]);
+                long roundTrip = Math.min(from[v], FAR) + Math.min(to[v], FAR);
+                closest[v] = Math.min(closest[v], roundTrip);
+            }
+        }
+        return new LandmarkIndex(graph, landmarks, fromLandmark, toLandmark);
+    }
+
+    /**
+     * 在后台线程上建立距离表.
+     * 所有调用者共用一个守护线程，任务依次执行，空闲一秒后线程退出。
+     *
+     * @param graph  图.
+     * @param wanted 任务开始执行时再检查一次，为假时不建立（排队期间图又变了）.
+     * @return 建好的距离表；没有建立时结果为 null.
+     */
+    static CompletableFuture<LandmarkIndex> buildInBackground(WordGraph graph,
+                                                              BooleanSupplier wanted) {
+        return CompletableFuture.supplyAsync(
+                () -> wanted.getAsBoolean() ? build(graph, DEFAULT_LANDMARKS) : null, BUILDER);
+    }
+
+    private static ThreadPoolExecutor newBuilder() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), task -> {
+                    Thread thread = new Thread(task, "landmark-builder");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static int highestDegree(WordGraph graph) {
+        int best = 0;
+        for (int v = 1; v < graph.nodeCount(); v++) {
+            if (degree(graph, v) > degree(graph, best)) {
+                best = v;
+            }
+        }
+        return best;
+    }
+
+    private static long degree(WordGraph graph, int node) {
+        return (long) graph.outDegree(node) + graph.inDegree(node);
+    }
+
+    /** 离已选路标最远的节点，距离相同时取度数大的. */
+    private static int farthest(WordGraph graph, long[] closest) {
+        int best = 0;
+        for (int v = 1; v < closest.length; v++) {
+            if (closest[v] > closest[best]
+                    || (closest[v] == closest[best] && degree(graph, v) > degree(graph, best))) {
+                best = v;
+            }
+        }
+        return best;
+    }
+
+    /** 从 source 出发沿出边（forward）或入边的完整 Dijkstra. */
+    private static long[] distances(WordGraph graph, int source, boolean forward) {
+        int n = graph.nodeCount();
+        long[] distances = new long[n];
+        Arrays.fill(distances, Long.MAX_VALUE);
+        distances[source] = 0;
+        IndexedMinHeap heap = new IndexedMinHeap(n);
+        heap.insertOrDecrease(source, 0);
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            long base = distances[current];
+            WordGraph.EdgeVisitor relax = (next, weight) -> {
+                long distance = base + weight;
+                if (distance < distances[next]) {
+                    distances[next] = distance;
+                    heap.insertOrDecrease(next, distance);
+                }
+            };
+            if (forward) {
+                graph.forEachSuccessor(current, relax);
+            } else {
+                graph.forEachPredecessor(current, relax);
+            }
+        }
+        return distances;
+    }
+
+    /**
+     * 距离表所属的图.
+     *
+     * @return 图.
+     */
+    public WordGraph graph() {
+        return graph;
+    }
+
+    /**
+     * 路标.
+     *
+     * @return 路标的节点编号.
+     */
+    public int[] landmarks() {
+        return landmarks.clone();
+    }
+
+    /**
+     * d(from, to) 的下界.
+     *
+     * @param from 起点编号.
+     * @param to   终点编号.
+     * @return 下界；能证明不可达时返回 Long.MAX_VALUE.
+     */
+    public long lowerBound(int from, int to) {
+        int k = landmarks.length;
+        int fromBase = from * k;
+        int toBase = to * k;
+        long bound = 0;
+        for (int i = 0; i < k; i++) {
+            // 路标能到达起点却到达不了终点，或者终点能到达路标而起点不能：起点到达不了终点
+            long landmarkToFrom = fromLandmark[fromBase + i];
+            long landmarkToTo = fromLandmark[toBase + i];
+            if (landmarkToFrom != UNREACHABLE) {
+                if (landmarkToTo == UNREACHABLE) {
+                    return Long.MAX_VALUE;
+                }
+                bound = Math.max(bound, landmarkToTo - landmarkToFrom);
+            }
+            long fromToLandmark = toLandmark[fromBase + i];
+            long toToLandmark = toLandmark[toBase + i];
+            if (toToLandmark != UNREACHABLE) {
+                if (fromToLandmark == UNREACHABLE) {
+                    return Long.MAX_VALUE;
+                }
+                bound = Math.max(bound, fromToLandmark - toToLandmark);
+            }
+        }
+        return bound;
+    }
+
+    /**
+     * 不搜索就能得到的近似距离：经过某个路标的最短路线长度，是 d(from, to) 的上界.
+     *
+     * @param from 起点编号.
+     * @param to   终点编号.
+     * @return 上界；没有经过路标的路线时返回 Long.MAX_VALUE（两点仍可能可达）.
+     */
+    public long upperBound(int from, int to) {
+        if (from == to) {
+            return 0;
+        }
+        int k = landmarks.length;
+        long bound = Long.MAX_VALUE;
+        for (int i = 0; i < k; i++) {
+            long there = toLandmark[from * k + i];
+            long back = fromLandmark[to * k + i];
+            if (there != UNREACHABLE && back != UNREACHABLE) {
+                bound = Math.min(bound, there + back);
+            }
+        }
+        return bound;
+    }
+
+    /**
+     * 以单词给出不需要搜索的距离估计，即 {@link #lowerBound(int, int)}.
+     * 估计值不超过真实的最短距离，任一端是路标时与最短距离相等。
+     *
+     * @param start 起始单词.
+     * @param end   终止单词.
+     * @return 下界；任一单词不在图中时返回 -1，能证明不可达时返回 Long.MAX_VALUE.
+     */
+    public long estimate(String start, String end) {
+        int from = graph.id(start);
+        int to = graph.id(end);
+        if (from < 0 || to < 0) {
+            return -1;
+        }
+        return lowerBound(from, to);
+    }
+
+    /**
+     * 快照文件旁边保存距离表的文件.
+     *
+     * @param snapshot 快照文件.
+     * @return 同一目录下加上 {@code .landmarks} 后缀的文件.
+     */
+    public static Path pathFor(Path snapshot) {
+        return snapshot.resolveSibling(snapshot.getFileName() + ".landmarks");
+    }
+
+    /**
+     * 图的指纹，由单词和所有边计算，读取距离表时用来确认它属于同一个图.
+     *
+     * @param graph 图.
+     * @return 64 位指纹.
+     */
+    static long fingerprint(WordGraph graph) {
+        long[] hash = {graph.nodeCount() * 0x9E3779B97F4A7C15L ^ graph.edgeCount()};
+        for (int v = 0; v < graph.nodeCount(); v++) {
+            hash[0] = mix(hash[0], graph.word(v).hashCode());
+            graph.forEachSuccessor(v, (next, weight) ->
+                    hash[0] = mix(hash[0], (long) next << 32 | weight));
+        }
+        return hash[0];
+    }
+
+    private static long mix(long hash, long value) {
+        long h = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    /**
+     * 保存距离表（小端）：文件头、路标编号、d(L, v) 表、d(v, L) 表.
+     *
+     * @param path 输出文件.
+     * @throws IOException 如果写文件失败.
+     */
+    public void write(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(graph.nodeCount())
+                    .putInt(landmarks.length).putLong(fingerprint(graph)).putLong(0);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            writeInts(channel, landmarks);
+            writeInts(channel, fromLandmark);
+            writeInts(channel, toLandmark);
+        }
+    }
+
+    private static void writeInts(FileChannel channel, int[] values) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < values.length; ) {
+            int count = Math.min(values.length - i, buffer.capacity() / Integer.BYTES);
+            buffer.clear();
+            buffer.asIntBuffer().put(values, i, count);
+            buffer.limit(count * Integer.BYTES);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            i += count;
+        }
+    }
+
+    /**
+     * 读取为同一个图保存的距离表.
+     *
+     * @param path  距离表文件.
+     * @param graph 图，必须与保存时的图相同.
+     * @return 距离表.
+     * @throws IOException 如果文件不存在、格式不正确或属于另一个图.
+     */
+    public static LandmarkIndex read(Path path, WordGraph graph) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // 读满文件头
+            }
+            if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+                throw new IOException("not a landmark file: " + path);
+            }
+            if (header.getInt(4) != FORMAT_VERSION) {
+                throw new IOException("unsupported landmark file version " + header.getInt(4));
+            }
+            int n = header.getInt(8);
+            int k = header.getInt(12);
+            if (n != graph.nodeCount() || header.getLong(16) != fingerprint(graph)) {
+                throw new IOException("landmark file belongs to a different graph: " + path);
+            }
+            long expected = HEADER_BYTES + 4L * k * (1 + 2L * n);
+            if (k < 0 || k > n || channel.size() != expected) {
+                throw new IOException("truncated or corrupt landmark file: " + path);
+            }
+            int[] landmarks = readInts(channel, k);
+            int[] fromLandmark = readInts(channel, n * k);
+            int[] toLandmark = readInts(channel, n * k);
+            return new LandmarkIndex(graph, landmarks, fromLandmark, toLandmark);
+        }
+    }
+
+    private static int[] readInts(FileChannel channel, int count) throws IOException {
+        int[] values = new int[count];
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < count; ) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), (count - i) * (long) Integer.BYTES));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("unexpected end of landmark file");
+                }
+            }
+            buffer.flip();
+            int read = buffer.remaining() / Integer.BYTES;
+            buffer.asIntBuffer().get(values, i, read);
+            i += read;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,127 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 无锁的对数-线性延迟直方图.
+ * 与 HdrHistogram 的分桶方式相同：每个 2 的幂区间再等分为 32 个子桶，
+ * 因此任意取值的相对误差不超过 1/32（约 3%），而桶数只有约 1900 个、与取值范围无关。
+ * 记录一个值只需要一次原子加，多个线程可以同时记录，读取时不需要停止写入。
+ */
+public final class LatencyHistogram {
+    /** 每个 2 的幂区间内的子桶数为 2^SUB_BUCKET_BITS. */
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * 记录一个值.
+     *
+     * @param value 非负的取值，通常是纳秒；负数按 0 记录.
+     */
+    public void record(long value) {
+        long v = Math.max(0, value);
+        counts.incrementAndGet(index(v));
+        total.incrementAndGet();
+        sum.addAndGet(v);
+        if (v > max.get()) {
+            max.accumulateAndGet(v, Math::max);
+        }
+    }
+
+    /** 值所在的桶：小于 32 的值各占一个桶，之后每个 2 的幂区间占 32 个桶. */
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int shift = msb - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /** 桶中最大的值. */
+    static long highestValue(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long sub = index % SUB_BUCKETS + SUB_BUCKETS;
+        // 分开加，避免最高的桶溢出
+        return (sub << shift) + ((1L << shift) - 1);
+    }
+
+    /**
+     * 记录的值的个数.
+     *
+     * @return 个数.
+     */
+    public long count() {
+        return total.get();
+    }
+
+    /**
+     * 平均值.
+     *
+     * @return 平均值；没有记录时返回 0.
+     */
+    public double mean() {
+        long n = total.get();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    /**
+     * 最大值.
+     *
+     * @return 最大值；没有记录时返回 0.
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * 分位数.
+     * 返回的是所在桶中最大的值（不超过记录过的最大值），相对误差不超过约 3%。
+     *
+     * @param quantile 0 到 1 之间的分位.
+     * @return 分位数；没有记录时返回 0.
+     */
+    public long percentile(double quantile) {
+        long n = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            n += snapshot[i];
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestValue(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * 清空所有记录.
+     * 与并发的 {@link #record} 同时进行时，个别值可能只被部分清除。
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        total.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+}
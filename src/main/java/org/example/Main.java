@@ -1,26 +1,25 @@
 package org.example;
 
+import java.awt.GraphicsEnvironment;
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.foreign.Arena;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.PriorityQueue;
 import java.util.Random;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 import java.util.function.Function;
-import org.graphstream.graph.Edge;
-import org.graphstream.graph.Graph;
-import org.graphstream.graph.Node;
-import org.graphstream.graph.implementations.SingleGraph;
-import org.graphstream.stream.file.FileSinkImages;
-import org.graphstream.ui.view.Viewer;
 
 
 /**
@@ -29,7 +28,22 @@ import org.graphstream.ui.view.Viewer;
 public class Main {
     private static Map<String, Type> nodes = new HashMap<>();
     static Scanner scanner = new Scanner(System.in);
-    static Graph graph = new SingleGraph("WordGraph");
+    static boolean headless; //无界面模式：不加载 GraphStream，也不显示任何图
+    private static GraphView view; //当前显示的图，只包含需要显示的节点和边
+    private static long graphVersion; //图每被修改一次加一，索引和缓存据此判断是否需要刷新
+    private static Type lastNode; //最近一次写入的文本的最后一个单词
+    private static FrozenGraph frozenGraph; //nodes 的冻结副本
+    private static long frozenVersion = -1;
+    private static ShortestPathEngine pathEngine;
+    /** 桥接词与最短路径的结果缓存，键中带图版本，图被修改时整体作废. */
+    private static final QueryCache<QueryCache.Key, String> QUERY_CACHE =
+            new QueryCache<>(Integer.getInteger("wordgraph.queryCacheSize", 10_000));
+    /** 节点数达到这个值时才为冻结图建立路标距离表，小图上直接双向搜索更快. */
+    static int landmarkMinNodes = Integer.getInteger("wordgraph.landmarkMinNodes", 10_000);
+    private static volatile LandmarkIndex landmarks; //最近一次建好的路标距离表，可能属于旧版本的图
+    private static volatile FrozenGraph landmarkGraph; //最近一次请求建立距离表的图
+    private static CompletableFuture<LandmarkIndex> landmarkBuild =
+            CompletableFuture.completedFuture(null);
 
     private static String getFilePath() {
         System.out.print("Enter file path (or 'q' to quit): ");
@@ -48,60 +62,51 @@ public class Main {
      * @throws IOException if an I/O error occurs reading from the file.
      */
     public static String processText(String filePath) throws IOException {
-        StringBuilder cleanedText = new StringBuilder();
-        String text = new String(Files.readAllBytes(Paths.get(filePath)));
-
-        // 将换行/回车符替换为空格
-        text = text.replaceAll("\\r?\\n", " ");
-
-        // 将标点符号替换为空格
-        String punctuationRegex = "[!\"#$%&'()*+,-./:;<=>?@\\[\\]^_`{|}~]";
-        text = text.replaceAll(punctuationRegex, " ");
-
-        // 删除非字母字符
-        for (char c : text.toCharArray()) {
-            if (Character.isLetter(c) || Character.isWhitespace(c)) {
-                cleanedText.append(c);
-            }
-        }
-        // 将所有大写字母转换为小写
-        cleanedText = new StringBuilder(cleanedText.toString().toLowerCase());
-        // 将多个连续空格替换为单个空格
-        return cleanedText.toString().replaceAll(" +", " ").trim();
+        return TextNormalizer.normalize(Files.readAllBytes(Paths.get(filePath)));
     }
 
     /**显示有向图的方法.
-     * 使用GraphStream库来可视化图形.
+     * 使用GraphStream库来可视化整个图，只适用于小图；大图请使用 {@link #showNeighbourhood}.
+     * 无界面模式下不做任何事.
      *
      * @param g 包含节点和边的图，其中节点是字符串类型，边是Type类型.
      */
     public static void showDirectedGraph(Map<String, Type> g) {
-        graph.addAttribute("ui.stylesheet",
-                "node { shape:box;fill-color: cyan; size: 60px; "
-                        + "text-size: 20; text-alignment: center;} "
-                        +
-                "edge { shape: line; arrow-shape: arrow; size: 2px; "
-                        + "text-size: 16;arrow-size: 8px;text-alignment: center;}");
-
-        // 添加节点
-        for (Map.Entry<String, Type> entry : g.entrySet()) {
-            Node node = graph.addNode(entry.getKey());
-            node.addAttribute("ui.label", entry.getKey());
-            //node.addAttribute("ui.layout", "center");
-            node.addAttribute("ui.style", "text-alignment: center;");
-        }
-
-        // 添加边
-        for (Map.Entry<String, Type> entry : g.entrySet()) {
-            Type sourceNode = entry.getValue();
-            for (Map.Entry<Type, Integer> edge : sourceNode.outgoingEdges.entrySet()) {
-                Type targetNode = edge.getKey();
-                Edge e = graph.addEdge(sourceNode.word + "->"
-                        + targetNode.word, sourceNode.word, targetNode.word, true);
-                e.addAttribute("ui.label", edge.getValue().toString()); // 为边添加权重标签
+        if (headless) {
+            return;
+        }
+        view = GraphView.of(g == nodes ? freezeGraph() : FrozenGraph.of(g));
+        view.display();
+    }
+
+    /**
+     * 显示单词的 k 跳邻域.
+     * 只把邻域中的节点和边交给 GraphStream，不受整个图大小的影响；无界面模式下只返回结果.
+     *
+     * @param word 中心单词.
+     * @param hops 最大跳数.
+     * @return 邻域中的单词（以空格分隔，第一个是中心单词）；单词不在图中时返回 null.
+     */
+    public static String showNeighbourhood(String word, int hops) {
+        FrozenGraph frozen = freezeGraph();
+        int center = frozen.id(word);
+        if (center < 0) {
+            return null;
+        }
+        int[] members =
+                GraphQueries.neighbourhood(frozen, center, hops, GraphView.DEFAULT_MAX_NODES);
+        StringBuilder words = new StringBuilder();
+        for (int member : members) {
+            if (words.length() > 0) {
+                words.append(' ');
             }
+            words.append(frozen.word(member));
+        }
+        if (!headless) {
+            view = GraphView.egoNetwork(frozen, word, hops, GraphView.DEFAULT_MAX_NODES);
+            view.display();
         }
-        Viewer viewer = graph.display();
+        return words.toString();
     }
 
     /**
@@ -113,7 +118,22 @@ public class Main {
      * @return 桥接词的字符串表示，如果没有桥接词则返回空字符串，如果单词不在图中则返回 "1".
      */
     public static String queryBridgeWords(String word1, String word2) { //查询桥接词
-        String bridgeWords = "";
+        long start = Metrics.start();
+        String result;
+        if (nodes.get(word1) == null || nodes.get(word2) == null) {
+            // 单词不在图中时要打印提示，不走缓存
+            result = findBridgeWords(word1, word2);
+        } else {
+            QueryCache.Key key =
+                    new QueryCache.Key(QueryCache.BRIDGE_WORDS, word1, word2, graphVersion);
+            result = QUERY_CACHE.get(key, k -> findBridgeWords(word1, word2));
+        }
+        Metrics.record(Metrics.Operation.BRIDGE_WORDS, start, word1, word2, 0);
+        return result;
+    }
+
+    private static String findBridgeWords(String word1, String word2) {
+        String bridgeWords;
         Type f1 = nodes.get(word1); //检查word1是否在图中
         Type f2 = nodes.get(word2); //检查word2是否在图中
         if (f1 == null && f2 == null) {
@@ -129,23 +149,22 @@ public class Main {
             bridgeWords = "1";
             return bridgeWords;
         }
-        for (Map.Entry<String, Type> entry : nodes.entrySet()) {
-            if (entry.getValue().word.equals(word1)) {
-                for (Map.Entry<Type, Integer> edge : entry.getValue().outgoingEdges.entrySet()) {
-                    for (Map.Entry<Type, Integer> bridge : edge.getKey().outgoingEdges.entrySet()) {
-                        if (bridge.getKey().word.equals(word2)) {
-                            bridgeWords += edge.getKey().word;
-                            bridgeWords += ' ';
-                        }
-                    }
+        // 桥接词 = word1 的后继 ∩ word2 的前驱，遍历较小的一侧并在另一侧做哈希查找
+        List<String> bridges = new ArrayList<>();
+        if (f1.outgoingEdges.size() <= f2.incomingEdges.size()) {
+            for (Type bridge : f1.outgoingEdges.keySet()) {
+                if (f2.incomingEdges.containsKey(bridge)) {
+                    bridges.add(bridge.word);
+                }
+            }
+        } else {
+            for (Type bridge : f2.incomingEdges.keySet()) {
+                if (f1.outgoingEdges.containsKey(bridge)) {
+                    bridges.add(bridge.word);
                 }
             }
         }
-        // 去除最后一个字符
-        if (!bridgeWords.isEmpty()) {
-            bridgeWords = bridgeWords.substring(0, bridgeWords.length() - 1);
-        }
-        return bridgeWords;
+        return String.join(" ", bridges);
     }
 
     /**
@@ -156,33 +175,31 @@ public class Main {
      * @return 生成的新文本.
      */
     public static String generateNewText(String inputText) {
+        long start = Metrics.start();
         // 使用 split() 方法将字符串按空格分割成数组
         String[] parts = inputText.split("\\s+"); // 使用正则表达式 \\s+ 匹配一个或多个空格
-        String word;
-        String[] newArray;
-        for (int i = 0; i < parts.length - 1; i++) {
-            word = queryBridgeWords(parts[i], parts[i + 1]);
-            if (!word.isEmpty() && !word.equals("1")) {
-                // 创建一个新的数组，长度比原始数组大 1
-                newArray = new String[parts.length + 1];
-                // 将原始数组中插入位置之前的元素复制到新数组中
-                System.arraycopy(parts, 0, newArray, 0, i + 1);
-                // 在指定位置插入字符串
-                newArray[i + 1] = word;
-                // 将原始数组中插入位置之后的元素复制到新数组中
-                System.arraycopy(parts, i + 1, newArray, i + 2, parts.length - i - 1);
-                parts = newArray;
-                i++;
+        // 边读边拼接，桥接词直接插在相邻两个单词之间，整体为线性时间
+        StringBuilder newText = new StringBuilder(inputText.length());
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                String word = queryBridgeWords(parts[i - 1], parts[i]);
+                newText.append(' ');
+                if (!word.isEmpty() && !word.equals("1")) {
+                    newText.append(word).append(' ');
+                }
             }
+            newText.append(parts[i]);
         }
-        String result;
-        result = String.join(" ", parts);
+        String result = newText.toString();
+        Metrics.record(Metrics.Operation.GENERATE_TEXT, start, inputText, null, 0);
         System.out.println("生成新文本：" + result);
         return result;
     }
 
     /**
      *寻找两个节点之间的最短路径.
+     * 路标距离表建好前用双向搜索，建好后用 A*；有多条等长的最短路径时两者返回同一条，
+     * 见 {@link ShortestPathEngine}，结果不随距离表是否建好而变化。
      *
      * @param start 起始节点。
      * @param end   终止节点。
@@ -190,50 +207,87 @@ public class Main {
      */
 
     public static String shortestPath(String start, String end) {
-        // 用于存储节点到起始点的距离
-        Map<String, Integer> distances = new HashMap<>();
-        // 用于存储节点的前驱节点
-        Map<String, Type> previousNodes = new HashMap<>();
-
-        // 初始化距离和前驱节点
-        for (String node : nodes.keySet()) {
-            distances.put(node, Integer.MAX_VALUE);
-            previousNodes.put(node, null);
-        }
-
-        distances.put(start, 0); // 起始点到自身的距离为0
-
-        PriorityQueue<String> queue = new PriorityQueue<>(Comparator.comparingInt(distances::get));
-        queue.add(start);
-        if (nodes.get(start) != null) {
-            while (!queue.isEmpty()) {
-                String currentNode = queue.poll();
-
-                if (currentNode.equals(end)) {
-                    // 构建最短路径
-                    StringBuilder shortestPath = new StringBuilder();
-                    while (previousNodes.get(currentNode) != null) {
-                        shortestPath.insert(0, currentNode + " ");
-                        currentNode = previousNodes.get(currentNode).word;
+        if (nodes.get(start) == null || nodes.get(end) == null) {
+            return "No path found";
+        }
+        long begin = Metrics.start();
+        int[] settled = {0}; //命中缓存时没有出堆的节点
+        QueryCache.Key cacheKey =
+                new QueryCache.Key(QueryCache.SHORTEST_PATH, start, end, graphVersion);
+        String path = QUERY_CACHE.get(cacheKey,
+                key -> {
+                    // 在冻结图上搜索，有路标距离表时用 A*，否则双向 Dijkstra；图未变化时复用同一个引擎
+                    FrozenGraph graph = freezeGraph();
+                    LandmarkIndex index = currentLandmarks(graph);
+                    if (pathEngine == null || pathEngine.graph() != graph
+                            || pathEngine.landmarks() != index) {
+                        pathEngine = new ShortestPathEngine(graph, index);
                     }
-                    shortestPath.insert(0, start + " ");
-                    return shortestPath.toString();
-                }
+                    String result = pathEngine.shortestPath(start, end);
+                    settled[0] = pathEngine.lastSettledCount();
+                    return result;
+                });
+        Metrics.record(Metrics.Operation.SHORTEST_PATH, begin, start, end, settled[0]);
+        return path;
+    }
 
-                Type currentType = nodes.get(currentNode);
-                for (Map.Entry<Type, Integer> entry : currentType.outgoingEdges.entrySet()) {
-                    Type neighborType = entry.getKey();
-                    int weight = entry.getValue();
-                    int distanceThroughCurrent = distances.get(currentNode) + weight;
-                    if (distanceThroughCurrent < distances.get(neighborType.word)) {
-                        distances.put(neighborType.word, distanceThroughCurrent);
-                        previousNodes.put(neighborType.word, currentType);
-                        queue.add(neighborType.word);
-                    }
-                }
-            }
+    /**
+     * 搜索两个节点之间所有等长的最短路径.
+     * 只搜索一次，条数和路径都从同一个前驱 DAG 得到，见 {@link AllShortestPaths}。
+     *
+     * @param start 起始节点。
+     * @param end   终止节点。
+     * @return 搜索结果；单词不在图中时返回 null。
+     */
+    public static AllShortestPaths allShortestPaths(String start, String end) {
+        if (nodes.get(start) == null || nodes.get(end) == null) {
+            return null;
         }
-        return "No path found";
+        long begin = Metrics.start();
+        AllShortestPaths paths = AllShortestPaths.compute(freezeGraph(), start, end);
+        Metrics.record(Metrics.Operation.ALL_SHORTEST_PATHS, begin, start, end, 0);
+        return paths;
+    }
+
+    /**
+     * 列出两个节点之间所有等长的最短路径.
+     *
+     * @param start 起始节点。
+     * @param end   终止节点。
+     * @param limit 最多列出的条数。
+     * @return 格式与 {@link #shortestPath(String, String)} 相同的路径；单词不在图中或不可达时为空。
+     */
+    public static List<String> allShortestPaths(String start, String end, int limit) {
+        AllShortestPaths paths = allShortestPaths(start, end);
+        return paths == null ? new ArrayList<>() : paths.pathStrings(limit);
+    }
+
+    /**
+     * 统计两个节点之间最短路径的条数，不列出路径.
+     *
+     * @param start 起始节点。
+     * @param end   终止节点。
+     * @return 条数，超过 Long.MAX_VALUE 时为 Long.MAX_VALUE；单词不在图中或不可达时为 0。
+     */
+    public static long countShortestPaths(String start, String end) {
+        AllShortestPaths paths = allShortestPaths(start, end);
+        return paths == null ? 0 : paths.pathCount();
+    }
+
+    /**
+     * 不搜索、由路标距离表立即得到的距离估计，见 {@link LandmarkIndex#estimate}.
+     * 估计值是最短距离的下界，任一端是路标时与最短距离相等。
+     *
+     * @param start 起始节点。
+     * @param end   终止节点。
+     * @return 下界，能证明不可达时为 Long.MAX_VALUE；单词不在图中、图太小或距离表还没建好时返回 -1。
+     */
+    public static long estimateDistance(String start, String end) {
+        if (nodes.get(start) == null || nodes.get(end) == null) {
+            return -1;
+        }
+        LandmarkIndex index = currentLandmarks(freezeGraph());
+        return index == null ? -1 : index.estimate(start, end);
     }
 
     /**
@@ -325,62 +379,470 @@ public class Main {
      * @throws IOException 如果构建过程中出现错误
      */
     public static void buildGraph(String processedText) throws IOException {
-
+        long start = Metrics.start();
+        GraphBuildEvent event = Metrics.beginPhase();
         String[] words = processedText.split("\\s+");
-        String prevWord = null;
+        Type prevNode = null;
         for (String word : words) {
-            Type node = nodes.computeIfAbsent(word, Type::new); //如果node在图中不存在创建一个新的节点
-            if (prevWord != null) {
-                Type prevNode = nodes.get(prevWord);
-                prevNode.outgoingEdges.merge(node, 1, Integer::sum);
-                //将当前单词节点node添加到前一个单词节点prevNode的出边集合中。如果出边集合中已经存在到node的边，则将它们的权重加一；否则，创建一条新的边，权重为1。
+            prevNode = addWord(nodes, prevNode, word);
+        }
+        graphChanged(prevNode);
+        Metrics.endPhase(event, start, Metrics.Operation.BUILD_GRAPH, "buildGraph",
+                nodes.size(), -1);
+    }
+
+    /**
+     * 并行构建图.
+     * 在公共 ForkJoinPool 上分块统计边后合并，结果与 {@link #buildGraph(String)} 相同。
+     *
+     * @param processedText 处理过的文本
+     */
+    public static void buildGraphParallel(String processedText) {
+        buildGraphParallel(processedText, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 在指定的线程池上并行构建图.
+     *
+     * @param processedText 处理过的文本
+     * @param pool          执行分块统计的线程池
+     */
+    public static void buildGraphParallel(String processedText, ForkJoinPool pool) {
+        long begin = Metrics.start();
+        GraphBuildEvent event = Metrics.beginPhase();
+        mergeCounts(nodes, new ParallelGraphBuilder(pool, ParallelGraphBuilder.DEFAULT_MIN_CHUNK)
+                .count(processedText));
+        // 与 split 相同：最后一个单词是末尾空白之前的那一段
+        int end = processedText.length();
+        while (end > 0 && ParallelGraphBuilder.isSpace(processedText.charAt(end - 1))) {
+            end--;
+        }
+        int start = end;
+        while (start > 0 && !ParallelGraphBuilder.isSpace(processedText.charAt(start - 1))) {
+            start--;
+        }
+        boolean noWords = end == 0 && !processedText.isEmpty();
+        graphChanged(noWords ? null : nodes.get(processedText.substring(start, end)));
+        Metrics.endPhase(event, begin, Metrics.Operation.BUILD_GRAPH, "buildGraphParallel",
+                nodes.size(), -1);
+    }
+
+    /**
+     * 把统计好的单词和边合并到图中，已有的边累加权重.
+     *
+     * @param g      图
+     * @param counts 单词到其出边（目标单词 -> 权重）的映射
+     */
+    static void mergeCounts(Map<String, Type> g, Map<String, Map<String, int[]>> counts) {
+        for (Map.Entry<String, Map<String, int[]>> entry : counts.entrySet()) {
+            Type source = g.computeIfAbsent(entry.getKey(), Type::new);
+            for (Map.Entry<String, int[]> edge : entry.getValue().entrySet()) {
+                Type target = g.computeIfAbsent(edge.getKey(), Type::new);
+                source.outgoingEdges.merge(target, edge.getValue()[0], Integer::sum);
+                target.incomingEdges.merge(source, edge.getValue()[0], Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * 直接从文件流式构建图.
+     * 与 {@code buildGraph(processText(filePath))} 得到的图相同，但不构造中间文本字符串。
+     *
+     * @param filePath 文本文件路径
+     * @throws IOException 如果读取文件失败
+     */
+    public static void buildGraphFromFile(String filePath) throws IOException {
+        long start = Metrics.start();
+        GraphBuildEvent event = Metrics.beginPhase();
+        try (WordTokenizer tokenizer = WordTokenizer.open(Paths.get(filePath))) {
+            Type prevNode = null;
+            for (String word = tokenizer.nextWord(); word != null; word = tokenizer.nextWord()) {
+                prevNode = addWord(nodes, prevNode, word);
+            }
+            graphChanged(prevNode);
+        }
+        Metrics.endPhase(event, start, Metrics.Operation.BUILD_GRAPH, "buildGraphFromFile",
+                nodes.size(), -1);
+    }
+
+    /**
+     * 增量加入一篇文档，不重建已有的图.
+     * 只统计这篇文档内部的边；linkPrevious 为 true 时，
+     * 再加上一条从上一次写入的文本的最后一个单词到本文档第一个单词的边。
+     * 空白文档不产生任何单词，也不改变图的版本。
+     *
+     * @param processedText 处理过的文档文本
+     * @param linkPrevious  是否与上一篇文档首尾相连
+     */
+    public static void ingestDocument(String processedText, boolean linkPrevious) {
+        Type prevNode = linkPrevious ? lastNode : null;
+        boolean added = false;
+        for (String word : processedText.split("\\s+")) {
+            if (!word.isEmpty()) {
+                prevNode = addWord(nodes, prevNode, word);
+                added = true;
+            }
+        }
+        if (added) {
+            graphChanged(prevNode);
+        }
+    }
+
+    /**
+     * 从文件增量加入一篇文档，单词由 {@link WordTokenizer} 流式读取.
+     *
+     * @param filePath     文本文件路径
+     * @param linkPrevious 是否与上一篇文档首尾相连
+     * @throws IOException 如果读取文件失败
+     */
+    public static void ingestFile(String filePath, boolean linkPrevious) throws IOException {
+        try (WordTokenizer tokenizer = WordTokenizer.open(Paths.get(filePath))) {
+            Type prevNode = linkPrevious ? lastNode : null;
+            boolean added = false;
+            for (String word = tokenizer.nextWord(); word != null; word = tokenizer.nextWord()) {
+                if (!word.isEmpty()) {
+                    prevNode = addWord(nodes, prevNode, word);
+                    added = true;
+                }
+            }
+            if (added) {
+                graphChanged(prevNode);
+            }
+        }
+    }
+
+    /**
+     * 导出所有单词对之间的最短距离，格式见 {@link DistanceMatrix}.
+     * 两个上限都为 0 时导出完整矩阵，堆上放不下时直接映射到输出文件中计算；
+     * 否则按行流式导出附近单词的距离。每个起点只搜索一次，在公共 ForkJoinPool 上并行。
+     *
+     * @param path    输出文件.
+     * @param maxHops 大于 0 时只考虑边数不超过它的路径.
+     * @param topN    大于 0 时每个单词只导出最近的 topN 个单词.
+     * @throws IOException 如果写入失败.
+     */
+    public static void exportDistances(String path, int maxHops, int topN) throws IOException {
+        FrozenGraph graph = freezeGraph();
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        if (maxHops == 0 && topN == 0 && !DistanceMatrix.fitsOnHeap(graph.nodeCount())) {
+            // 映射的文件本身就是导出结果
+            try (Arena arena = Arena.ofShared()) {
+                DistanceMatrix.compute(graph, pool, Paths.get(path), arena);
             }
-            prevWord = word;
+            return;
         }
+        try (OutputStream out = Files.newOutputStream(Paths.get(path))) {
+            if (maxHops == 0 && topN == 0) {
+                DistanceMatrix.compute(graph, pool).export(out);
+            } else {
+                DistanceMatrix.exportNearest(graph, pool, maxHops, topN, out);
+            }
+        }
+    }
+
+    /**
+     * 并发导入目录（递归）下的所有文件，每个文件作为一篇独立的文档加入图中.
+     * 使用 {@link DirectoryIngester} 流水线，内存占用与语料总大小无关。
+     * 导入的文档之间不连边，之后的写入也不会与它们相连。
+     *
+     * @param dirPath  目录路径
+     * @param glob     文件名的 glob 模式，例如 {@code *.txt}；null 表示所有文件
+     * @param listener 进度回调，大约每秒一次；可以为 null
+     * @return 导入的文件数、字节数和单词数
+     * @throws IOException 如果遍历目录或读取文件失败
+     */
+    public static DirectoryIngester.Progress ingestDirectory(
+            String dirPath, String glob, Consumer<DirectoryIngester.Progress> listener)
+            throws IOException {
+        long start = Metrics.start();
+        GraphBuildEvent event = Metrics.beginPhase();
+        int threads = Runtime.getRuntime().availableProcessors();
+        DirectoryIngester.Progress progress;
+        try {
+            progress = new DirectoryIngester(threads, threads, 4 * threads)
+                    .ingest(Paths.get(dirPath), glob, nodes, listener);
+        } finally {
+            // 失败时也可能已合并了部分文件
+            graphChanged(null);
+        }
+        Metrics.endPhase(event, start, Metrics.Operation.BUILD_GRAPH, "ingestDirectory",
+                nodes.size(), -1);
+        return progress;
+    }
+
+    /**
+     * 当前图的节点映射，测试用来与其他表示比较.
+     *
+     * @return 单词到节点的映射，不要修改
+     */
+    static Map<String, Type> nodes() {
+        return nodes;
+    }
 
+    /**
+     * 图的版本号.
+     * 每次建图或增量写入后加一，基于图构建的索引和缓存可以比较版本号决定是否刷新。
+     *
+     * @return 当前版本号
+     */
+    public static long graphVersion() {
+        return graphVersion;
+    }
+
+    /**
+     * 清空图中所有单词和边，版本号照常递增.
+     * 冻结副本和最短路径引擎也一并释放，清空后堆上不再保留旧图。
+     */
+    public static void clearGraph() {
+        nodes.clear();
+        frozenGraph = null;
+        pathEngine = null;
+        landmarks = null;
+        graphChanged(null);
+    }
+
+    /** 记录一次写入：更新最后一个单词并递增版本号. */
+    private static void graphChanged(Type last) {
+        lastNode = last;
+        graphVersion++;
+        // 旧版本的键不会再被查到，提前清掉以免占用容量
+        QUERY_CACHE.invalidateAll();
+    }
+
+    /**
+     * 桥接词与最短路径结果缓存的统计.
+     *
+     * @return 命中、未命中与淘汰次数.
+     */
+    public static QueryCache.Stats queryCacheStats() {
+        return QUERY_CACHE.stats();
+    }
+
+    /**
+     * 将当前图冻结为紧凑的只读表示.
+     * 结果会被缓存，直到图再次被修改。
+     *
+     * @return 以整数编号和 CSR 邻接数组表示的图
+     */
+    public static FrozenGraph freezeGraph() {
+        if (frozenVersion != graphVersion) {
+            long start = Metrics.start();
+            GraphBuildEvent event = Metrics.beginPhase();
+            frozenGraph = FrozenGraph.of(nodes);
+            frozenVersion = graphVersion;
+            Metrics.endPhase(event, start, Metrics.Operation.FREEZE_GRAPH, "freezeGraph",
+                    frozenGraph.nodeCount(), frozenGraph.edgeCount());
+        }
+        return frozenGraph;
+    }
+
+    /**
+     * 将当前图保存为二进制快照，之后可用 {@link GraphSnapshot#open} 直接打开查询.
+     * 大图的路标距离表不在这里等待：已经建好时立即写出，否则在后台建好时再写到快照旁边，
+     * 在此之前旁边没有距离表文件，打开快照时照常查询。
+     *
+     * @param snapshotPath 快照文件路径
+     * @return 距离表写完时完成的任务；不需要写距离表时已经完成
+     * @throws IOException 如果写快照失败
+     */
+    public static CompletableFuture<Void> saveSnapshot(String snapshotPath) throws IOException {
+        FrozenGraph graph = freezeGraph();
+        Path path = Paths.get(snapshotPath);
+        Path landmarkPath = LandmarkIndex.pathFor(path);
+        // 旧的距离表属于旧的图，先删掉
+        Files.deleteIfExists(landmarkPath);
+        GraphSnapshot.write(graph, path);
+        if (graph.nodeCount() < landmarkMinNodes) {
+            return CompletableFuture.completedFuture(null);
+        }
+        LandmarkIndex ready = currentLandmarks(graph);
+        CompletableFuture<LandmarkIndex> build =
+                ready != null ? CompletableFuture.completedFuture(ready) : landmarkBuild;
+        return build.thenAccept(index -> {
+            if (index == null || index.graph() != graph) {
+                return; //建好之前图又变了
+            }
+            try {
+                index.write(landmarkPath);
+            } catch (IOException e) {
+                System.err.println("路标距离表保存失败：" + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 文本文件对应的快照文件.
+     *
+     * @param source 文本文件
+     * @return 同一目录下加上 {@code .snapshot} 后缀的文件
+     */
+    static Path snapshotPathFor(Path source) {
+        return source.resolveSibling(source.getFileName() + ".snapshot");
+    }
+
+    /**
+     * 加载文本文件对应的快照，快照比文本文件旧时不使用.
+     *
+     * @param source 文本文件
+     * @return 是否已加载；不存在、已过期或无法打开时返回 false，调用者重新建图
+     */
+    static boolean loadFreshSnapshot(Path source) {
+        Path path = snapshotPathFor(source);
+        try {
+            if (!Files.exists(path) || (Files.exists(source) && Files.getLastModifiedTime(path)
+                    .compareTo(Files.getLastModifiedTime(source)) < 0)) {
+                return false;
+            }
+            loadSnapshot(path);
+            return true;
+        } catch (IOException e) {
+            System.err.println("快照无法打开，重新建图：" + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 以快照替换当前图，旁边有路标距离表时一起加载.
+     *
+     * @param path 快照文件
+     * @throws IOException 如果快照无法打开
+     */
+    static void loadSnapshot(Path path) throws IOException {
+        loadGraph(GraphSnapshot.open(path));
+        Path landmarkPath = LandmarkIndex.pathFor(path);
+        if (Files.exists(landmarkPath)) {
+            try {
+                // 冻结图与快照的编号相同，为快照保存的距离表同样适用
+                FrozenGraph graph = freezeGraph();
+                landmarks = LandmarkIndex.read(landmarkPath, graph);
+                landmarkGraph = graph;
+            } catch (IOException e) {
+                System.err.println("忽略路标距离表：" + e.getMessage());
+            }
+        }
+        System.out.println("已加载快照 " + path);
+    }
+
+    /**
+     * 用一个已有的图（例如打开的快照）替换当前图，之后所有功能照常可用.
+     * 快照与冻结图都按单词排序编号，加载后冻结得到的图与原来的图编号相同。
+     *
+     * @param graph 只读图
+     */
+    public static void loadGraph(WordGraph graph) {
+        clearGraph();
+        copyGraph(graph, nodes);
+        graphChanged(null);
+    }
+
+    /**
+     * 将只读图中的单词和边复制到节点表中.
+     *
+     * @param graph 只读图
+     * @param nodes 空的单词到节点的映射
+     */
+    static void copyGraph(WordGraph graph, Map<String, Type> nodes) {
+        int n = graph.nodeCount();
+        Type[] byId = new Type[n];
+        for (int v = 0; v < n; v++) {
+            byId[v] = nodes.computeIfAbsent(graph.word(v), Type::new);
+        }
+        for (int v = 0; v < n; v++) {
+            Type source = byId[v];
+            graph.forEachSuccessor(v, (next, weight) -> {
+                source.outgoingEdges.put(byId[next], weight);
+                byId[next].incomingEdges.put(source, weight);
+            });
+        }
+    }
+
+    /**
+     * 打印一次搜索得到的最短路径，有多条等长的路径时先打印总数，再最多列出 10 条，每条只打印一次.
+     *
+     * @param paths 搜索结果
+     * @return 第一条路径；不可达时为 {@link GraphQueries#NO_PATH}
+     */
+    static String printShortestPaths(AllShortestPaths paths) {
+        List<String> tied = paths.pathStrings(10);
+        String path = tied.isEmpty() ? GraphQueries.NO_PATH : tied.get(0);
+        long count = paths.pathCount();
+        if (count > 1) {
+            System.out.println("共有 " + count + " 条等长的最短路径，前 " + tied.size() + " 条：");
+            for (String each : tied) {
+                System.out.println(each);
+            }
+        } else {
+            System.out.println(path);
+        }
+        return path;
+    }
+
+    /**
+     * 当前图的路标距离表.
+     * 还没有建好时在后台开始建立（每个版本只建一次）并返回 null，调用者先用不需要距离表的搜索。
+     *
+     * @param graph 当前的冻结图
+     * @return 属于这个图的距离表；还没有建好或图太小时返回 null
+     */
+    private static LandmarkIndex currentLandmarks(FrozenGraph graph) {
+        LandmarkIndex index = landmarks;
+        if (index != null && index.graph() == graph) {
+            return index;
+        }
+        if (graph.nodeCount() >= landmarkMinNodes && landmarkGraph != graph) {
+            landmarkGraph = graph;
+            // 排队期间图又变了时不建，直接建最新的
+            landmarkBuild = LandmarkIndex.buildInBackground(graph, () -> landmarkGraph == graph)
+                    .thenApply(built -> {
+                        if (built != null) {
+                            landmarks = built;
+                        }
+                        return built;
+                    });
+        }
+        return null;
+    }
+
+    /** 最近一次在后台建立路标距离表的任务，供测试等待. */
+    static CompletableFuture<LandmarkIndex> landmarkBuild() {
+        return landmarkBuild;
+    }
+
+    /**
+     * 将一个单词加入图中，并累加前一个单词到它的边.
+     *
+     * @param nodes    单词到节点的映射
+     * @param prevNode 前一个单词的节点，没有则为 null
+     * @param word     当前单词
+     * @return 当前单词的节点
+     */
+    static Type addWord(Map<String, Type> nodes, Type prevNode, String word) {
+        Type node = nodes.computeIfAbsent(word, Type::new); //如果node在图中不存在创建一个新的节点
+        if (prevNode != null) {
+            prevNode.outgoingEdges.merge(node, 1, Integer::sum);
+            //将当前单词节点node添加到前一个单词节点prevNode的出边集合中。如果出边集合中已经存在到node的边，则将它们的权重加一；否则，创建一条新的边，权重为1。
+            node.incomingEdges.merge(prevNode, 1, Integer::sum); //同步维护入边索引
+        }
+        return node;
     }
 
     /**
      * 显示路径的方法.
      *
      * @param path 要显示的路径字符串，每个节点用空格分隔。
-     * @param k    颜色索引，用于选择路径的颜色。
+     * @param k    颜色索引，可以是任意非负整数，见 {@link GraphView#pathColor(int)}。
      */
     public static void showPath(String path, int k) {
-        for (Edge edge : graph.getEachEdge()) {
-            edge.addAttribute("ui.style", "fill-color: black;");
-        }
-        String[] colors = {
-                "rgb(255, 0, 0)",    // 红色
-                "rgb(0, 255, 0)",    // 绿色
-                "rgb(0, 0, 255)",    // 蓝色
-                "rgb(255, 165, 0)",  // 橙色
-                "rgb(255, 192, 203)", // 粉色
-                "rgb(165, 42, 42)",  // 棕色
-                "rgb(0, 0, 139)",    // 深蓝色
-                "rgb(173, 216, 230)", // 浅蓝色
-                "rgb(255, 215, 0)",  // 金色
-                "rgb(192, 192, 192)", // 银色
-                "rgb(128, 128, 0)",  // 橄榄绿
-                "rgb(0, 128, 128)",  // 海蓝色
-                "rgb(147, 112, 219)", // 淡紫色
-                "rgb(128, 128, 128)", // 灰色
-                "rgb(255, 0, 255)",  // 洋红色
-                "rgb(135, 206, 235)", // 天蓝色
-                "rgb(210, 105, 30)"   // 巧克力色
-        };
+        if (path != null && headless) {
+            return;
+        }
         if (path != null) {
-            List<String> shortestPath;
-            String[] strList = path.split("\\s+");
-            shortestPath = Arrays.asList(strList);
-            for (int i = 0; i < shortestPath.size() - 1; i++) {
-                String currentNode = shortestPath.get(i);
-                String nextNode = shortestPath.get(i + 1);
-                Edge edge = graph.getEdge(currentNode + "->" + nextNode);
-                String color = colors[k];
-                edge.addAttribute("ui.style", "fill-color: " + color + ";"); // 标识最短路径的边为红色
+            if (view == null) {
+                // 没有显示整个图时，只显示路径经过的节点和边
+                view = new GraphView(freezeGraph());
+                view.display();
             }
-            //graph.display();
+            view.highlight(path, GraphView.pathColor(k)); // 只改动上一条路径与这一条路径的边
         } else {
             System.out.println("No path found.");
         }
@@ -388,18 +850,49 @@ public class Main {
 
     /**
      * 主函数.
+     * {@code --snapshot 快照文件} 加载指定的快照而不读文本；{@code --reuse-snapshot} 时读取文本建图后
+     * 在同一目录下保存快照，下次带同样的参数启动时如果快照比文本新就直接加载快照；
+     * {@code --headless} 不显示图。两种方式加载的图都使用同样的菜单。
      */
     public static void main(String[] args) {
+        List<String> options = Arrays.asList(args);
+        headless = options.contains("--headless")
+                || Boolean.getBoolean("wordgraph.headless") || GraphicsEnvironment.isHeadless();
+        boolean reuseSnapshot = options.contains("--reuse-snapshot");
+        int snapshotOption = options.indexOf("--snapshot");
         try {
-            String filePath = getFilePath();
-            String processedText = processText(filePath);
-            System.out.println(processedText);
-            buildGraph(processedText);
-            showDirectedGraph(nodes);
+            if (snapshotOption >= 0 && snapshotOption + 1 < args.length) {
+                loadSnapshot(Paths.get(args[snapshotOption + 1]));
+            } else {
+                String filePath = getFilePath();
+                Path source = Paths.get(filePath);
+                if (Files.isDirectory(source)) {
+                    DirectoryIngester.Progress progress = ingestDirectory(filePath, null,
+                            p -> System.out.println("导入中：" + p));
+                    System.out.println("导入完成：" + progress);
+                } else if (!reuseSnapshot || !loadFreshSnapshot(source)) {
+                    buildGraphFromFile(filePath);
+                    if (reuseSnapshot) {
+                        try {
+                            // 下次启动直接加载快照，不再读文本和建图
+                            saveSnapshot(snapshotPathFor(source).toString());
+                        } catch (IOException e) {
+                            System.err.println("快照保存失败：" + e.getMessage());
+                        }
+                    }
+                }
+            }
+            System.out.println("共读取 " + nodes.size() + " 个不同的单词");
+            if (nodes.size() <= GraphView.DEFAULT_MAX_NODES) {
+                showDirectedGraph(nodes);
+            } else if (!headless) {
+                System.out.println("单词较多，不显示整个图，可以用功能6查看单词的邻域");
+            }
             while (true) {
                 System.out.println(
                         "请选择以下功能:\n1、查询桥接词\n2、根据bridge word生成新文本\n3、计算两个单词之间的最短路径\n"
-                                + "4、随机游走\n5、保存当前图片\n6、输入其他退出");
+                                + "4、随机游走\n5、保存当前图片\n6、查看单词的邻域\n"
+                                + "7、导出所有单词之间的距离\n8、输入其他退出");
                 int work = scanner.nextInt();
                 scanner.nextLine();
                 if (work == 1) {
@@ -427,8 +920,8 @@ public class Main {
                     System.out.println("请输入最短路径模式:\n1、计算两点之间最短距离\n2、遍历一个词到其他词的最短路径");
                     int mode = scanner.nextInt();
                     scanner.nextLine();
-                    for (Edge edge : graph.getEachEdge()) {
-                        edge.addAttribute("ui.style", "fill-color: black;");
+                    if (view != null) {
+                        view.clearHighlight();
                     }
                     String path = "";
                     int k = 0;
@@ -444,8 +937,8 @@ public class Main {
                         } else if (nodes.get(endWord) == null) {
                             System.out.println("No \"" + endWord + "\" in the graph !");
                         } else {
-                            path = shortestPath(startWord, endWord);
-                            System.out.println(path);
+                            // 一次搜索同时得到路径条数和所有等长的路径
+                            path = printShortestPaths(allShortestPaths(startWord, endWord));
                             showPath(path, k);
                         }
                     } else if (mode == 2) {
@@ -455,9 +948,17 @@ public class Main {
                         if (nodes.get(startWord) == null) {
                             System.out.println("No \"" + startWord + "\" in the graph !");
                         } else {
+                            // 只运行一次 Dijkstra，之后每条路径直接从最短路径树读出
+                            ShortestPathTree tree =
+                                    ShortestPathTree.compute(freezeGraph(), startWord);
                             for (Map.Entry<String, Type> entry : nodes.entrySet()) {
                                 if (!entry.getKey().equals(startWord)) {
-                                    path = shortestPath(startWord, entry.getKey());
+                                    path = tree.pathString(entry.getKey());
+                                    if (path.equals(GraphQueries.NO_PATH)) {
+                                        System.out.println(path + ": " + startWord
+                                                + " -> " + entry.getKey());
+                                        continue;
+                                    }
                                     showPath(path, k);
                                     System.out.println(
                                             "Path: " + startWord + " -> " + entry.getKey());
@@ -489,18 +990,41 @@ public class Main {
                 } else  if (work == 5) {
                     System.out.print("请输入图片文件名：");
                     String graphPath = scanner.nextLine();
-                    // Create a FileSinkImages instance for saving as PNG
-                    FileSinkImages fileSink = new FileSinkImages(
-                            FileSinkImages.OutputType.PNG, FileSinkImages.Resolutions.HD1080);
-                    // Write the graph to the PNG file
-                    try {
-                        fileSink.setLayoutPolicy(
-                                FileSinkImages.LayoutPolicy.COMPUTED_FULLY_AT_NEW_IMAGE);
-                        fileSink.writeAll(graph, "./" + graphPath + ".png");
-                        System.out.println("图片保存成功");
-                    } catch (IOException e) {
-                        e.printStackTrace();
+                    if (view == null) {
+                        System.out.println("当前没有显示的图");
+                        continue;
                     }
+                    // 在后台导出，菜单不必等待布局和渲染完成
+                    view.saveImageAsync("./" + graphPath + ".png").whenComplete((file, e) -> {
+                        if (e == null) {
+                            System.out.println("图片保存成功：" + file);
+                        } else {
+                            System.err.println("图片保存失败：" + e.getCause());
+                        }
+                    });
+                    System.out.println("图片正在后台保存");
+                } else if (work == 6) {
+                    System.out.print("Enter word : ");
+                    String word = scanner.nextLine().toLowerCase();
+                    System.out.print("Enter hops : ");
+                    int hops = scanner.nextInt();
+                    scanner.nextLine();
+                    String neighbourhood = showNeighbourhood(word, hops);
+                    if (neighbourhood == null) {
+                        System.out.println("No \"" + word + "\" in the graph !");
+                    } else {
+                        System.out.println("邻域：" + neighbourhood);
+                    }
+                } else if (work == 7) {
+                    System.out.print("请输入导出文件名：");
+                    String distancePath = scanner.nextLine();
+                    System.out.print("请输入跳数上限（0 表示不限）：");
+                    int maxHops = scanner.nextInt();
+                    System.out.print("请输入每个单词最多导出的单词数（0 表示不限）：");
+                    int topN = scanner.nextInt();
+                    scanner.nextLine();
+                    exportDistances(distancePath, maxHops, topN);
+                    System.out.println("距离已导出：" + distancePath);
                 } else {
                     break;
                 }
@@ -0,0 +1,316 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 操作级别的性能指标.
+ * 为每种查询和建图操作维护一个 {@link LatencyHistogram}，另外统计最短路径确定的节点数和慢查询数；
+ * 耗时超过阈值的查询还会产生 {@link SlowQueryEvent}，建图各阶段产生 {@link GraphBuildEvent}，
+ * 可以在 JDK Flight Recorder 中查看。
+ *
+ * <p>默认关闭（系统属性 {@code wordgraph.metrics=true} 或 {@link #setEnabled} 打开），两种 JFR 事件也只在打开时产生。
+ * 关闭时 {@link #start()} 返回 0，{@link #beginPhase()} 返回 null，{@link #record} 与 {@link #endPhase}
+ * 立即返回，调用方的开销只有一次 volatile 读；
+ * 调用方不应在关闭时为指标拼接字符串，查询参数会在确认是慢查询后才拼接。
+ */
+public final class Metrics {
+
+    /**
+     * 被统计的操作.
+     */
+    public enum Operation {
+        /** 查询桥接词. */
+        BRIDGE_WORDS("bridgeWords"),
+        /** 根据桥接词生成新文本. */
+        GENERATE_TEXT("generateNewText"),
+        /** 最短路径. */
+        SHORTEST_PATH("shortestPath"),
+        /** 所有等长的最短路径. */
+        ALL_SHORTEST_PATHS("allShortestPaths"),
+        /** 随机游走. */
+        RANDOM_WALK("randomWalk"),
+        /** 由文本建图或增量写入. */
+        BUILD_GRAPH("buildGraph"),
+        /** 冻结为只读图. */
+        FREEZE_GRAPH("freezeGraph");
+
+        private final String label;
+
+        Operation(String label) {
+            this.label = label;
+        }
+
+        /**
+         * 用于报告的名称.
+         *
+         * @return 名称.
+         */
+        public String label() {
+            return label;
+        }
+    }
+
+    private static final LatencyHistogram[] HISTOGRAMS =
+            new LatencyHistogram[Operation.values().length];
+    private static final LongAdder SETTLED_NODES = new LongAdder();
+    private static final LongAdder SLOW_QUERIES = new LongAdder();
+    private static volatile boolean enabled = Boolean.getBoolean("wordgraph.metrics");
+    private static volatile long slowQueryNanos =
+            Long.getLong("wordgraph.slowQueryMillis", 100) * 1_000_000L;
+
+    static {
+        for (int i = 0; i < HISTOGRAMS.length; i++) {
+            HISTOGRAMS[i] = new LatencyHistogram();
+        }
+    }
+
+    private Metrics() {
+    }
+
+    /**
+     * 是否正在收集指标.
+     *
+     * @return 是否打开.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 打开或关闭指标收集.
+     *
+     * @param value 是否打开.
+     */
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    /**
+     * 设置慢查询阈值.
+     *
+     * @param nanos 纳秒，耗时不小于它的查询会产生 JFR 事件.
+     */
+    public static void setSlowQueryNanos(long nanos) {
+        slowQueryNanos = nanos;
+    }
+
+    /**
+     * 开始计时.
+     *
+     * @return 当前的 {@link System#nanoTime()}；关闭时返回 0.
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * 记录一次查询.
+     *
+     * @param operation    操作.
+     * @param start        {@link #start()} 的返回值，为 0 时不记录.
+     * @param argument1    第一个查询参数，只用于慢查询事件，可以为 null.
+     * @param argument2    第二个查询参数，只用于慢查询事件，可以为 null.
+     * @param settledNodes 最短路径确定的节点数，其他操作为 0.
+     */
+    public static void record(Operation operation, long start, String argument1, String argument2,
+                              long settledNodes) {
+        if (start == 0) {
+            return;
+        }
+        long duration = System.nanoTime() - start;
+        HISTOGRAMS[operation.ordinal()].record(duration);
+        if (settledNodes > 0) {
+            SETTLED_NODES.add(settledNodes);
+        }
+        if (duration >= slowQueryNanos) {
+            SLOW_QUERIES.increment();
+            SlowQueryEvent event = new SlowQueryEvent();
+            if (event.shouldCommit()) {
+                event.operation = operation.label();
+                event.query = argument2 == null ? argument1 : argument1 + " -> " + argument2;
+                event.elapsed = duration;
+                event.settledNodes = settledNodes;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * 开始一个建图阶段，对应的 JFR 事件开始计时.
+     *
+     * @return 事件，传给 {@link #endPhase}；关闭时不创建事件，返回 null.
+     */
+    static GraphBuildEvent beginPhase() {
+        if (!enabled) {
+            return null;
+        }
+        GraphBuildEvent event = new GraphBuildEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * 结束一个建图阶段.
+     *
+     * @param event     {@link #beginPhase()} 的返回值，可以为 null.
+     * @param start     {@link #start()} 的返回值.
+     * @param operation 计入的操作.
+     * @param phase     阶段名称.
+     * @param words     阶段结束时的单词数.
+     * @param edges     阶段结束时的边数，未知时为 -1.
+     */
+    static void endPhase(GraphBuildEvent event, long start, Operation operation, String phase,
+                         long words, long edges) {
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.phase = phase;
+                event.words = words;
+                event.edges = edges;
+                event.commit();
+            }
+        }
+        if (start != 0) {
+            HISTOGRAMS[operation.ordinal()].record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 某个操作的延迟直方图（纳秒）.
+     *
+     * @param operation 操作.
+     * @return 直方图.
+     */
+    public static LatencyHistogram histogram(Operation operation) {
+        return HISTOGRAMS[operation.ordinal()];
+    }
+
+    /**
+     * 最短路径查询累计确定的节点数.
+     *
+     * @return 节点数.
+     */
+    public static long settledNodes() {
+        return SETTLED_NODES.sum();
+    }
+
+    /**
+     * 超过阈值的查询数.
+     *
+     * @return 慢查询数.
+     */
+    public static long slowQueries() {
+        return SLOW_QUERIES.sum();
+    }
+
+    /**
+     * 清空所有指标.
+     */
+    public static void reset() {
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            histogram.reset();
+        }
+        SETTLED_NODES.reset();
+        SLOW_QUERIES.reset();
+    }
+
+    /**
+     * 以文本行报告所有有记录的操作，时间单位为微秒.
+     *
+     * @return 报告，每个操作一行.
+     */
+    public static List<String> report() {
+        List<String> lines = new ArrayList<>();
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram histogram = histogram(operation);
+            if (histogram.count() == 0) {
+                continue;
+            }
+            lines.add(String.format(Locale.ROOT,
+                    "%s count=%d mean=%.1fus p50=%.1fus p99=%.1fus max=%.1fus",
+                    operation.label(), histogram.count(), histogram.mean() / 1e3,
+                    histogram.percentile(0.5) / 1e3, histogram.percentile(0.99) / 1e3,
+                    histogram.max() / 1e3));
+        }
+        lines.add("settledNodes=" + settledNodes() + " slowQueries=" + slowQueries());
+        return lines;
+    }
+
+    /**
+     * 图的规模统计.
+     */
+    public static final class GraphStats {
+        private final int words;
+        private final long edges;
+        private final int maxOutDegree;
+        private final int maxInDegree;
+
+        private GraphStats(int words, long edges, int maxOutDegree, int maxInDegree) {
+            this.words = words;
+            this.edges = edges;
+            this.maxOutDegree = maxOutDegree;
+            this.maxInDegree = maxInDegree;
+        }
+
+        /**
+         * 统计一个图，需要遍历所有节点一次.
+         *
+         * @param graph 图.
+         * @return 统计.
+         */
+        public static GraphStats of(WordGraph graph) {
+            int maxOut = 0;
+            int maxIn = 0;
+            for (int v = 0; v < graph.nodeCount(); v++) {
+                maxOut = Math.max(maxOut, graph.outDegree(v));
+                maxIn = Math.max(maxIn, graph.inDegree(v));
+            }
+            return new GraphStats(graph.nodeCount(), graph.edgeCount(), maxOut, maxIn);
+        }
+
+        /**
+         * 词表大小.
+         *
+         * @return 单词数.
+         */
+        public int words() {
+            return words;
+        }
+
+        /**
+         * 边数.
+         *
+         * @return 不同的边的个数.
+         */
+        public long edges() {
+            return edges;
+        }
+
+        /**
+         * 最大出度.
+         *
+         * @return 最大出度.
+         */
+        public int maxOutDegree() {
+            return maxOutDegree;
+        }
+
+        /**
+         * 最大入度.
+         *
+         * @return 最大入度.
+         */
+        public int maxInDegree() {
+            return maxInDegree;
+        }
+
+        @Override
+        public String toString() {
+            return "words=" + words + " edges=" + edges + " maxOutDegree=" + maxOutDegree
+                    + " maxInDegree=" + maxInDegree;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package org.example;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 存放在堆外内存中的只读图.
+ * 邻接表、权重和单词字符串都在一个由 {@link Arena} 分配或映射的 {@link MemorySegment} 中，
+ * 通过 {@link VarHandle} 读取；堆上只有这个对象本身，图再大也不会增加 GC 需要扫描的对象，
+ * 适合词表达到数千万的图。
+ *
+ * <p>内存布局与 {@link GraphSnapshot} 的文件格式完全相同，因此快照文件可以整体映射后直接使用
+ * （{@link #map}），也可以把任意 {@link WordGraph} 复制到堆外（{@link #copyOf}）。
+ * 与 {@link GraphSnapshot} 不同，整个文件映射为一个段，单个区段可以超过 2GB。
+ * 图的生命周期由 Arena 决定，Arena 关闭后不能再访问；共享 Arena 上的图可以被多个线程同时读取。
+ */
+public final class OffHeapGraph implements WordGraph {
+    private static final ValueLayout.OfInt INT_LAYOUT =
+            ValueLayout.JAVA_INT.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfLong LONG_LAYOUT =
+            ValueLayout.JAVA_LONG.withOrder(ByteOrder.LITTLE_ENDIAN);
+    /** 按 int 下标读写段的句柄，坐标为 (MemorySegment, long 下标). */
+    private static final VarHandle INTS = intHandle();
+
+    private final MemorySegment segment;
+    private final int nodeCount;
+    private final long edgeCount;
+    // 各区段起点，以 int 为单位；字符串区以字节为单位
+    private final long wordOffsets;
+    private final long sortedIds;
+    private final long offsets;
+    private final long targets;
+    private final long weights;
+    private final long inOffsets;
+    private final long sources;
+    private final long inWeights;
+    private final long strings;
+
+    private OffHeapGraph(MemorySegment segment, int nodeCount, long edgeCount) {
+        this.segment = segment;
+        this.nodeCount = nodeCount;
+        this.edgeCount = edgeCount;
+        wordOffsets = GraphSnapshot.HEADER_BYTES / 4;
+        sortedIds = wordOffsets + nodeCount + 1;
+        offsets = sortedIds + nodeCount;
+        targets = offsets + nodeCount + 1;
+        weights = targets + edgeCount;
+        inOffsets = weights + edgeCount;
+        sources = inOffsets + nodeCount + 1;
+        inWeights = sources + edgeCount;
+        strings = 4 * (inWeights + edgeCount);
+    }
+
+    private static VarHandle intHandle() {
+        VarHandle handle = INT_LAYOUT.arrayElementVarHandle();
+        if (handle.coordinateTypes().size() == 3) {
+            // Java 22 起数组句柄多了一个基址偏移坐标，固定为 0
+            handle = MethodHandles.insertCoordinates(handle, 1, 0L);
+        }
+        return handle;
+    }
+
+    private int getInt(long index) {
+        return (int) INTS.get(segment, index);
+    }
+
+    /**
+     * 把图复制到堆外内存.
+     * 复制完成后可以丢弃原来的图，之后的查询不再引用任何堆上的节点对象。
+     *
+     * @param graph 要复制的图.
+     * @param arena 分配内存的 Arena，决定副本的生命周期.
+     * @return 堆外的图.
+     */
+    public static OffHeapGraph copyOf(WordGraph graph, Arena arena) {
+        int n = graph.nodeCount();
+        long m = graph.edgeCount();
+        byte[][] encoded = new byte[n][];
+        long stringBytes = 0;
+        for (int v = 0; v < n; v++) {
+            encoded[v] = graph.word(v).getBytes(StandardCharsets.UTF_8);
+            stringBytes += encoded[v].length;
+        }
+        if (stringBytes > Integer.MAX_VALUE || m > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("graph too large: " + stringBytes
+                    + " string bytes, " + m + " edges");
+        }
+        MemorySegment segment = arena.allocate(
+                GraphSnapshot.expectedSize(n, m, stringBytes), Long.BYTES);
+        segment.set(INT_LAYOUT, 0, GraphSnapshot.MAGIC);
+        segment.set(INT_LAYOUT, 4, GraphSnapshot.FORMAT_VERSION);
+        segment.set(INT_LAYOUT, 8, n);
+        segment.set(LONG_LAYOUT, 16, m);
+        segment.set(LONG_LAYOUT, 24, stringBytes);
+        // 内存中的副本不计算校验和
+
+        OffHeapGraph copy = new OffHeapGraph(segment, n, m);
+        int offset = 0;
+        for (int v = 0; v < n; v++) {
+            INTS.set(segment, copy.wordOffsets + v, offset);
+            MemorySegment.copy(encoded[v], 0, segment, ValueLayout.JAVA_BYTE,
+                    copy.strings + offset, encoded[v].length);
+            offset += encoded[v].length;
+        }
+        INTS.set(segment, copy.wordOffsets + n, offset);
+        Integer[] order = new Integer[n];
+        for (int v = 0; v < n; v++) {
+            order[v] = v;
+        }
+        // 与 GraphSnapshot 一样按 UTF-8 字节序排列
+        Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(encoded[a], encoded[b]));
+        for (int i = 0; i < n; i++) {
+            INTS.set(segment, copy.sortedIds + i, (int) order[i]);
+        }
+        copy.copyAdjacency(graph, true);
+        copy.copyAdjacency(graph, false);
+        return copy;
+    }
+
+    private void copyAdjacency(WordGraph graph, boolean outgoing) {
+        long offsetBase = outgoing ? offsets : inOffsets;
+        long nodeBase = outgoing ? targets : sources;
+        long weightBase = outgoing ? weights : inWeights;
+        int[] edge = {0};
+        for (int v = 0; v < nodeCount; v++) {
+            INTS.set(segment, offsetBase + v, edge[0]);
+            WordGraph.EdgeVisitor visitor = (node, weight) -> {
+                INTS.set(segment, nodeBase + edge[0], node);
+                INTS.set(segment, weightBase + edge[0], weight);
+                edge[0]++;
+            };
+            if (outgoing) {
+                graph.forEachSuccessor(v, visitor);
+            } else {
+                graph.forEachPredecessor(v, visitor);
+            }
+        }
+        INTS.set(segment, offsetBase + nodeCount, edge[0]);
+    }
+
+    /**
+     * 把 {@link GraphSnapshot} 文件整体映射为堆外的图，不校验数据.
+     * 页面按需从文件载入，由操作系统的页缓存管理，不占用 Java 堆。
+     *
+     * @param path  快照文件路径.
+     * @param arena 映射所属的 Arena，关闭时解除映射.
+     * @return 堆外的图.
+     * @throws IOException 如果文件不存在或格式不正确.
+     */
+    public static OffHeapGraph map(Path path, Arena arena) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < GraphSnapshot.HEADER_BYTES) {
+                throw new IOException("not a graph snapshot: " + path);
+            }
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    channel.size(), arena);
+            if (segment.get(INT_LAYOUT, 0) != GraphSnapshot.MAGIC) {
+                throw new IOException("not a graph snapshot: " + path);
+            }
+            int version = segment.get(INT_LAYOUT, 4);
+            if (version != GraphSnapshot.FORMAT_VERSION) {
+                throw new IOException("unsupported snapshot version " + version);
+            }
+            int nodeCount = segment.get(INT_LAYOUT, 8);
+            long edgeCount = segment.get(LONG_LAYOUT, 16);
+            long stringBytes = segment.get(LONG_LAYOUT, 24);
+            if (nodeCount < 0 || edgeCount < 0 || stringBytes < 0 || channel.size()
+                    != GraphSnapshot.expectedSize(nodeCount, edgeCount, stringBytes)) {
+                throw new IOException("truncated or corrupt snapshot: " + path);
+            }
+            return new OffHeapGraph(segment, nodeCount, edgeCount);
+        }
+    }
+
+    /**
+     * 图所在的内存段.
+     *
+     * @return 与快照文件格式相同的内存段.
+     */
+    public MemorySegment segment() {
+        return segment;
+    }
+
+    @Override
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    @Override
+    public long edgeCount() {
+        return edgeCount;
+    }
+
+    @Override
+    public int id(String word) {
+        // 查询词只编码一次，之后直接与段中的字节比较，不为每一步解码字符串
+        MemorySegment key = MemorySegment.ofArray(word.getBytes(StandardCharsets.UTF_8));
+        int low = 0;
+        int high = nodeCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int id = getInt(sortedIds + mid);
+            int cmp = compareWord(id, key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /** 按无符号字节序比较编号为 id 的单词与 key. */
+    private int compareWord(int id, MemorySegment key) {
+        long start = strings + getInt(wordOffsets + id);
+        long length = strings + getInt(wordOffsets + id + 1) - start;
+        long k = MemorySegment.mismatch(segment, start, start + length, key, 0, key.byteSize());
+        if (k < 0) {
+            return 0;
+        }
+        if (k == length || k == key.byteSize()) {
+            // 一个是另一个的前缀，短的在前
+            return Long.compare(length, key.byteSize());
+        }
+        return Byte.compareUnsigned(segment.get(ValueLayout.JAVA_BYTE, start + k),
+                key.get(ValueLayout.JAVA_BYTE, k));
+    }
+
+    @Override
+    public String word(int id) {
+        int start = getInt(wordOffsets + id);
+        byte[] bytes = new byte[getInt(wordOffsets + id + 1) - start];
+        MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, strings + start, bytes, 0,
+                bytes.length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int outDegree(int node) {
+        return getInt(offsets + node + 1) - getInt(offsets + node);
+    }
+
+    @Override
+    public int inDegree(int node) {
+        return getInt(inOffsets + node + 1) - getInt(inOffsets + node);
+    }
+
+    @Override
+    public void forEachSuccessor(int node, EdgeVisitor visitor) {
+        for (long e = getInt(offsets + node), end = getInt(offsets + node + 1); e < end; e++) {
+            visitor.visit(getInt(targets + e), getInt(weights + e));
+        }
+    }
+
+    @Override
+    public void forEachPredecessor(int node, EdgeVisitor visitor) {
+        for (long e = getInt(inOffsets + node), end = getInt(inOffsets + node + 1);
+                e < end; e++) {
+            visitor.visit(getInt(sources + e), getInt(inWeights + e));
+        }
+    }
+
+    @Override
+    public int edgeWeight(int from, int to) {
+        long low = getInt(offsets + from);
+        long high = getInt(offsets + from + 1) - 1L;
+        while (low <= high) {
+            long mid = (low + high) >>> 1;
+            int target = getInt(targets + mid);
+            if (target < to) {
+                low = mid + 1;
+            } else if (target > to) {
+                high = mid - 1;
+            } else {
+                return getInt(weights + mid);
+            }
+        }
+        return 0;
+    }
+}
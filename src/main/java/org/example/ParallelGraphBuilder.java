@@ -0,0 +1,165 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 基于 Fork/Join 的并行建图.
+ * 在空白处把文本切成若干块，每块在本地表中统计边，再两两合并并补上跨越块边界的那条边。
+ * 结果与 {@code processedText.split("\\s+")} 的顺序建图完全相同。
+ */
+final class ParallelGraphBuilder {
+    /** 每块的最小字符数，小于它时不再切分. */
+    static final int DEFAULT_MIN_CHUNK = 1 << 16;
+
+    private final ForkJoinPool pool;
+    private final int minChunk;
+
+    ParallelGraphBuilder(ForkJoinPool pool, int minChunk) {
+        this.pool = pool;
+        this.minChunk = minChunk;
+    }
+
+    /**
+     * 统计文本中所有单词及相邻单词构成的边.
+     *
+     * @param text 处理过的文本.
+     * @return 单词到其出边（目标单词 -> 权重）的映射，没有出边的单词对应空表.
+     */
+    Map<String, Map<String, int[]>> count(String text) {
+        List<Integer> cuts = cutPoints(text);
+        Chunk result = pool.invoke(new CountTask(text, cuts, 0, cuts.size() - 1));
+        if (result.first == null) {
+            // 与 split 一致：空字符串得到一个空单词，全空白字符串没有单词
+            if (text.isEmpty()) {
+                result.edges.put("", new HashMap<>());
+            }
+            return result.edges;
+        }
+        if (isSpace(text.charAt(0))) {
+            // 以空白开头时 split 会产生一个前导空单词
+            result.edges.computeIfAbsent("", k -> new HashMap<>())
+                    .computeIfAbsent(result.first, k -> new int[1])[0]++;
+        }
+        return result.edges;
+    }
+
+    /** 在空白字符处选取切分点，首尾分别为 0 和 text.length(). */
+    private List<Integer> cutPoints(String text) {
+        int parts = Math.max(1, pool.getParallelism() * 4);
+        int step = Math.max(minChunk, text.length() / parts + 1);
+        List<Integer> cuts = new ArrayList<>();
+        cuts.add(0);
+        int pos = step;
+        while (pos < text.length()) {
+            while (pos < text.length() && !isSpace(text.charAt(pos))) {
+                pos++;
+            }
+            if (pos < text.length()) {
+                cuts.add(pos);
+            }
+            pos += step;
+        }
+        cuts.add(text.length());
+        return cuts;
+    }
+
+    /** 与正则 {@code \s} 相同的空白字符. */
+    static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /** 一段文本的统计结果. */
+    private static final class Chunk {
+        String first;
+        String last;
+        Map<String, Map<String, int[]>> edges = new HashMap<>();
+    }
+
+    private static final class CountTask extends RecursiveTask<Chunk> {
+        private final String text;
+        private final List<Integer> cuts;
+        private final int lo;
+        private final int hi;
+
+        CountTask(String text, List<Integer> cuts, int lo, int hi) {
+            this.text = text;
+            this.cuts = cuts;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected Chunk compute() {
+            if (hi - lo <= 1) {
+                return countRange(cuts.get(lo), cuts.get(hi));
+            }
+            int mid = (lo + hi) >>> 1;
+            CountTask left = new CountTask(text, cuts, lo, mid);
+            left.fork();
+            Chunk right = new CountTask(text, cuts, mid, hi).compute();
+            return merge(left.join(), right);
+        }
+
+        private Chunk countRange(int start, int end) {
+            Chunk chunk = new Chunk();
+            Map<String, int[]> prevEdges = null;
+            int i = start;
+            while (i < end) {
+                while (i < end && isSpace(text.charAt(i))) {
+                    i++;
+                }
+                int wordStart = i;
+                while (i < end && !isSpace(text.charAt(i))) {
+                    i++;
+                }
+                if (wordStart == i) {
+                    break;
+                }
+                String word = text.substring(wordStart, i);
+                Map<String, int[]> edges = chunk.edges.computeIfAbsent(word, k -> new HashMap<>());
+                if (prevEdges != null) {
+                    prevEdges.computeIfAbsent(word, k -> new int[1])[0]++;
+                } else {
+                    chunk.first = word;
+                }
+                prevEdges = edges;
+                chunk.last = word;
+            }
+            return chunk;
+        }
+
+        private static Chunk merge(Chunk left, Chunk right) {
+            if (left.first == null) {
+                return right;
+            }
+            if (right.first == null) {
+                return left;
+            }
+            // 把较小的表合并进较大的表
+            Map<String, Map<String, int[]>> into = left.edges;
+            Map<String, Map<String, int[]>> from = right.edges;
+            if (into.size() < from.size()) {
+                into = right.edges;
+                from = left.edges;
+            }
+            for (Map.Entry<String, Map<String, int[]>> entry : from.entrySet()) {
+                Map<String, int[]> target = into.computeIfAbsent(entry.getKey(), k -> new HashMap<>());
+                for (Map.Entry<String, int[]> edge : entry.getValue().entrySet()) {
+                    target.computeIfAbsent(edge.getKey(), k -> new int[1])[0] += edge.getValue()[0];
+                }
+            }
+            // 跨越块边界的边
+            into.get(left.last).computeIfAbsent(right.first, k -> new int[1])[0]++;
+            Chunk merged = new Chunk();
+            merged.first = left.first;
+            merged.last = right.last;
+            merged.edges = into;
+            return merged;
+        }
+    }
+}
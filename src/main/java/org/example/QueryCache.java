@@ -0,0 +1,396 @@
+package org.example;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 有界的并发查询结果缓存，采用 W-TinyLFU 淘汰策略.
+ * 新条目先进入一个很小的 LRU 窗口（容量的 1%），从窗口淘汰的条目要与主区（分段 LRU：
+ * 试用段 20%，保护段 80%）中最久未用的条目比较近期访问频率，频率更高才能进入主区。
+ * 频率由 4 位计数的 Count-Min Sketch 估计，计数周期性减半，旧的热点会逐渐冷却。
+ * 这样少数高频的查询不会被大量只出现一次的查询冲刷出去，适合访问分布高度偏斜的负载。
+ *
+ * <p>键按哈希分到若干个分片，每个分片各自加锁；计算结果在锁外进行，同一个键可能被并发计算多次，
+ * 因此计算必须是无副作用的纯函数（缓存的都是不可变图上的查询结果）。
+ *
+ * @param <K> 键.
+ * @param <V> 值，不能为 null.
+ */
+public final class QueryCache<K, V> {
+    /** 每个分片至少容纳的条目数，容量较小时只用一个分片. */
+    private static final int MIN_SHARD_CAPACITY = 64;
+    private static final int MAX_SHARDS = 16;
+
+    /** {@link Key} 的操作编号：桥接词. */
+    public static final int BRIDGE_WORDS = 0;
+    /** {@link Key} 的操作编号：最短路径. */
+    public static final int SHORTEST_PATH = 1;
+
+    /**
+     * 由操作、单词对和图版本组成的键.
+     */
+    public static final class Key {
+        private final int operation;
+        private final String first;
+        private final String second;
+        private final long version;
+
+        /**
+         * 创建键.
+         *
+         * @param operation 区分不同查询的编号，如 {@link #BRIDGE_WORDS}.
+         * @param first     第一个单词.
+         * @param second    第二个单词.
+         * @param version   图的版本号.
+         */
+        public Key(int operation, String first, String second, long version) {
+            this.operation = operation;
+            this.first = first;
+            this.second = second;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return operation == other.operation && version == other.version
+                    && first.equals(other.first) && second.equals(other.second);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(operation, first, second, version);
+        }
+    }
+
+    /**
+     * 缓存统计.
+     */
+    public static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long size;
+
+        Stats(long hits, long misses, long evictions, long size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.size = size;
+        }
+
+        /**
+         * 命中次数.
+         *
+         * @return 命中次数.
+         */
+        public long hits() {
+            return hits;
+        }
+
+        /**
+         * 未命中次数.
+         *
+         * @return 未命中次数.
+         */
+        public long misses() {
+            return misses;
+        }
+
+        /**
+         * 因容量不足被淘汰或未被接纳的条目数.
+         *
+         * @return 淘汰数.
+         */
+        public long evictions() {
+            return evictions;
+        }
+
+        /**
+         * 当前条目数.
+         *
+         * @return 条目数.
+         */
+        public long size() {
+            return size;
+        }
+
+        /**
+         * 命中率.
+         *
+         * @return 0 到 1 之间；没有请求时为 0.
+         */
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0 : (double) hits / requests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "cache hits=%d misses=%d evictions=%d size=%d hitRate=%.3f",
+                    hits, misses, evictions, size, hitRate());
+        }
+    }
+
+    private final Shard<K, V>[] shards;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * 创建缓存.
+     *
+     * @param capacity 最多缓存的条目数，必须为正数.
+     */
+    @SuppressWarnings("unchecked")
+    public QueryCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be > 0: " + capacity);
+        }
+        int count = 1;
+        while (count < MAX_SHARDS && capacity / (count * 2) >= MIN_SHARD_CAPACITY) {
+            count *= 2;
+        }
+        shards = new Shard[count];
+        for (int i = 0; i < count; i++) {
+            // 余数分给前几个分片，总容量恰好为 capacity
+            shards[i] = new Shard<>(capacity / count + (i < capacity % count ? 1 : 0));
+        }
+    }
+
+    private Shard<K, V> shard(int hash) {
+        return shards[(hash ^ (hash >>> 16)) & (shards.length - 1)];
+    }
+
+    /**
+     * 取缓存的值，不存在时计算并尝试缓存.
+     *
+     * @param key    键.
+     * @param loader 计算值的纯函数，返回 null 时不缓存.
+     * @return 值.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        int hash = key.hashCode();
+        Shard<K, V> shard = shard(hash);
+        V value = shard.get(key, hash);
+        if (value != null) {
+            hits.increment();
+            return value;
+        }
+        misses.increment();
+        value = loader.apply(key);
+        if (value != null) {
+            evictions.add(shard.put(key, hash, value));
+        }
+        return value;
+    }
+
+    /**
+     * 取缓存的值，不计算.
+     *
+     * @param key 键.
+     * @return 值；不在缓存中时返回 null.
+     */
+    public V getIfPresent(K key) {
+        int hash = key.hashCode();
+        V value = shard(hash).get(key, hash);
+        (value != null ? hits : misses).increment();
+        return value;
+    }
+
+    /**
+     * 清空所有条目和频率统计，命中统计保留.
+     */
+    public void invalidateAll() {
+        for (Shard<K, V> shard : shards) {
+            shard.clear();
+        }
+    }
+
+    /**
+     * 当前条目数.
+     *
+     * @return 条目数.
+     */
+    public long size() {
+        long size = 0;
+        for (Shard<K, V> shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    /**
+     * 统计快照.
+     *
+     * @return 统计.
+     */
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), size());
+    }
+
+    /** 一个分片：窗口 LRU + 分段 LRU 主区 + 频率估计，所有操作在分片锁内进行. */
+    private static final class Shard<K, V> {
+        private final int windowCapacity;
+        private final int protectedCapacity;
+        private final int mainCapacity;
+        // 按访问顺序排列，迭代器的第一个元素是最久未用的
+        private final LinkedHashMap<K, V> window = new LinkedHashMap<>(16, 0.75f, true);
+        private final LinkedHashMap<K, V> probation = new LinkedHashMap<>(16, 0.75f, true);
+        private final LinkedHashMap<K, V> protectedSegment =
+                new LinkedHashMap<>(16, 0.75f, true);
+        private final FrequencySketch sketch;
+
+        Shard(int capacity) {
+            windowCapacity = Math.max(1, capacity / 100);
+            mainCapacity = Math.max(0, capacity - windowCapacity);
+            protectedCapacity = mainCapacity * 4 / 5;
+            sketch = new FrequencySketch(capacity);
+        }
+
+        synchronized V get(K key, int hash) {
+            sketch.increment(hash);
+            V value = window.get(key);
+            if (value != null) {
+                return value;
+            }
+            value = protectedSegment.get(key);
+            if (value != null) {
+                return value;
+            }
+            value = probation.remove(key);
+            if (value != null) {
+                // 试用段再次命中后升入保护段，保护段满时把最久未用的降回试用段
+                protectedSegment.put(key, value);
+                if (protectedSegment.size() > protectedCapacity) {
+                    Map.Entry<K, V> demoted = removeEldest(protectedSegment);
+                    probation.put(demoted.getKey(), demoted.getValue());
+                }
+            }
+            return value;
+        }
+
+        /** 加入新条目，返回被淘汰或未被接纳的条目数. */
+        synchronized int put(K key, int hash, V value) {
+            if (window.containsKey(key)) {
+                window.put(key, value);
+                return 0;
+            } else if (protectedSegment.containsKey(key)) {
+                protectedSegment.put(key, value);
+                return 0;
+            } else if (probation.containsKey(key)) {
+                probation.put(key, value);
+                return 0;
+            }
+            window.put(key, value);
+            if (window.size() <= windowCapacity) {
+                return 0;
+            }
+            Map.Entry<K, V> candidate = removeEldest(window);
+            if (probation.size() + protectedSegment.size() < mainCapacity) {
+                probation.put(candidate.getKey(), candidate.getValue());
+                return 0;
+            }
+            if (probation.isEmpty()) {
+                // 主区全在保护段时，先降一个条目作为淘汰对象
+                Map.Entry<K, V> demoted = removeEldest(protectedSegment);
+                if (demoted == null) {
+                    return 1;
+                }
+                probation.put(demoted.getKey(), demoted.getValue());
+            }
+            K victim = probation.keySet().iterator().next();
+            // TinyLFU 接纳：候选者的近期频率必须高于试用段中最久未用的条目
+            if (sketch.frequency(candidate.getKey().hashCode()) > sketch.frequency(
+                    victim.hashCode())) {
+                probation.remove(victim);
+                probation.put(candidate.getKey(), candidate.getValue());
+            }
+            return 1;
+        }
+
+        synchronized void clear() {
+            window.clear();
+            probation.clear();
+            protectedSegment.clear();
+            sketch.clear();
+        }
+
+        synchronized int size() {
+            return window.size() + probation.size() + protectedSegment.size();
+        }
+
+        private static <K, V> Map.Entry<K, V> removeEldest(LinkedHashMap<K, V> map) {
+            Iterator<Map.Entry<K, V>> it = map.entrySet().iterator();
+            if (!it.hasNext()) {
+                return null;
+            }
+            Map.Entry<K, V> eldest = new AbstractMap.SimpleImmutableEntry<>(it.next());
+            it.remove();
+            return eldest;
+        }
+    }
+
+    /** 4 行、每个计数 4 位的 Count-Min Sketch，累计加一次数达到 10 倍容量时所有计数减半. */
+    private static final class FrequencySketch {
+        private static final int[] SEEDS = {0x97cb3127, 0xb0d8c67d, 0x6f2a3c91, 0xc2b2ae35};
+        private static final int MAX_COUNT = 15;
+
+        private final byte[] counts;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int capacity) {
+            int size = Integer.highestOneBit(Math.max(16, capacity) - 1) << 1;
+            counts = new byte[size * SEEDS.length];
+            mask = size - 1;
+            sampleSize = 10 * Math.max(16, capacity);
+        }
+
+        private int index(int hash, int row) {
+            int h = (hash ^ (hash >>> 16)) * SEEDS[row];
+            h ^= h >>> 15;
+            return row * (mask + 1) + (h & mask);
+        }
+
+        void increment(int hash) {
+            for (int row = 0; row < SEEDS.length; row++) {
+                int i = index(hash, row);
+                if (counts[i] < MAX_COUNT) {
+                    counts[i]++;
+                }
+            }
+            if (++additions >= sampleSize) {
+                for (int i = 0; i < counts.length; i++) {
+                    counts[i] >>= 1;
+                }
+                additions /= 2;
+            }
+        }
+
+        int frequency(int hash) {
+            int min = MAX_COUNT;
+            for (int row = 0; row < SEEDS.length; row++) {
+                min = Math.min(min, counts[index(hash, row)]);
+            }
+            return min;
+        }
+
+        void clear() {
+            Arrays.fill(counts, (byte) 0);
+            additions = 0;
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package org.example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 本地 HTTP 查询服务.
+ * 图只加载一次，之后每个请求都在 {@link GraphStore} 当前发布的只读版本上执行，
+ * 导入新文档时查询不需要暂停；
+ * 每个请求由一个虚拟线程处理，阻塞 I/O 不占用平台线程，可以同时保持数千个连接。
+ *
+ * <p>接口（GET，参数为 URL 编码的查询字符串；generate 也接受 POST 请求体），结果均为 JSON：
+ * <pre>
+ * /bridge?word1=..&amp;word2=..            {"result":["..."]}
+ * /generate?text=..                      {"result":"..."}
+ * /path?start=..&amp;end=..                {"result":"..."}
+ * /paths?start=..&amp;end=..&amp;limit=..     {"count":..,"result":["...", ...]}
+ * /estimate?start=..&amp;end=..            {"result":..}
+ * /walks?count=..&amp;seed=..&amp;maxSteps=..  {"result":["...", ...]}
+ * /health                                {"result":"ok"}
+ * /metrics                               {"result":["图的规模", "各操作的延迟统计", ...]}
+ * POST /ingest?link=true|false           {"version":..,"words":..,"edges":..}
+ * </pre>
+ * /ingest 的请求体是一篇按 UTF-8 编码的原始文本，按 {@link Main#processText(String)} 的规则
+ * 处理后追加到图中。
+ * /paths 列出所有等长的最短路径（最多 limit 条，默认 10），count 是不受 limit 限制的总条数。
+ * /estimate 由路标距离表立即给出最短距离的下界，能证明不可达时为 null，距离表还没建好时返回 503。
+ * /path 的路径与 {@link BatchQueryRunner} 一样去掉了末尾的空格。
+ * 单词不在图中时返回 404，参数错误或查询字符串的 URL 编码不正确时返回 400，响应体为 {"error":"..."}。
+ */
+public final class QueryServer {
+    /** 单个 /walks 请求最多的游走次数. */
+    static final int MAX_WALKS = 10_000;
+    /** 单个 /paths 请求最多列出的路径数. */
+    static final int MAX_PATHS = 10_000;
+
+    private final GraphStore store;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * 创建服务，调用 {@link #start()} 后开始接受请求.
+     *
+     * @param store   图存储.
+     * @param address 监听地址，端口为 0 时由系统分配.
+     * @param backlog 等待接受的连接队列长度.
+     * @throws IOException 如果无法绑定地址.
+     */
+    public QueryServer(GraphStore store, InetSocketAddress address, int backlog)
+            throws IOException {
+        this.store = store;
+        this.server = HttpServer.create(address, backlog);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/bridge", exchange -> handle(exchange, this::bridge));
+        server.createContext("/generate", exchange -> handle(exchange, this::generate));
+        server.createContext("/path", exchange -> handle(exchange, this::path));
+        server.createContext("/paths", exchange -> handle(exchange, this::paths));
+        server.createContext("/estimate", exchange -> handle(exchange, this::estimate));
+        server.createContext("/walks", exchange -> handle(exchange, this::walks));
+        server.createContext("/health", exchange -> handle(exchange, params -> ok("ok")));
+        server.createContext("/metrics", exchange -> handle(exchange, params -> metrics()));
+        server.createContext("/ingest", this::ingest);
+    }
+
+    /**
+     * 开始接受请求.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * 停止服务.
+     *
+     * @param delaySeconds 等待正在处理的请求完成的最长秒数.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    /**
+     * 实际监听的端口.
+     *
+     * @return 端口.
+     */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /** 一个接口的处理逻辑：由参数得到响应. */
+    @FunctionalInterface
+    private interface Handler {
+        Response apply(Map<String, String> params);
+    }
+
+    /** 状态码与 JSON 响应体. */
+    private static final class Response {
+        final int status;
+        final String body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private static Response ok(String result) {
+        return new Response(200, Json.quote(new StringBuilder("{\"result\":"), result)
+                .append('}').toString());
+    }
+
+    private static Response ok(List<String> result) {
+        return new Response(200, Json.array(new StringBuilder("{\"result\":"), result)
+                .append('}').toString());
+    }
+
+    private static Response error(int status, String message) {
+        return new Response(status, Json.quote(new StringBuilder("{\"error\":"), message)
+                .append('}').toString());
+    }
+
+    private Response bridge(Map<String, String> params) {
+        String word1 = params.get("word1");
+        String word2 = params.get("word2");
+        if (word1 == null || word2 == null) {
+            return error(400, "usage: /bridge?word1=..&word2=..");
+        }
+        // 同一个请求内只读取一次当前版本
+        QueryService service = store.current().queries();
+        String missing = service.missingWords(word1, word2);
+        return missing != null ? error(404, missing) : ok(service.bridgeWords(word1, word2));
+    }
+
+    private Response generate(Map<String, String> params) {
+        String text = params.get("text");
+        return text == null ? error(400, "usage: /generate?text=..")
+                : ok(store.current().queries().generateNewText(text));
+    }
+
+    private Response path(Map<String, String> params) {
+        String start = params.get("start");
+        String end = params.get("end");
+        if (start == null || end == null) {
+            return error(400, "usage: /path?start=..&end=..");
+        }
+        QueryService service = store.current().queries();
+        String missing = service.missingWords(start, end);
+        return missing != null ? error(404, missing) : ok(service.shortestPath(start, end));
+    }
+
+    private Response paths(Map<String, String> params) {
+        String start = params.get("start");
+        String end = params.get("end");
+        int limit;
+        try {
+            limit = Integer.parseInt(params.getOrDefault("limit", "10"));
+        } catch (NumberFormatException e) {
+            limit = -1;
+        }
+        if (start == null || end == null || limit < 0) {
+            return error(400, "usage: /paths?start=..&end=..&limit=..");
+        }
+        if (limit > MAX_PATHS) {
+            return error(400, "limit must be between 0 and " + MAX_PATHS);
+        }
+        QueryService service = store.current().queries();
+        String missing = service.missingWords(start, end);
+        if (missing != null) {
+            return error(404, missing);
+        }
+        AllShortestPaths paths = service.allShortestPaths(start, end);
+        StringBuilder body = new StringBuilder("{\"count\":").append(paths.pathCount())
+                .append(",\"result\":");
+        return new Response(200, Json.array(body, paths.pathStrings(limit)).append('}').toString());
+    }
+
+    private Response estimate(Map<String, String> params) {
+        String start = params.get("start");
+        String end = params.get("end");
+        if (start == null || end == null) {
+            return error(400, "usage: /estimate?start=..&end=..");
+        }
+        QueryService service = store.current().queries();
+        String missing = service.missingWords(start, end);
+        if (missing != null) {
+            return error(404, missing);
+        }
+        long estimate = service.estimate(start, end);
+        if (estimate < 0) {
+            return error(503, "landmark index not ready");
+        }
+        return new Response(200, "{\"result\":"
+                + (estimate == Long.MAX_VALUE ? "null" : Long.toString(estimate)) + "}");
+    }
+
+    private Response walks(Map<String, String> params) {
+        long count;
+        long seed;
+        int maxSteps;
+        try {
+            count = Long.parseLong(params.getOrDefault("count", "1"));
+            seed = Long.parseLong(params.getOrDefault("seed", "0"));
+            maxSteps = Integer.parseInt(params.getOrDefault("maxSteps", "-1"));
+        } catch (NumberFormatException e) {
+            return error(400, "usage: /walks?count=..&seed=..&maxSteps=..");
+        }
+        if (count < 0 || count > MAX_WALKS) {
+            return error(400, "count must be between 0 and " + MAX_WALKS);
+        }
+        RandomWalker walker = store.current().walker();
+        String[] walks = new String[(int) count];
+        walker.walks(count, seed, maxSteps, false,
+                (index, path, length) -> walks[(int) index] = walker.toText(path, length));
+        return ok(Arrays.asList(walks));
+    }
+
+    private Response metrics() {
+        List<String> lines = new ArrayList<>();
+        GraphStore.Version version = store.current();
+        lines.add("version=" + version.number() + " "
+                + Metrics.GraphStats.of(version.graph()));
+        if (Metrics.isEnabled()) {
+            lines.addAll(Metrics.report());
+        }
+        lines.addAll(version.queries().cacheReport());
+        return ok(lines);
+    }
+
+    private void ingest(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            Response response;
+            if (!exchange.getRequestMethod().equals("POST")) {
+                response = error(405, "method not allowed: " + exchange.getRequestMethod());
+            } else {
+                try {
+                    boolean link = Boolean.parseBoolean(
+                            parse(exchange.getRequestURI().getRawQuery()).get("link"));
+                    String text;
+                    try (InputStream body = exchange.getRequestBody()) {
+                        text = TextNormalizer.normalizeUtf8(body.readAllBytes());
+                    }
+                    GraphStore.Version version = store.ingest(text, link);
+                    response = new Response(200, "{\"version\":" + version.number()
+                            + ",\"words\":" + version.graph().nodeCount()
+                            + ",\"edges\":" + version.graph().edgeCount() + "}");
+                } catch (MalformedQueryException e) {
+                    response = error(400, e.getMessage());
+                } catch (RuntimeException e) {
+                    response = error(500, e.toString());
+                }
+            }
+            send(exchange, response);
+        }
+    }
+
+    private static void handle(HttpExchange exchange, Handler handler) throws IOException {
+        try (exchange) {
+            Response response;
+            String method = exchange.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("POST")) {
+                response = error(405, "method not allowed: " + method);
+            } else {
+                try {
+                    Map<String, String> params = parse(exchange.getRequestURI().getRawQuery());
+                    if (method.equals("POST")) {
+                        try (InputStream body = exchange.getRequestBody()) {
+                            params.putIfAbsent("text", new String(body.readAllBytes(),
+                                    StandardCharsets.UTF_8).toLowerCase(Locale.ROOT));
+                        }
+                    }
+                    response = handler.apply(params);
+                } catch (MalformedQueryException e) {
+                    response = error(400, e.getMessage());
+                } catch (RuntimeException e) {
+                    response = error(500, e.toString());
+                }
+            }
+            send(exchange, response);
+        }
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /** 查询字符串的 URL 编码不正确，响应 400. */
+    private static final class MalformedQueryException extends IllegalArgumentException {
+        MalformedQueryException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    /**
+     * 解析 URL 编码的查询字符串，参数值转换为小写（图中的单词都是小写）.
+     * HttpServer 自己会拒绝大部分非法的请求行，这里仍然检查，不让异常越过 {@link #handle}。
+     *
+     * @throws MalformedQueryException 如果有不完整或非法的 % 转义.
+     */
+    static Map<String, String> parse(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            try {
+                params.put(URLDecoder.decode(key, StandardCharsets.UTF_8),
+                        URLDecoder.decode(value, StandardCharsets.UTF_8).toLowerCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new MalformedQueryException("malformed query string: " + pair, e);
+            }
+        }
+        return params;
+    }
+
+    /**
+     * 命令行入口.
+     * 用法：{@code QueryServer [--snapshot] [--port N] [--metrics] 图文件}，只监听本机回环地址；
+     * 加 --metrics 时 /metrics 同时报告各操作的延迟统计。
+     * 快照旁边有 {@link LandmarkIndex#pathFor 路标距离表}时一起加载，否则大图在后台建立。
+     *
+     * @param args 命令行参数.
+     * @throws IOException 如果读取图或绑定端口失败.
+     */
+    public static void main(String[] args) throws IOException {
+        boolean snapshot = false;
+        int port = 8080;
+        int i = 0;
+        for (; i < args.length && args[i].startsWith("--"); i++) {
+            switch (args[i]) {
+                case "--snapshot":
+                    snapshot = true;
+                    break;
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "--metrics":
+                    Metrics.setEnabled(true);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown option: " + args[i]);
+            }
+        }
+        if (args.length - i != 1) {
+            System.err.println("usage: QueryServer [--snapshot] [--port N] [--metrics] graph-file");
+            System.exit(2);
+        }
+        GraphStore store;
+        if (snapshot) {
+            Path path = Paths.get(args[i]);
+            GraphSnapshot graph = GraphSnapshot.open(path);
+            LandmarkIndex landmarks = null;
+            Path landmarkPath = LandmarkIndex.pathFor(path);
+            if (Files.exists(landmarkPath)) {
+                landmarks = LandmarkIndex.read(landmarkPath, graph);
+            }
+            store = new GraphStore(graph, landmarks);
+        } else {
+            store = new GraphStore();
+            store.ingestFile(Paths.get(args[i]), false);
+        }
+        WordGraph graph = store.current().graph();
+        QueryServer server = new QueryServer(store,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 4096);
+        server.start();
+        System.err.println("listening on http://localhost:" + server.port() + "/ ("
+                + graph.nodeCount() + " words, " + graph.edgeCount() + " edges)");
+    }
+}
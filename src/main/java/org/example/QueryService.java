@@ -0,0 +1,244 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 线程安全的只读查询入口.
+ * 与 {@link Main} 中的同名功能语义一致，但只读一个不可变的 {@link WordGraph}，
+ * 不打印也不读控制台，可以被任意多个线程同时调用；
+ * 最短路径引擎放在一个与 CPU 数相同大小的池中，查询时借出、用完归还，
+ * 避免每次查询（尤其是每个请求一个虚拟线程时）都分配与图大小成正比的数组；
+ * 引擎都被借出时后来的查询等待归还，而不是再分配新的。
+ * 可以选择缓存桥接词与最短路径的结果；图不可变，缓存不需要作废，新版本的图使用新的实例即可。
+ */
+public final class QueryService {
+    /** 每种查询默认缓存的结果数. */
+    public static final int DEFAULT_CACHE_SIZE = 10_000;
+
+    private final WordGraph graph;
+    private final TextExpander expander;
+    private final LandmarkIndex landmarks;
+    private final BlockingQueue<ShortestPathEngine> engines;
+    /** 已经创建的引擎数，不超过池的大小. */
+    private final AtomicInteger createdEngines = new AtomicInteger();
+    // 不缓存时为 null
+    private final QueryCache<QueryCache.Key, List<String>> bridgeCache;
+    private final QueryCache<QueryCache.Key, String> pathCache;
+
+    /**
+     * 创建不缓存结果的查询入口.
+     *
+     * @param graph 只读图.
+     */
+    public QueryService(WordGraph graph) {
+        this(graph, 0);
+    }
+
+    /**
+     * 创建查询入口.
+     *
+     * @param graph     只读图.
+     * @param cacheSize 桥接词和最短路径各自最多缓存的结果数，0 表示不缓存.
+     */
+    public QueryService(WordGraph graph, int cacheSize) {
+        this(graph, cacheSize, null);
+    }
+
+    /**
+     * 创建用路标距离表加速最短路径的查询入口.
+     *
+     * @param graph     只读图.
+     * @param cacheSize 桥接词和最短路径各自最多缓存的结果数，0 表示不缓存.
+     * @param landmarks 同一个图的路标距离表，为 null 时使用双向搜索.
+     */
+    public QueryService(WordGraph graph, int cacheSize, LandmarkIndex landmarks) {
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("cacheSize must be >= 0: " + cacheSize);
+        }
+        this.graph = graph;
+        this.expander = new TextExpander(graph);
+        this.landmarks = landmarks;
+        this.engines = new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+        this.bridgeCache = cacheSize == 0 ? null : new QueryCache<>(cacheSize);
+        this.pathCache = cacheSize == 0 ? null : new QueryCache<>(cacheSize);
+    }
+
+    /**
+     * 图.
+     *
+     * @return 查询所用的图.
+     */
+    public WordGraph graph() {
+        return graph;
+    }
+
+    /**
+     * 路标距离表.
+     *
+     * @return 距离表；没有时为 null.
+     */
+    public LandmarkIndex landmarks() {
+        return landmarks;
+    }
+
+    /**
+     * 单词不在图中时的提示，格式与 {@link Main#queryBridgeWords} 打印的相同.
+     *
+     * @param word1 第一个单词.
+     * @param word2 第二个单词.
+     * @return 提示；两个单词都在图中时返回 null.
+     */
+    public String missingWords(String word1, String word2) {
+        boolean missing1 = graph.id(word1) < 0;
+        boolean missing2 = graph.id(word2) < 0;
+        if (missing1 && missing2) {
+            return "No \"" + word1 + "\" and \"" + word2 + "\" in the graph !";
+        } else if (missing1) {
+            return "No \"" + word1 + "\" in the graph !";
+        } else if (missing2) {
+            return "No \"" + word2 + "\" in the graph !";
+        }
+        return null;
+    }
+
+    /**
+     * 查询桥接词.
+     *
+     * @param word1 第一个单词.
+     * @param word2 第二个单词.
+     * @return 不可修改的桥接词列表；任一单词不在图中时返回 null.
+     */
+    public List<String> bridgeWords(String word1, String word2) {
+        long start = Metrics.start();
+        List<String> bridges = bridgeCache == null ? findBridgeWords(word1, word2)
+                : bridgeCache.get(new QueryCache.Key(QueryCache.BRIDGE_WORDS, word1, word2, 0),
+                        key -> findBridgeWords(word1, word2));
+        Metrics.record(Metrics.Operation.BRIDGE_WORDS, start, word1, word2, 0);
+        return bridges;
+    }
+
+    private List<String> findBridgeWords(String word1, String word2) {
+        List<String> bridges = GraphQueries.bridgeWords(graph, word1, word2);
+        // 缓存的列表会被多个调用者共享
+        return bridges == null ? null : Collections.unmodifiableList(bridges);
+    }
+
+    /**
+     * 根据桥接词生成新文本.
+     *
+     * @param text 输入文本.
+     * @return 新文本.
+     */
+    public String generateNewText(String text) {
+        long start = Metrics.start();
+        String result = expander.expand(text);
+        Metrics.record(Metrics.Operation.GENERATE_TEXT, start, text, null, 0);
+        return result;
+    }
+
+    /**
+     * 计算最短路径.
+     *
+     * @param start 起始单词.
+     * @param end   终止单词.
+     * @return 以空格分隔的路径（没有 {@link Main#shortestPath(String, String)} 末尾的空格），
+     *         或 {@link GraphQueries#NO_PATH}.
+     */
+    public String shortestPath(String start, String end) {
+        long begin = Metrics.start();
+        int[] settled = {0}; //命中缓存时没有出堆的节点
+        // 先查缓存，未命中时才借用引擎
+        Function<QueryCache.Key, String> search = key -> {
+            ShortestPathEngine engine = borrowEngine();
+            try {
+                String result = engine.shortestPath(start, end);
+                settled[0] = engine.lastSettledCount();
+                return result.trim();
+            } finally {
+                engines.offer(engine);
+            }
+        };
+        String path = pathCache == null ? search.apply(null) : pathCache.get(
+                new QueryCache.Key(QueryCache.SHORTEST_PATH, start, end, 0), search);
+        Metrics.record(Metrics.Operation.SHORTEST_PATH, begin, start, end, settled[0]);
+        return path;
+    }
+
+    /** 取一个空闲的引擎；池未满时新建，否则等待其他查询归还. */
+    ShortestPathEngine borrowEngine() {
+        ShortestPathEngine engine = engines.poll();
+        if (engine != null) {
+            return engine;
+        }
+        int capacity = engines.remainingCapacity() + engines.size();
+        if (createdEngines.getAndUpdate(n -> n < capacity ? n + 1 : n) < capacity) {
+            return new ShortestPathEngine(graph, landmarks);
+        }
+        try {
+            return engines.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for a search engine", e);
+        }
+    }
+
+    /**
+     * 结果缓存的统计，每种查询一行.
+     *
+     * @return 统计；不缓存时为空列表.
+     */
+    public List<String> cacheReport() {
+        List<String> lines = new ArrayList<>();
+        if (bridgeCache != null) {
+            lines.add("bridgeWords " + bridgeCache.stats());
+            lines.add("shortestPath " + pathCache.stats());
+        }
+        return lines;
+    }
+
+    /**
+     * 计算所有等长的最短路径.
+     *
+     * @param start 起始单词.
+     * @param end   终止单词.
+     * @return 搜索结果，可以计数或惰性列出路径；任一单词不在图中时返回 null.
+     */
+    public AllShortestPaths allShortestPaths(String start, String end) {
+        long begin = Metrics.start();
+        AllShortestPaths paths = AllShortestPaths.compute(graph, start, end);
+        Metrics.record(Metrics.Operation.ALL_SHORTEST_PATHS, begin, start, end, 0);
+        return paths;
+    }
+
+    /**
+     * 不搜索、由路标距离表立即得到的距离估计，见 {@link LandmarkIndex#estimate}.
+     *
+     * @param start 起始单词.
+     * @param end   终止单词.
+     * @return 最短距离的下界，能证明不可达时为 Long.MAX_VALUE；
+     *         没有距离表或任一单词不在图中时返回 -1.
+     */
+    public long estimate(String start, String end) {
+        return landmarks == null ? -1 : landmarks.estimate(start, end);
+    }
+
+    /**
+     * 随机游走，相同的种子得到相同的路径.
+     *
+     * @param seed 随机种子.
+     * @return 以空格连接的游走路径.
+     */
+    public String randomWalk(long seed) {
+        long start = Metrics.start();
+        String walk = GraphQueries.randomWalk(graph, new Random(seed));
+        Metrics.record(Metrics.Operation.RANDOM_WALK, start, walk, null, 0);
+        return walk;
+    }
+}
@@ -0,0 +1,281 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.LongStream;
+
+/**
+ * 非交互式的批量随机游走引擎.
+ * 为每个节点预先构造别名表 (alias table)，按边权重成比例地以 O(1) 采样下一步；
+ * 用基本类型哈希集合记录走过的边编号，遇到重复的边或无出边的节点时停止（与 {@link Main#randomWalk()} 一致）。
+ * 第 i 次游走只使用由 (seed, i) 派生的 {@link SplittableRandom}，
+ * 因此结果与线程数和调度顺序无关，可以由种子复现。
+ *
+ * <p>构造完成后引擎只读，可被多个线程同时使用。
+ */
+public final class RandomWalker {
+
+    /**
+     * 游走结果的接收者.
+     */
+    @FunctionalInterface
+    public interface WalkSink {
+        /**
+         * 接收一次游走，并行执行时会被多个线程同时调用.
+         *
+         * @param index  游走序号.
+         * @param path   经过的节点编号，有效部分为 [0, length)；数组会被复用，不能保留引用.
+         * @param length 节点个数.
+         */
+        void accept(long index, int[] path, int length);
+    }
+
+    private final WordGraph graph;
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] probabilities;
+    private final int[] aliases;
+
+    /**
+     * 为图构造别名表.
+     *
+     * @param graph 只读图.
+     */
+    public RandomWalker(WordGraph graph) {
+        this.graph = graph;
+        int n = graph.nodeCount();
+        offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] = offsets[v] + graph.outDegree(v);
+        }
+        int edges = offsets[n];
+        targets = new int[edges];
+        probabilities = new double[edges];
+        aliases = new int[edges];
+        long[] rowWeights = new long[0];
+        int[] fill = new int[1];
+        for (int v = 0; v < n; v++) {
+            int degree = offsets[v + 1] - offsets[v];
+            if (rowWeights.length < degree) {
+                rowWeights = new long[Math.max(degree, rowWeights.length * 2)];
+            }
+            long[] row = rowWeights;
+            fill[0] = 0;
+            int base = offsets[v];
+            graph.forEachSuccessor(v, (next, weight) -> {
+                targets[base + fill[0]] = next;
+                row[fill[0]++] = weight;
+            });
+            buildAlias(row, degree, base);
+        }
+    }
+
+    /** Vose 别名法：把每行的权重整理成 degree 个等概率的桶，每个桶至多包含两个候选. */
+    private void buildAlias(long[] row, int degree, int base) {
+        if (degree == 0) {
+            return;
+        }
+        long total = 0;
+        for (int i = 0; i < degree; i++) {
+            total += row[i];
+        }
+        double[] scaled = new double[degree];
+        int[] small = new int[degree];
+        int[] large = new int[degree];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < degree; i++) {
+            scaled[i] = (double) row[i] * degree / total;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probabilities[base + less] = scaled[less];
+            aliases[base + less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // 剩余的桶（包括浮点误差造成的）概率为 1
+        while (largeCount > 0) {
+            int i = large[--largeCount];
+            probabilities[base + i] = 1.0;
+            aliases[base + i] = i;
+        }
+        while (smallCount > 0) {
+            int i = small[--smallCount];
+            probabilities[base + i] = 1.0;
+            aliases[base + i] = i;
+        }
+    }
+
+    /**
+     * 图.
+     *
+     * @return 引擎所用的图.
+     */
+    public WordGraph graph() {
+        return graph;
+    }
+
+    /**
+     * 按权重采样一条出边.
+     *
+     * @param node   节点编号，出度必须大于 0.
+     * @param random 随机数源.
+     * @return 边的编号（即在出边数组中的下标）.
+     */
+    int sampleEdge(int node, SplittableRandom random) {
+        int base = offsets[node];
+        int degree = offsets[node + 1] - base;
+        if (degree == 1) {
+            return base;
+        }
+        int slot = base + random.nextInt(degree);
+        return random.nextDouble() < probabilities[slot] ? slot : base + aliases[slot];
+    }
+
+    /**
+     * 执行一次游走.
+     *
+     * @param start    起点编号.
+     * @param random   随机数源.
+     * @param maxSteps 最多走的步数，小于 0 表示不限制.
+     * @return 经过的节点编号.
+     */
+    public int[] walk(int start, SplittableRandom random, int maxSteps) {
+        Walk walk = new Walk();
+        walk.run(start, random, maxSteps);
+        return Arrays.copyOf(walk.path, walk.length);
+    }
+
+    /**
+     * 并行执行多次游走，起点在所有节点中等概率选取.
+     * 第 i 次游走的结果只取决于 seed 和 i。
+     *
+     * @param count    游走次数.
+     * @param seed     随机种子.
+     * @param maxSteps 每次最多走的步数，小于 0 表示不限制.
+     * @param parallel 是否在公共 ForkJoinPool 上并行执行.
+     * @param sink     结果接收者.
+     */
+    public void walks(long count, long seed, int maxSteps, boolean parallel, WalkSink sink) {
+        if (graph.nodeCount() == 0) {
+            return;
+        }
+        LongStream indexes = LongStream.range(0, count);
+        if (parallel) {
+            indexes = indexes.parallel();
+        }
+        ThreadLocal<Walk> walks = ThreadLocal.withInitial(Walk::new);
+        indexes.forEach(index -> {
+            SplittableRandom random = new SplittableRandom(mix(seed, index));
+            Walk walk = walks.get();
+            walk.run(random.nextInt(graph.nodeCount()), random, maxSteps);
+            sink.accept(index, walk.path, walk.length);
+        });
+    }
+
+    /**
+     * 把游走路径转换为以空格连接的单词.
+     *
+     * @param path   节点编号.
+     * @param length 节点个数.
+     * @return 单词序列.
+     */
+    public String toText(int[] path, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(graph.word(path[i]));
+        }
+        return text.toString();
+    }
+
+    /** 由种子和序号派生互不相关的子种子（SplitMix64 的混合函数）. */
+    private static long mix(long seed, long index) {
+        long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /** 单线程复用的游走状态：路径缓冲区和走过的边集合. */
+    private final class Walk {
+        int[] path = new int[16];
+        int length;
+        private int[] table = new int[64];
+        private int used;
+
+        void run(int start, SplittableRandom random, int maxSteps) {
+            clearEdges();
+            length = 0;
+            int current = start;
+            append(current);
+            for (int step = 0; maxSteps < 0 || step < maxSteps; step++) {
+                if (offsets[current + 1] == offsets[current]) {
+                    break;
+                }
+                int edge = sampleEdge(current, random);
+                if (!addEdge(edge)) {
+                    break;
+                }
+                current = targets[edge];
+                append(current);
+            }
+        }
+
+        private void append(int node) {
+            if (length == path.length) {
+                path = Arrays.copyOf(path, length * 2);
+            }
+            path[length++] = node;
+        }
+
+        /** 开放寻址的整数集合，表中存放 edge + 1，0 表示空位. */
+        private boolean addEdge(int edge) {
+            if ((used + 1) * 2 > table.length) {
+                int[] old = table;
+                table = new int[old.length * 2];
+                used = 0;
+                for (int key : old) {
+                    if (key != 0) {
+                        insert(key);
+                    }
+                }
+            }
+            return insert(edge + 1);
+        }
+
+        private boolean insert(int key) {
+            int mask = table.length - 1;
+            int slot = (key * 0x9E3779B9) >>> 1 & mask;
+            while (table[slot] != 0) {
+                if (table[slot] == key) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = key;
+            used++;
+            return true;
+        }
+
+        private void clearEdges() {
+            if (used > 0) {
+                Arrays.fill(table, 0);
+                used = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * 点对点最短路径引擎.
+ * 使用整数节点编号、带降键的索引二叉堆和基本类型距离数组。
+ * 双向搜索同时从起点沿出边、从终点沿入边扩展，两侧堆顶距离之和不小于当前最优值时停止，
+ * 在大图上通常只会访问一小部分节点。
+ *
+ * <p>给出 {@link LandmarkIndex} 时改用单向的 A* 搜索，以路标距离表得到的下界作为启发函数，
+ * 搜索朝终点方向展开，能证明到达不了终点的节点直接跳过；启发函数是一致的，结果仍然是最短路径。
+ *
+ * <p>有多条等长的最短路径时，两种搜索返回同一条：从终点倒推，每一步取编号最小的、
+ * 位于最短路径上的前驱。为此松弛到距离相等的节点时改记编号更小的父节点；
+ * A* 在终点出堆后继续确定所有键不超过最短距离的节点，双向搜索相遇后正向再补一段搜索，
+ * 只展开可能位于最短路径上的节点，使最短路径上每个节点的所有前驱都已松弛过它。
+ * 结果只由图决定，与搜索方式、是否有距离表无关。
+ *
+ * <p>引擎在多次查询之间复用内部数组（以查询编号区分有效数据），每次查询的初始化开销
+ * 与访问的节点数成正比而不是与图的大小成正比。实例不是线程安全的，每个线程应使用各自的实例。
+ */
+public final class ShortestPathEngine {
+    private final WordGraph graph;
+    private final LandmarkIndex landmarks;
+    private final IndexedMinHeap forwardHeap;
+    private final IndexedMinHeap backwardHeap;
+    private final long[] forwardDistances;
+    private final long[] backwardDistances;
+    private final int[] forwardParents;
+    /** 节点在当前查询中被到达时记为 query，被确定（出堆）时记为 -query. */
+    private final int[] forwardStamps;
+    private final int[] backwardStamps;
+    private int query;
+
+    private long best;
+    private int meeting;
+    private int settled;
+
+    private int current;
+    private long currentDistance;
+    private final WordGraph.EdgeVisitor forwardRelax = this::relaxForward;
+    private final WordGraph.EdgeVisitor backwardRelax = this::relaxBackward;
+    private final WordGraph.EdgeVisitor landmarkRelax = this::relaxTowardTarget;
+    private final WordGraph.EdgeVisitor pathRelax = this::relaxOnShortestPath;
+    private int target;
+    /** 双向搜索结束时反向堆顶的距离，反向没有确定的节点到终点的距离不小于它. */
+    private long backwardFloor;
+
+    /**
+     * 为图创建双向搜索的引擎.
+     *
+     * @param graph 只读图.
+     */
+    public ShortestPathEngine(WordGraph graph) {
+        this(graph, null);
+    }
+
+    /**
+     * 为图创建引擎.
+     *
+     * @param graph     只读图.
+     * @param landmarks 同一个图的路标距离表；为 null 时使用双向搜索.
+     */
+    public ShortestPathEngine(WordGraph graph, LandmarkIndex landmarks) {
+        if (landmarks != null && landmarks.graph() != graph) {
+            throw new IllegalArgumentException("landmarks belong to a different graph");
+        }
+        int n = graph.nodeCount();
+        this.graph = graph;
+        this.landmarks = landmarks;
+        forwardHeap = new IndexedMinHeap(n);
+        backwardHeap = new IndexedMinHeap(n);
+        forwardDistances = new long[n];
+        backwardDistances = new long[n];
+        forwardParents = new int[n];
+        forwardStamps = new int[n];
+        backwardStamps = new int[n];
+    }
+
+    /**
+     * 图.
+     *
+     * @return 引擎所用的图.
+     */
+    public WordGraph graph() {
+        return graph;
+    }
+
+    /**
+     * 路标距离表.
+     *
+     * @return 距离表；使用双向搜索时为 null.
+     */
+    public LandmarkIndex landmarks() {
+        return landmarks;
+    }
+
+    /**
+     * 双向搜索最短路径.
+     *
+     * @param source 起点编号.
+     * @param target 终点编号.
+     * @return 路径上的节点编号；不可达时返回 null.
+     */
+    public int[] shortestPath(int source, int target) {
+        startQuery();
+        if (source == target) {
+            best = 0;
+            settled = 1;
+            return new int[] {source};
+        }
+        if (landmarks != null) {
+            return searchTowardTarget(source, target);
+        }
+        forwardParents[source] = -1;
+        reach(forwardStamps, forwardDistances, forwardHeap, source, 0);
+        reach(backwardStamps, backwardDistances, backwardHeap, target, 0);
+        while (!forwardHeap.isEmpty() && !backwardHeap.isEmpty()
+                && (best == Long.MAX_VALUE
+                    || forwardHeap.minKey() + backwardHeap.minKey() < best)) {
+            if (forwardHeap.minKey() <= backwardHeap.minKey()) {
+                current = forwardHeap.poll();
+                forwardStamps[current] = -query;
+                currentDistance = forwardDistances[current];
+                settled++;
+                graph.forEachSuccessor(current, forwardRelax);
+            } else {
+                current = backwardHeap.poll();
+                backwardStamps[current] = -query;
+                currentDistance = backwardDistances[current];
+                settled++;
+                graph.forEachPredecessor(current, backwardRelax);
+            }
+        }
+        if (meeting >= 0) {
+            completeForward();
+        }
+        forwardHeap.clear();
+        backwardHeap.clear();
+        return meeting < 0 ? null : forwardPath(target);
+    }
+
+    /**
+     * 相遇后继续正向搜索到距离 best 为止，使最短路径上的节点都有正确的距离和最小编号的父节点.
+     * 到终点距离的下界：反向已确定的节点用确定的距离，其余节点用反向堆顶的距离；
+     * 反向堆已空时其余节点到达不了终点。下界加上距离超过 best 的节点不在最短路径上，不再展开。
+     */
+    private void completeForward() {
+        backwardFloor = backwardHeap.isEmpty() ? Long.MAX_VALUE : backwardHeap.minKey();
+        while (!forwardHeap.isEmpty() && forwardHeap.minKey() < best) {
+            current = forwardHeap.poll();
+            forwardStamps[current] = -query;
+            currentDistance = forwardDistances[current];
+            settled++;
+            graph.forEachSuccessor(current, pathRelax);
+        }
+    }
+
+    private void relaxOnShortestPath(int next, int weight) {
+        long distance = currentDistance + weight;
+        if (!improvesForward(next, distance)) {
+            return;
+        }
+        long remaining = backwardStamps[next] == -query ? backwardDistances[next] : backwardFloor;
+        if (remaining == Long.MAX_VALUE || distance + remaining > best) {
+            return;
+        }
+        forwardParents[next] = current;
+        reach(forwardStamps, forwardDistances, forwardHeap, next, distance);
+    }
+
+    /**
+     * 正向松弛的公共部分：距离相等时改记编号更小的父节点.
+     *
+     * @return 距离更短、需要更新堆时为 true.
+     */
+    private boolean improvesForward(int next, long distance) {
+        int stamp = forwardStamps[next];
+        if (stamp != query && stamp != -query) {
+            return true;
+        }
+        if (distance == forwardDistances[next] && current < forwardParents[next]) {
+            forwardParents[next] = current;
+        }
+        return stamp == query && distance < forwardDistances[next];
+    }
+
+    /** 沿正向的父节点从 node 倒推到起点. */
+    private int[] forwardPath(int node) {
+        int length = 0;
+        for (int v = node; v >= 0; v = forwardParents[v]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int v = node; v >= 0; v = forwardParents[v]) {
+            path[--length] = v;
+        }
+        return path;
+    }
+
+    /**
+     * 以单词查询最短路径.
+     *
+     * @param start 起始单词.
+     * @param end   终止单词.
+     * @return 与 {@link Main#shortestPath(String, String)} 格式相同的路径，
+     *         或 {@link GraphQueries#NO_PATH}.
+     */
+    public String shortestPath(String start, String end) {
+        int source = graph.id(start);
+        int target = graph.id(end);
+        if (source < 0 || target < 0) {
+            return GraphQueries.NO_PATH;
+        }
+        int[] path = shortestPath(source, target);
+        if (path == null) {
+            return GraphQueries.NO_PATH;
+        }
+        StringBuilder result = new StringBuilder();
+        for (int node : path) {
+            result.append(graph.word(node)).append(' ');
+        }
+        return result.toString();
+    }
+
+    /**
+     * 上一次查询得到的最短距离.
+     *
+     * @return 距离；不可达时返回 Long.MAX_VALUE.
+     */
+    public long lastDistance() {
+        return best;
+    }
+
+    /**
+     * 上一次查询中确定（出堆）的节点数，用于衡量搜索范围.
+     *
+     * @return 节点数.
+     */
+    public int lastSettledCount() {
+        return settled;
+    }
+
+    /** A*：堆的键为距离加到终点距离的下界，下界借用反向搜索的数组按查询缓存. */
+    private int[] searchTowardTarget(int source, int target) {
+        this.target = target;
+        long bound = lowerBound(source);
+        if (bound == Long.MAX_VALUE) {
+            return null;
+        }
+        forwardStamps[source] = query;
+        forwardDistances[source] = 0;
+        forwardParents[source] = -1;
+        forwardHeap.insertOrDecrease(source, bound);
+        // 终点出堆后继续，直到堆顶的键超过最短距离：最短路径上的节点的键都不超过它
+        while (!forwardHeap.isEmpty() && (best == Long.MAX_VALUE || forwardHeap.minKey() <= best)) {
+            current = forwardHeap.poll();
+            forwardStamps[current] = -query;
+            settled++;
+            if (current == target) {
+                // 启发函数一致时终点出堆即得到最短距离
+                best = forwardDistances[target];
+                meeting = target;
+            }
+            currentDistance = forwardDistances[current];
+            graph.forEachSuccessor(current, landmarkRelax);
+        }
+        forwardHeap.clear();
+        return meeting < 0 ? null : forwardPath(target);
+    }
+
+    private long lowerBound(int node) {
+        if (backwardStamps[node] != query) {
+            backwardStamps[node] = query;
+            backwardDistances[node] = landmarks.lowerBound(node, target);
+        }
+        return backwardDistances[node];
+    }
+
+    private void relaxTowardTarget(int next, int weight) {
+        long distance = currentDistance + weight;
+        if (!improvesForward(next, distance)) {
+            return;
+        }
+        long bound = lowerBound(next);
+        if (bound == Long.MAX_VALUE) {
+            return;
+        }
+        forwardStamps[next] = query;
+        forwardDistances[next] = distance;
+        forwardParents[next] = current;
+        forwardHeap.insertOrDecrease(next, distance + bound);
+    }
+
+    private void startQuery() {
+        query++;
+        if (query == Integer.MAX_VALUE) {
+            // 查询编号用尽时重置标记
+            Arrays.fill(forwardStamps, 0);
+            Arrays.fill(backwardStamps, 0);
+            query = 1;
+        }
+        best = Long.MAX_VALUE;
+        meeting = -1;
+        settled = 0;
+    }
+
+    private void reach(int[] stamps, long[] distances, IndexedMinHeap heap,
+                       int node, long distance) {
+        stamps[node] = query;
+        distances[node] = distance;
+        heap.insertOrDecrease(node, distance);
+    }
+
+    private void relaxForward(int next, int weight) {
+        long distance = currentDistance + weight;
+        if (!improvesForward(next, distance)) {
+            return;
+        }
+        forwardParents[next] = current;
+        reach(forwardStamps, forwardDistances, forwardHeap, next, distance);
+        int other = backwardStamps[next];
+        if ((other == query || other == -query) && distance + backwardDistances[next] < best) {
+            best = distance + backwardDistances[next];
+            meeting = next;
+        }
+    }
+
+    private void relaxBackward(int previous, int weight) {
+        long distance = currentDistance + weight;
+        int stamp = backwardStamps[previous];
+        if (stamp == -query || (stamp == query && distance >= backwardDistances[previous])) {
+            return;
+        }
+        reach(backwardStamps, backwardDistances, backwardHeap, previous, distance);
+        int other = forwardStamps[previous];
+        if ((other == query || other == -query) && distance + forwardDistances[previous] < best) {
+            best = distance + forwardDistances[previous];
+            meeting = previous;
+        }
+    }
+}
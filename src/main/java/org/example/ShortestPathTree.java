@@ -0,0 +1,182 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * 单源最短路径树.
+ * 从一个起点运行一次 Dijkstra，记录每个节点的距离与父节点；
+ * 之后任意终点的路径都可以在 O(路径长度) 内读出，也可以一次遍历输出所有路径。
+ */
+public final class ShortestPathTree {
+    /** 不可达节点的距离. */
+    public static final long UNREACHABLE = Long.MAX_VALUE;
+
+    /**
+     * 路径访问者.
+     */
+    @FunctionalInterface
+    public interface PathVisitor {
+        /**
+         * 处理一条从起点出发的最短路径.
+         *
+         * @param target 终点编号.
+         * @param path   路径上的节点编号，有效部分为 [0, length)；数组会被复用，不能保留引用.
+         * @param length 路径上的节点个数.
+         */
+        void visit(int target, int[] path, int length);
+    }
+
+    private final WordGraph graph;
+    private final int source;
+    private final long[] distances;
+    private final int[] parents;
+
+    private ShortestPathTree(WordGraph graph, int source, long[] distances, int[] parents) {
+        this.graph = graph;
+        this.source = source;
+        this.distances = distances;
+        this.parents = parents;
+    }
+
+    /**
+     * 计算完整的最短路径树.
+     *
+     * @param graph  图.
+     * @param source 起点编号.
+     * @return 最短路径树.
+     */
+    public static ShortestPathTree compute(WordGraph graph, int source) {
+        int n = graph.nodeCount();
+        long[] distances = new long[n];
+        int[] parents = new int[n];
+        Arrays.fill(distances, UNREACHABLE);
+        Arrays.fill(parents, -1);
+        distances[source] = 0;
+        IndexedMinHeap heap = new IndexedMinHeap(n);
+        heap.insertOrDecrease(source, 0);
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            long base = distances[current];
+            graph.forEachSuccessor(current, (next, weight) -> {
+                long distance = base + weight;
+                if (distance < distances[next]) {
+                    distances[next] = distance;
+                    parents[next] = current;
+                    heap.insertOrDecrease(next, distance);
+                }
+            });
+        }
+        return new ShortestPathTree(graph, source, distances, parents);
+    }
+
+    /**
+     * 以单词为起点计算完整的最短路径树.
+     *
+     * @param graph 图.
+     * @param start 起始单词.
+     * @return 最短路径树；单词不在图中时返回 null.
+     */
+    public static ShortestPathTree compute(WordGraph graph, String start) {
+        int source = graph.id(start);
+        return source < 0 ? null : compute(graph, source);
+    }
+
+    /**
+     * 起点.
+     *
+     * @return 起点编号.
+     */
+    public int source() {
+        return source;
+    }
+
+    /**
+     * 到某节点的最短距离.
+     *
+     * @param target 终点编号.
+     * @return 距离；不可达时返回 {@link #UNREACHABLE}.
+     */
+    public long distance(int target) {
+        return distances[target];
+    }
+
+    /**
+     * 到某节点的最短路径.
+     *
+     * @param target 终点编号.
+     * @return 从起点到终点的节点编号；不可达时返回 null.
+     */
+    public int[] path(int target) {
+        if (distances[target] == UNREACHABLE) {
+            return null;
+        }
+        int length = 0;
+        for (int node = target; node >= 0; node = parents[node]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int node = target; node >= 0; node = parents[node]) {
+            path[--length] = node;
+        }
+        return path;
+    }
+
+    /**
+     * 到某单词的最短路径字符串.
+     *
+     * @param end 终止单词.
+     * @return 与 {@link Main#shortestPath(String, String)} 格式相同的路径，
+     *         或 {@link GraphQueries#NO_PATH}.
+     */
+    public String pathString(String end) {
+        int target = graph.id(end);
+        if (target < 0 || distances[target] == UNREACHABLE) {
+            return GraphQueries.NO_PATH;
+        }
+        return GraphQueries.formatPath(graph, parents, target);
+    }
+
+    /**
+     * 一次遍历输出起点到其他所有可达节点的最短路径.
+     * 在树上做深度优先遍历，当前路径就是栈中的节点，因此总开销与树的大小成正比，
+     * 不需要为每个终点重新回溯父节点。
+     *
+     * @param visitor 路径访问者.
+     */
+    public void forEachPath(PathVisitor visitor) {
+        int n = distances.length;
+        // 由父节点数组构造子节点 CSR
+        int[] childOffsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            if (parents[v] >= 0) {
+                childOffsets[parents[v] + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            childOffsets[v + 1] += childOffsets[v];
+        }
+        int[] children = new int[childOffsets[n]];
+        int[] fill = Arrays.copyOf(childOffsets, n);
+        for (int v = 0; v < n; v++) {
+            if (parents[v] >= 0) {
+                children[fill[parents[v]]++] = v;
+            }
+        }
+        int[] path = new int[n];
+        int[] nextChild = new int[n];
+        int depth = 0;
+        path[0] = source;
+        nextChild[0] = childOffsets[source];
+        while (depth >= 0) {
+            int node = path[depth];
+            if (nextChild[depth] < childOffsets[node + 1]) {
+                int child = children[nextChild[depth]++];
+                path[++depth] = child;
+                nextChild[depth] = childOffsets[child];
+                visitor.visit(child, path, depth + 1);
+            } else {
+                depth--;
+            }
+        }
+    }
+}
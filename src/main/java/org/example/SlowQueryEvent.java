@@ -0,0 +1,32 @@
+package org.example;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * 耗时超过阈值的查询的 JFR 事件.
+ * 查询结束后才知道是否慢，因此耗时记录在字段中而不是事件自身的时长
+ * （{@code duration} 是 {@link Event} 的内置字段，不能重名）。
+ */
+@Name("org.example.SlowQuery")
+@Label("Slow Query")
+@Category("Word Graph")
+@Description("A graph query that took longer than the configured threshold")
+final class SlowQueryEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Query")
+    String query;
+
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+
+    @Label("Settled Nodes")
+    long settledNodes;
+}
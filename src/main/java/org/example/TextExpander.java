@@ -0,0 +1,195 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * 流式的桥接词文本扩展.
+ * 与 {@link Main#generateNewText(String)} 的结果相同（桥接词按编号顺序），
+ * 但单遍线性处理输入、直接写到输出，且不向控制台打印。
+ * 输入按块读取并在空白处切分，因此可以处理无法放入内存的文件；
+ * 相邻块之间只依赖上一块的最后一个单词，可以并行扩展后按原顺序写出。
+ */
+public final class TextExpander {
+    /** 每块的字符数. */
+    static final int DEFAULT_CHUNK_CHARS = 1 << 16;
+
+    private final WordGraph graph;
+    private final int chunkChars;
+
+    /**
+     * 创建扩展器.
+     *
+     * @param graph 只读图.
+     */
+    public TextExpander(WordGraph graph) {
+        this(graph, DEFAULT_CHUNK_CHARS);
+    }
+
+    TextExpander(WordGraph graph, int chunkChars) {
+        this.graph = graph;
+        this.chunkChars = chunkChars;
+    }
+
+    /**
+     * 扩展一段文本.
+     *
+     * @param text 输入文本.
+     * @return 插入桥接词后的文本.
+     */
+    public String expand(String text) {
+        StringBuilder out = new StringBuilder(text.length() + text.length() / 4);
+        try {
+            expand(new StringReader(text), out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * 单线程流式扩展.
+     *
+     * @param in  输入.
+     * @param out 输出.
+     * @throws IOException 如果读写失败.
+     */
+    public void expand(Reader in, Appendable out) throws IOException {
+        expand(in, out, null, 0);
+    }
+
+    /**
+     * 并行流式扩展，输出顺序与输入一致.
+     *
+     * @param in          输入.
+     * @param out         输出.
+     * @param executor    执行各块扩展的线程池；为 null 时在当前线程执行.
+     * @param maxInFlight 同时在处理中的最大块数，用于限制内存.
+     * @throws IOException 如果读写失败.
+     */
+    public void expand(Reader in, Appendable out, ExecutorService executor, int maxInFlight)
+            throws IOException {
+        Deque<Future<CharSequence>> pending = new ArrayDeque<>();
+        char[] buffer = new char[chunkChars];
+        StringBuilder carry = new StringBuilder();
+        String previousWord = null;
+        boolean first = true;
+        boolean eof = false;
+        while (!eof) {
+            int read = in.read(buffer);
+            eof = read < 0;
+            if (!eof) {
+                carry.append(buffer, 0, read);
+            }
+            if (carry.length() == 0) {
+                continue;
+            }
+            if (first) {
+                // split("\\s+") 在以空白开头的文本前会产生一个空单词
+                previousWord = ParallelGraphBuilder.isSpace(carry.charAt(0)) ? "" : null;
+                first = false;
+            }
+            int cut = eof ? carry.length() : lastSpace(carry);
+            if (cut <= 0 && !eof) {
+                continue;
+            }
+            String chunk = carry.substring(0, cut);
+            carry.delete(0, cut);
+            String context = previousWord;
+            String last = lastWord(chunk);
+            if (last != null) {
+                previousWord = last;
+            }
+            if (executor == null) {
+                out.append(expandChunk(context, chunk));
+            } else {
+                while (pending.size() >= Math.max(1, maxInFlight)) {
+                    out.append(await(pending.poll()));
+                }
+                pending.add(executor.submit(() -> expandChunk(context, chunk)));
+            }
+        }
+        while (!pending.isEmpty()) {
+            out.append(await(pending.poll()));
+        }
+    }
+
+    /**
+     * 扩展一块文本.
+     *
+     * @param previousWord 此前最后一个单词，没有则为 null.
+     * @param chunk        以空白结尾（或位于输入末尾）的文本块.
+     * @return 该块的输出.
+     */
+    private CharSequence expandChunk(String previousWord, String chunk) {
+        StringBuilder out = new StringBuilder(chunk.length() + chunk.length() / 4);
+        String prev = previousWord;
+        int prevId = prev == null ? -1 : graph.id(prev);
+        int i = 0;
+        int n = chunk.length();
+        while (i < n) {
+            while (i < n && ParallelGraphBuilder.isSpace(chunk.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < n && !ParallelGraphBuilder.isSpace(chunk.charAt(i))) {
+                i++;
+            }
+            if (start == i) {
+                break;
+            }
+            String word = chunk.substring(start, i);
+            int id = graph.id(word);
+            if (prev != null) {
+                out.append(' ');
+                if (prevId >= 0 && id >= 0) {
+                    GraphQueries.forEachBridge(graph, prevId, id,
+                            bridge -> out.append(graph.word(bridge)).append(' '));
+                }
+            }
+            out.append(word);
+            prev = word;
+            prevId = id;
+        }
+        return out;
+    }
+
+    private static int lastSpace(CharSequence text) {
+        for (int i = text.length() - 1; i >= 0; i--) {
+            if (ParallelGraphBuilder.isSpace(text.charAt(i))) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static String lastWord(String chunk) {
+        int end = chunk.length();
+        while (end > 0 && ParallelGraphBuilder.isSpace(chunk.charAt(end - 1))) {
+            end--;
+        }
+        int start = end;
+        while (start > 0 && !ParallelGraphBuilder.isSpace(chunk.charAt(start - 1))) {
+            start--;
+        }
+        return start == end ? null : chunk.substring(start, end);
+    }
+
+    private static CharSequence await(Future<CharSequence> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while expanding text", e);
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package org.example;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * 文本清洗，结果与 {@link #normalizeScalar(String)}（{@link Main#processText(String)} 原来的实现）
+ * 逐字符相同：换行与 ASCII 标点变为空格，只保留字母和空白，转为小写，合并连续空格并去掉首尾空白.
+ *
+ * <p>直接处理 UTF-8 字节：纯 ASCII 的块用 {@code jdk.incubator.vector} 一次分类 32~64 个字节，
+ * 字母转小写、分隔符变为空格，再用 compress 去掉丢弃的字节和重复的空格；
+ * 含非 ASCII 字节或控制空白的块逐字节处理，其中非 ASCII 的一段解码后按 {@link Character} 的
+ * Unicode 规则判断。运行时没有加上 {@code --add-modules jdk.incubator.vector} 时只用逐字节的代码；
+ * 默认字符集不是 UTF-8，或者默认语言的小写规则与 ASCII 不同（土耳其语等）时退回原来的实现。
+ */
+public final class TextNormalizer {
+    /** 运行时是否加载了 Vector API 模块. */
+    static final boolean VECTOR_AVAILABLE =
+            ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private static final byte LETTER = 1;
+    /** 空格、换行以及被替换为空格的 ASCII 标点. */
+    private static final byte SEPARATOR = 2;
+    /** 原样保留的控制空白（\t、\u000B、\f、U+001C..U+001F）. */
+    private static final byte CONTROL_SPACE = 3;
+    /** 回车：后面紧跟换行时两者合起来是一个分隔符，否则原样保留. */
+    private static final byte CARRIAGE_RETURN = 4;
+
+    /** 其余为 0：丢弃的字节（数字、反斜杠、其他控制符）. */
+    private static final byte[] ASCII_CLASS = new byte[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            ASCII_CLASS[c] = LETTER;
+            ASCII_CLASS[c - 'a' + 'A'] = LETTER;
+        }
+        // 与原来的正则 [!"#$%&'()*+,-./:;<=>?@\[\]^_`{|}~] 一致，不含反斜杠
+        for (char c : " \n!\"#$%&'()*+,-./:;<=>?@[]^_`{|}~".toCharArray()) {
+            ASCII_CLASS[c] = SEPARATOR;
+        }
+        for (char c : "\t\u000B\f\u001C\u001D\u001E\u001F".toCharArray()) {
+            ASCII_CLASS[c] = CONTROL_SPACE;
+        }
+        ASCII_CLASS['\r'] = CARRIAGE_RETURN;
+    }
+
+    private final byte[] text;
+    /** 只处理 text 的前 length 个字节. */
+    private final int length;
+    private final byte[] out;
+    private int size;
+    /** 是否输出过非 ASCII 字符，需要在最后按 Unicode 规则转小写. */
+    private boolean nonAscii;
+
+    private TextNormalizer(byte[] text, int length) {
+        this.text = text;
+        this.length = length;
+        // 每个输出字节都对应至少一个输入字节，输出不会超过输入
+        this.out = new byte[length];
+    }
+
+    /**
+     * 清洗一段 UTF-8 文本，如有 Vector API 则使用向量化的代码.
+     *
+     * @param text 原始文本的字节，按默认字符集解码.
+     * @return 清洗后的文本.
+     */
+    public static String normalize(byte[] text) {
+        return normalize(text, VECTOR_AVAILABLE);
+    }
+
+    static String normalize(byte[] text, boolean vector) {
+        return normalize(text, text.length, vector);
+    }
+
+    /** 清洗 text 的前 length 个字节，供 {@link WordTokenizer} 按块处理文件而不复制数组. */
+    static String normalize(byte[] text, int length, boolean vector) {
+        if (!byteLevelSafe()) {
+            return normalizeScalar(new String(text, 0, length));
+        }
+        TextNormalizer normalizer = new TextNormalizer(text, length);
+        normalizer.run(vector && VECTOR_AVAILABLE);
+        return normalizer.result();
+    }
+
+    /**
+     * 清洗一段 UTF-8 文本，不管默认字符集是什么都按 UTF-8 解码，用于 HTTP 请求体.
+     *
+     * @param text UTF-8 编码的原始文本.
+     * @return 清洗后的文本.
+     */
+    static String normalizeUtf8(byte[] text) {
+        if (!asciiLowerSafe()) {
+            return normalizeScalar(new String(text, StandardCharsets.UTF_8));
+        }
+        TextNormalizer normalizer = new TextNormalizer(text, text.length);
+        normalizer.run(VECTOR_AVAILABLE);
+        return normalizer.result();
+    }
+
+    /** 逐字节处理要求 new String(bytes) 按 UTF-8 解码，且 ASCII 字母的小写与 toLowerCase() 相同. */
+    static boolean byteLevelSafe() {
+        return Charset.defaultCharset().equals(StandardCharsets.UTF_8) && asciiLowerSafe();
+    }
+
+    private static boolean asciiLowerSafe() {
+        String lang = Locale.getDefault().getLanguage();
+        return !lang.equals("tr") && !lang.equals("az");
+    }
+
+    /**
+     * 原来的逐字符实现，作为默认字符集或语言不适合逐字节处理时的退路，也是测试的参照.
+     *
+     * @param text 原始文本.
+     * @return 清洗后的文本.
+     */
+    public static String normalizeScalar(String text) {
+        StringBuilder cleanedText = new StringBuilder();
+
+        // 将换行/回车符替换为空格
+        text = text.replaceAll("\\r?\\n", " ");
+
+        // 将标点符号替换为空格
+        String punctuationRegex = "[!\"#$%&'()*+,-./:;<=>?@\\[\\]^_`{|}~]";
+        text = text.replaceAll(punctuationRegex, " ");
+
+        // 删除非字母字符
+        for (char c : text.toCharArray()) {
+            if (Character.isLetter(c) || Character.isWhitespace(c)) {
+                cleanedText.append(c);
+            }
+        }
+        // 将所有大写字母转换为小写
+        cleanedText = new StringBuilder(cleanedText.toString().toLowerCase());
+        // 将多个连续空格替换为单个空格
+        return cleanedText.toString().replaceAll(" +", " ").trim();
+    }
+
+    private void run(boolean vector) {
+        int block = vector ? VectorKernel.LENGTH : length;
+        int i = 0;
+        while (i < length) {
+            if (vector) {
+                i = VectorKernel.run(this, i);
+            }
+            // 向量代码处理不了的块逐字节处理；非 ASCII 的一段可能越过块的末尾
+            int blockEnd = Math.min(length, i + block);
+            while (i < blockEnd) {
+                i = text[i] >= 0 ? ascii(i) : unicode(i);
+            }
+        }
+    }
+
+    private byte last() {
+        // 开头的空格最终会被去掉，当作前面已经有一个空格
+        return size == 0 ? (byte) ' ' : out[size - 1];
+    }
+
+    private int ascii(int i) {
+        byte b = text[i];
+        switch (ASCII_CLASS[b]) {
+            case LETTER:
+                out[size++] = (byte) (b | 0x20);
+                break;
+            case CARRIAGE_RETURN:
+                if (i + 1 < length && text[i + 1] == '\n') {
+                    separator();
+                    return i + 2;
+                }
+                out[size++] = b;
+                break;
+            case SEPARATOR:
+                separator();
+                break;
+            case CONTROL_SPACE:
+                out[size++] = b;
+                break;
+            default:
+                // 丢弃
+                break;
+        }
+        return i + 1;
+    }
+
+    private void separator() {
+        if (last() != ' ') {
+            out[size++] = ' ';
+        }
+    }
+
+    /** 解码到下一个 ASCII 字节为止；UTF-8 的多字节序列中不会出现 ASCII 字节. */
+    private int unicode(int i) {
+        int end = i + 1;
+        while (end < length && text[end] < 0) {
+            end++;
+        }
+        String decoded = new String(text, i, end - i, StandardCharsets.UTF_8);
+        for (int k = 0; k < decoded.length(); k++) {
+            char c = decoded.charAt(k);
+            // 代理对不是字母，与原来逐个 char 判断一样被丢弃；保留的字符重新编码后长度不变
+            if (Character.isLetter(c) || Character.isWhitespace(c)) {
+                if (c < 0x800) {
+                    out[size++] = (byte) (0xC0 | c >> 6);
+                } else {
+                    out[size++] = (byte) (0xE0 | c >> 12);
+                    out[size++] = (byte) (0x80 | c >> 6 & 0x3F);
+                }
+                out[size++] = (byte) (0x80 | c & 0x3F);
+                nonAscii = true;
+            }
+        }
+        return end;
+    }
+
+    private String result() {
+        int start = 0;
+        int end = size;
+        while (start < end && (out[start] & 0xFF) <= ' ') {
+            start++;
+        }
+        while (end > start && (out[end - 1] & 0xFF) <= ' ') {
+            end--;
+        }
+        String result = new String(out, start, end - start, StandardCharsets.UTF_8);
+        // ASCII 字母已经是小写，再按 Unicode 规则转一次不会改变它们，也不影响词尾 sigma 的判断
+        return nonAscii ? result.toLowerCase() : result;
+    }
+
+    /** 只在 {@link #VECTOR_AVAILABLE} 时加载，没有该模块时不会触及 Vector API 的类. */
+    private static final class VectorKernel {
+        static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+        static final int LENGTH = SPECIES.length();
+
+        /**
+         * 处理连续的纯 ASCII、且除换行外不含控制符的块.
+         *
+         * @return 停下的位置：剩余不足一块，或者该块需要逐字节处理.
+         */
+        static int run(TextNormalizer normalizer, int i) {
+            byte[] text = normalizer.text;
+            byte[] out = normalizer.out;
+            int size = normalizer.size;
+            while (i + LENGTH <= normalizer.length) {
+                ByteVector v = ByteVector.fromArray(SPECIES, text, i);
+                // 有符号比较下非 ASCII 字节是负数，与控制符一起判出
+                if (v.lt((byte) ' ').andNot(v.eq((byte) '\n')).anyTrue()) {
+                    break;
+                }
+                // 大写字母或上 0x20 即为小写，其他字节或上 0x20 后不会落入 a..z
+                ByteVector folded = v.or((byte) 0x20);
+                VectorMask<Byte> letter = between(folded, 'a', 'z');
+                // 空格、换行和 ASCII 标点，不含反斜杠
+                VectorMask<Byte> separator = v.compare(VectorOperators.LE, (byte) '/')
+                        .or(between(v, ':', '@'))
+                        .or(between(v, '[', '`').andNot(v.eq((byte) '\\')))
+                        .or(between(v, '{', '~'));
+                VectorMask<Byte> kept = letter.or(separator);
+                // 先去掉丢弃的字节，再去掉前一个输出字节也是空格的空格
+                ByteVector packed = folded.blend((byte) ' ', separator).compress(kept);
+                VectorMask<Byte> valid = SPECIES.indexInRange(0, kept.trueCount());
+                byte previous = size == 0 ? (byte) ' ' : out[size - 1];
+                ByteVector shifted = ByteVector.broadcast(SPECIES, previous)
+                        .slice(LENGTH - 1, packed);
+                VectorMask<Byte> duplicate = packed.eq((byte) ' ')
+                        .and(shifted.eq((byte) ' '));
+                VectorMask<Byte> emit = valid.andNot(duplicate);
+                // size 不超过 i，整块写入不会越界
+                packed.compress(emit).intoArray(out, size);
+                size += emit.trueCount();
+                i += LENGTH;
+            }
+            normalizer.size = size;
+            return i;
+        }
+
+        private static VectorMask<Byte> between(ByteVector v, char low, char high) {
+            return v.compare(VectorOperators.GE, (byte) low)
+                    .and(v.compare(VectorOperators.LE, (byte) high));
+        }
+    }
+}
@@ -6,9 +6,11 @@ import java.util.Map;
 public class Type {
     String word;
     Map<Type, Integer> outgoingEdges;
+    Map<Type, Integer> incomingEdges; //入边索引，与outgoingEdges同步更新
 
     Type(String word) {
         this.word = word;
         outgoingEdges = new HashMap<>();
+        incomingEdges = new HashMap<>();
     }
 }
\ No newline at end of file
@@ -0,0 +1,93 @@
+package org.example;
+
+/**
+ * 只读的单词有向图.
+ * 单词用 0..nodeCount()-1 的整数编号表示，查询算法只依赖这里的接口，不关心底层存储方式。
+ */
+public interface WordGraph {
+
+    /**
+     * 访问一条边.
+     */
+    @FunctionalInterface
+    interface EdgeVisitor {
+        /**
+         * 处理一条边.
+         *
+         * @param node   边另一端的节点编号.
+         * @param weight 边的权重.
+         */
+        void visit(int node, int weight);
+    }
+
+    /**
+     * 节点数.
+     *
+     * @return 图中不同单词的个数.
+     */
+    int nodeCount();
+
+    /**
+     * 边数.
+     *
+     * @return 图中有向边的条数.
+     */
+    long edgeCount();
+
+    /**
+     * 查找单词的编号.
+     *
+     * @param word 单词.
+     * @return 单词编号；单词不在图中时返回 -1.
+     */
+    int id(String word);
+
+    /**
+     * 查找编号对应的单词.
+     *
+     * @param id 单词编号.
+     * @return 单词.
+     */
+    String word(int id);
+
+    /**
+     * 出度.
+     *
+     * @param node 节点编号.
+     * @return 节点的出边条数.
+     */
+    int outDegree(int node);
+
+    /**
+     * 入度.
+     *
+     * @param node 节点编号.
+     * @return 节点的入边条数.
+     */
+    int inDegree(int node);
+
+    /**
+     * 按目标编号递增的顺序访问节点的所有出边.
+     *
+     * @param node    节点编号.
+     * @param visitor 出边访问者，参数为目标节点和权重.
+     */
+    void forEachSuccessor(int node, EdgeVisitor visitor);
+
+    /**
+     * 按来源编号递增的顺序访问节点的所有入边.
+     *
+     * @param node    节点编号.
+     * @param visitor 入边访问者，参数为来源节点和权重.
+     */
+    void forEachPredecessor(int node, EdgeVisitor visitor);
+
+    /**
+     * 查询一条边的权重.
+     *
+     * @param from 来源节点编号.
+     * @param to   目标节点编号.
+     * @return 边的权重；边不存在时返回 0.
+     */
+    int edgeWeight(int from, int to);
+}
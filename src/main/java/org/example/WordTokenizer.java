@@ -0,0 +1,366 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * 流式分词器.
+ * 以内存映射的方式分块读取文件，单遍输出与 {@code Main.processText(path).split("\\s+")}
+ * 完全相同的小写单词序列，不再构造整篇文本的中间字符串.
+ *
+ * <p>默认字符集为 UTF-8 时按块读入字节，交给 {@link TextNormalizer} 的（向量化）代码清洗后
+ * 再切分；块在"字母 + 空格或换行 + 字母"处切开，保证分块清洗与整篇清洗得到相同的单词。
+ * 其他字符集或土耳其语等语言环境下逐字符解码分类。
+ */
+public final class WordTokenizer implements Closeable {
+    /** 每次映射的最大字节数. */
+    static final int DEFAULT_CHUNK_BYTES = 16 << 20;
+
+    /** 丢弃的字符（数字、控制符、非字母符号）. */
+    private static final byte DROP = 0;
+    /** 组成单词的字符. */
+    private static final byte KEEP = 1;
+    /** 分隔符：{@code \s} 中的空白以及被替换为空格的 ASCII 标点（不含反斜杠）. */
+    private static final byte SEPARATOR = 2;
+    /** 会被 {@code trim()} 去掉、但在文本中间仍留在单词里的控制空白 (U+001C..U+001F). */
+    private static final byte LOW_KEEP = 3;
+
+    private static final byte[] ASCII_CLASS = new byte[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            ASCII_CLASS[c] = KEEP;
+            ASCII_CLASS[c - 'a' + 'A'] = KEEP;
+        }
+        for (char c : " \t\n\u000B\f\r".toCharArray()) {
+            ASCII_CLASS[c] = SEPARATOR;
+        }
+        // 与 TextNormalizer 一致，反斜杠不是分隔符而是被丢弃
+        for (char c : "!\"#$%&'()*+,-./:;<=>?@[]^_`{|}~".toCharArray()) {
+            ASCII_CLASS[c] = SEPARATOR;
+        }
+        for (char c = '\u001C'; c <= '\u001F'; c++) {
+            ASCII_CLASS[c] = LOW_KEEP;
+        }
+    }
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final int chunkBytes;
+    private final CharsetDecoder decoder;
+    private final boolean asciiLowerSafe;
+    /** 是否按字节分块交给 {@link TextNormalizer}. */
+    private final boolean byteLevel;
+
+    /** 字节模式下下一块在文件中的起始位置. */
+    private long blockOffset;
+    /** 字节模式下上一块切分点之后尚未清洗的字节. */
+    private byte[] carry = new byte[0];
+
+    private ByteBuffer bytes;
+    private long bytesBase;
+    private boolean endOfInput;
+    private boolean flushed;
+    private final CharBuffer chars = CharBuffer.allocate(8192);
+
+    private final StringBuilder token = new StringBuilder();
+    private boolean tokenAscii = true;
+    /** 最近一个可见字符之后的 {@code <= ' '} 字符，只有后面还有可见字符时才生效（模拟 trim）. */
+    private final StringBuilder pendingLow = new StringBuilder();
+    private boolean started;
+    private boolean emittedAny;
+    private boolean finished;
+    private final ArrayDeque<String> ready = new ArrayDeque<>();
+
+    /**
+     * 创建分词器.
+     *
+     * @param chunkBytes 每次映射的字节数，至少为 16（需容纳一个完整的多字节字符）.
+     */
+    WordTokenizer(Path path, int chunkBytes) throws IOException {
+        this(path, chunkBytes, TextNormalizer.byteLevelSafe());
+    }
+
+    /**
+     * 创建分词器.
+     *
+     * @param chunkBytes 每次映射的字节数，至少为 16（需容纳一个完整的多字节字符）.
+     * @param byteLevel 是否按字节分块交给 {@link TextNormalizer}，要求默认字符集为 UTF-8.
+     */
+    WordTokenizer(Path path, int chunkBytes, boolean byteLevel) throws IOException {
+        this.byteLevel = byteLevel;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.chunkBytes = chunkBytes;
+        // 与 new String(bytes) 一致：默认字符集，非法字节替换为 U+FFFD（随后作为非字母被丢弃）
+        this.decoder = Charset.defaultCharset().newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        String lang = Locale.getDefault().getLanguage();
+        this.asciiLowerSafe = !lang.equals("tr") && !lang.equals("az");
+        this.bytes = ByteBuffer.allocate(0);
+        this.chars.flip();
+    }
+
+    /**
+     * 打开文件并创建分词器.
+     *
+     * @param path 文本文件路径.
+     * @return 分词器，使用完毕后需要关闭.
+     * @throws IOException 如果打开文件失败.
+     */
+    public static WordTokenizer open(Path path) throws IOException {
+        return new WordTokenizer(path, DEFAULT_CHUNK_BYTES);
+    }
+
+    /**
+     * 依次把文件中的每个单词交给 sink.
+     *
+     * @param path 文本文件路径.
+     * @param sink 单词消费者.
+     * @throws IOException 如果读取文件失败.
+     */
+    public static void forEachWord(Path path, Consumer<String> sink) throws IOException {
+        try (WordTokenizer tokenizer = open(path)) {
+            for (String word = tokenizer.nextWord(); word != null; word = tokenizer.nextWord()) {
+                sink.accept(word);
+            }
+        }
+    }
+
+    /**
+     * 读取下一个单词.
+     *
+     * @return 下一个单词；文件结束时返回 null.
+     * @throws IOException 如果读取文件失败.
+     */
+    public String nextWord() throws IOException {
+        if (byteLevel) {
+            while (ready.isEmpty() && !finished) {
+                normalizeNextBlock();
+            }
+            return ready.poll();
+        }
+        while (ready.isEmpty() && !finished) {
+            if (!chars.hasRemaining() && !fillChars()) {
+                finish();
+                break;
+            }
+            while (ready.isEmpty() && chars.hasRemaining()) {
+                accept(chars.get());
+            }
+        }
+        return ready.poll();
+    }
+
+    /** 读入下一块字节，清洗到块内最后一个切分点为止，切分点之后的字节留给下一块. */
+    private void normalizeNextBlock() throws IOException {
+        // 找不到切分点时块按倍数增长，很长的单词也只需线性次数的复制
+        int length = (int) Math.min(fileSize - blockOffset, Math.max(chunkBytes, carry.length));
+        byte[] block = Arrays.copyOf(carry, carry.length + length);
+        if (length > 0) {
+            channel.map(FileChannel.MapMode.READ_ONLY, blockOffset, length)
+                    .get(block, carry.length, length);
+            blockOffset += length;
+        }
+        boolean last = blockOffset >= fileSize;
+        int cut = last ? block.length : lastCut(block);
+        if (cut < 0) {
+            carry = block;
+            return;
+        }
+        split(TextNormalizer.normalize(block, cut, TextNormalizer.VECTOR_AVAILABLE));
+        carry = Arrays.copyOfRange(block, cut, block.length);
+        if (last) {
+            finish();
+        }
+    }
+
+    /**
+     * 块内最后一个切分点：紧跟在空格或换行之后，且前后都是字母.
+     * 两侧清洗后分别以字母结尾和开头，trim 不会去掉留在单词里的控制空白，
+     * 分开清洗再切分与整篇清洗后切分得到的单词相同.
+     *
+     * @return 切分点；没有时返回 -1.
+     */
+    private static int lastCut(byte[] block) {
+        for (int i = block.length - 1; i >= 2; i--) {
+            if ((block[i - 1] == ' ' || block[i - 1] == '\n')
+                    && letterLength(block, i, block.length) > 0 && letterEndsAt(block, i - 1)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean letterEndsAt(byte[] bytes, int end) {
+        int start = end - 1;
+        // 清洗时保留的字母都在 BMP 内，UTF-8 编码最多 3 个字节
+        while (start > 0 && end - start < 3 && (bytes[start] & 0xC0) == 0x80) {
+            start--;
+        }
+        return letterLength(bytes, start, end) == end - start;
+    }
+
+    /** start 处完整的一个字母占用的字节数；不是字母、编码非法或超出 end 时返回 0. */
+    private static int letterLength(byte[] bytes, int start, int end) {
+        int b = bytes[start] & 0xFF;
+        if (b < 128) {
+            return ASCII_CLASS[b] == KEEP ? 1 : 0;
+        }
+        int length = b >= 0xF0 ? 4 : b >= 0xE0 ? 3 : b >= 0xC0 ? 2 : 0;
+        if (length == 0 || start + length > end) {
+            return 0;
+        }
+        String decoded = new String(bytes, start, length, StandardCharsets.UTF_8);
+        return decoded.length() == 1 && Character.isLetter(decoded.charAt(0)) ? length : 0;
+    }
+
+    /** 按 {@code \s} 切分清洗后的文本. */
+    private void split(String text) {
+        int start = 0;
+        for (int i = 0; i <= text.length(); i++) {
+            if (i == text.length() || isSpace(text.charAt(i))) {
+                if (i > start) {
+                    ready.add(text.substring(start, i));
+                    emittedAny = true;
+                }
+                start = i + 1;
+            }
+        }
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private void accept(char c) {
+        byte cls;
+        if (c < 128) {
+            cls = ASCII_CLASS[c];
+        } else if (Character.isLetter(c)) {
+            cls = KEEP;
+        } else if (Character.isWhitespace(c)) {
+            // 非 \s 的 Unicode 空白会保留在单词中（buildGraph 只按 \s 切分）
+            cls = KEEP;
+        } else {
+            cls = DROP;
+        }
+        if (cls == DROP) {
+            return;
+        }
+        if (cls == KEEP) {
+            if (!started) {
+                started = true;
+            } else if (pendingLow.length() > 0) {
+                flushPendingLow();
+            }
+            appendToToken(c);
+        } else if (started) {
+            pendingLow.append(c);
+        }
+    }
+
+    private void flushPendingLow() {
+        for (int i = 0; i < pendingLow.length(); i++) {
+            char c = pendingLow.charAt(i);
+            if (ASCII_CLASS[c] == SEPARATOR) {
+                endToken();
+            } else {
+                appendToToken(c);
+            }
+        }
+        pendingLow.setLength(0);
+    }
+
+    private void appendToToken(char c) {
+        if (c < 128) {
+            if (c >= 'A' && c <= 'Z' && asciiLowerSafe) {
+                c = (char) (c + ('a' - 'A'));
+            } else if (c >= 'A' && c <= 'Z') {
+                tokenAscii = false;
+            }
+        } else {
+            tokenAscii = false;
+        }
+        token.append(c);
+    }
+
+    private void endToken() {
+        if (token.length() == 0) {
+            return;
+        }
+        String word = token.toString();
+        ready.add(tokenAscii ? word : word.toLowerCase());
+        emittedAny = true;
+        token.setLength(0);
+        tokenAscii = true;
+    }
+
+    private void finish() {
+        finished = true;
+        // 结尾的 pendingLow 被 trim 去掉
+        pendingLow.setLength(0);
+        if (token.length() > 0) {
+            endToken();
+        } else if (!emittedAny) {
+            // "".split("\\s+") 返回 [""]，空文本同样产生一个空单词
+            ready.add("");
+            emittedAny = true;
+        }
+    }
+
+    private boolean fillChars() throws IOException {
+        chars.clear();
+        while (chars.position() == 0) {
+            if (flushed) {
+                break;
+            }
+            if (!bytes.hasRemaining() || (!endOfInput && bytes.remaining() < 16)) {
+                mapNext();
+            }
+            CoderResult result = decoder.decode(bytes, chars, endOfInput);
+            if (result.isError()) {
+                result.throwException();
+            }
+            if (endOfInput && result.isUnderflow()) {
+                decoder.flush(chars);
+                flushed = true;
+            }
+        }
+        chars.flip();
+        return chars.hasRemaining();
+    }
+
+    private void mapNext() throws IOException {
+        if (endOfInput) {
+            return;
+        }
+        // 从第一个尚未解码的字节开始重新映射，保证被分块截断的多字节字符完整
+        long offset = bytesBase + bytes.position();
+        long length = Math.min(chunkBytes, fileSize - offset);
+        bytes = length == 0 ? ByteBuffer.allocate(0)
+                : channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        bytesBase = offset;
+        endOfInput = offset + length >= fileSize;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
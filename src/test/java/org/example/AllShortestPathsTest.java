@@ -0,0 +1,105 @@
+package org.example;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+
+public class AllShortestPathsTest {
+
+    /** 在最短路径树的距离上按距离顺序累加前驱的条数，作为参照. */
+    private static long[] referenceCounts(WordGraph graph, ShortestPathTree tree) {
+        int n = graph.nodeCount();
+        Integer[] order = new Integer[n];
+        for (int v = 0; v < n; v++) {
+            order[v] = v;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(tree.distance(a), tree.distance(b)));
+        long[] counts = new long[n];
+        counts[tree.source()] = 1;
+        for (int v : order) {
+            if (v == tree.source() || tree.distance(v) == ShortestPathTree.UNREACHABLE) {
+                continue;
+            }
+            graph.forEachPredecessor(v, (u, weight) -> {
+                if (tree.distance(u) != ShortestPathTree.UNREACHABLE
+                        && tree.distance(u) + weight == tree.distance(v)) {
+                    counts[v] += counts[u];
+                }
+            });
+        }
+        return counts;
+    }
+
+    @Test
+    public void testMatchesReferenceCounts() {
+        // 词表小、文本短，边权大多为 1，并列的最短路径很多
+        FrozenGraph graph = ShortestPathTreeTest.randomGraph(17, 40, 300);
+        for (int source = 0; source < graph.nodeCount(); source += 3) {
+            ShortestPathTree tree = ShortestPathTree.compute(graph, source);
+            long[] expected = referenceCounts(graph, tree);
+            for (int target = 0; target < graph.nodeCount(); target++) {
+                AllShortestPaths paths = AllShortestPaths.compute(graph, source, target);
+                assertEquals(tree.distance(target), paths.distance());
+                assertEquals(expected[target], paths.pathCount());
+                Set<String> distinct = new HashSet<>();
+                for (Iterator<int[]> it = paths.iterator(); it.hasNext(); ) {
+                    int[] path = it.next();
+                    assertEquals(source, path[0]);
+                    assertEquals(target, path[path.length - 1]);
+                    assertEquals(paths.distance(), ShortestPathTreeTest.pathWeight(graph, path));
+                    assertTrue(distinct.add(Arrays.toString(path)));
+                }
+                assertEquals(paths.pathCount(), distinct.size());
+            }
+        }
+    }
+
+    @Test
+    public void testCountsWithoutListing() {
+        // 60 个串联的菱形：2^60 条等长路径，计数与取前几条都不需要枚举
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 60; i++) {
+            text.append("s").append(i).append(" a").append(i).append(" s").append(i + 1)
+                    .append(" s").append(i).append(" b").append(i).append(" s").append(i + 1)
+                    .append(' ');
+        }
+        FrozenGraph graph = FrozenGraph.of(FrozenGraphTest.typeGraph(text.toString().trim()));
+        AllShortestPaths paths = AllShortestPaths.compute(graph, "s0", "s60");
+        assertEquals(120, paths.distance());
+        assertEquals(1L << 60, paths.pathCount());
+        List<String> first = paths.pathStrings(3);
+        assertEquals(3, first.size());
+        assertEquals(3, new HashSet<>(first).size());
+        assertEquals(3, paths.paths().limit(3).collect(Collectors.toList()).size());
+
+        text.setLength(0);
+        for (int i = 0; i < 70; i++) {
+            text.append("s").append(i).append(" a").append(i).append(" s").append(i + 1)
+                    .append(" s").append(i).append(" b").append(i).append(" s").append(i + 1)
+                    .append(' ');
+        }
+        graph = FrozenGraph.of(FrozenGraphTest.typeGraph(text.toString().trim()));
+        assertEquals(Long.MAX_VALUE, AllShortestPaths.compute(graph, "s0", "s70").pathCount());
+    }
+
+    @Test
+    public void testUnreachableAndSameWord() throws IOException {
+        FrozenGraph graph = FrozenGraphTest.fileGraph();
+        AllShortestPaths none = AllShortestPaths.compute(graph, "civilizations", "to");
+        assertEquals(AllShortestPaths.UNREACHABLE, none.distance());
+        assertEquals(0, none.pathCount());
+        assertFalse(none.iterator().hasNext());
+        assertNull(AllShortestPaths.compute(graph, "to", "djx"));
+        AllShortestPaths self = AllShortestPaths.compute(graph, "to", "to");
+        assertEquals(1, self.pathCount());
+        assertEquals(Arrays.asList("to "), self.pathStrings(10));
+    }
+}
@@ -0,0 +1,70 @@
+package org.example;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+
+public class BatchQueryRunnerTest {
+
+    private static String[] run(String queries, BatchQueryRunner.Format format,
+                                BatchQueryRunner.Report[] report) throws IOException {
+        QueryService service = new QueryService(FrozenGraphTest.fileGraph());
+        BatchQueryRunner runner = new BatchQueryRunner(service, format);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        StringWriter out = new StringWriter();
+        try {
+            report[0] = runner.run(new BufferedReader(new StringReader(queries)), out, executor, 3);
+        } finally {
+            executor.shutdown();
+        }
+        String[] lines = out.toString().split("\n");
+        // 结果按完成顺序写出，按行号排序后比较
+        Arrays.sort(lines, (a, b) -> Integer.compare(lineNumber(a), lineNumber(b)));
+        return lines;
+    }
+
+    private static int lineNumber(String result) {
+        return Integer.parseInt(result.replaceAll("^\\{\"line\":", "").split("[\t,]")[0]);
+    }
+
+    @Test
+    public void testTsv() throws IOException {
+        BatchQueryRunner.Report[] report = new BatchQueryRunner.Report[1];
+        String[] lines = run("bridge to out\n\n# comment\nbridge to djx\n"
+                + "generate Seek to explore new\npath to new\nfly away\nwalk 5\n",
+                BatchQueryRunner.Format.TSV, report);
+        assertEquals(6, lines.length);
+        assertEquals("1\tbridge\tOK\tseek", lines[0]);
+        assertEquals("4\tbridge\tERROR\tNo \"djx\" in the graph !", lines[1]);
+        assertEquals("5\tgenerate\tOK\tseek to explore strange new", lines[2]);
+        assertTrue(lines[3].equals("6\tpath\tOK\tto seek out new")
+                || lines[3].equals("6\tpath\tOK\tto explore strange new"));
+        assertEquals("7\tfly\tERROR\tunknown query: fly", lines[4]);
+        assertTrue(lines[5].startsWith("8\twalk\tOK\t"));
+        assertEquals(6, report[0].queries());
+        assertEquals(2, report[0].errors());
+    }
+
+    @Test
+    public void testJsonLinesAreReproducible() throws IOException {
+        StringBuilder queries = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            queries.append(i % 2 == 0 ? "walk\n" : "bridge new to\n");
+        }
+        BatchQueryRunner.Report[] report = new BatchQueryRunner.Report[1];
+        String[] first = run(queries.toString(), BatchQueryRunner.Format.JSONL, report);
+        String[] second = run(queries.toString(), BatchQueryRunner.Format.JSONL, report);
+        assertArrayEquals(first, second);
+        assertEquals(200, first.length);
+        assertEquals("{\"line\":2,\"op\":\"bridge\",\"result\":[\"worlds\"]}", first[1]);
+        assertEquals(0, report[0].errors());
+    }
+}
@@ -0,0 +1,109 @@
+package org.example;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+
+
+public class CompressedGraphTest {
+
+    /** 单词的排名服从近似 Zipf 的对数均匀分布，少数高频词占了大部分出现次数. */
+    private static String zipfText(long seed, int vocabulary, int length) {
+        Random random = new Random(seed);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            int rank = (int) Math.exp(random.nextDouble() * Math.log(vocabulary));
+            text.append("word").append(rank).append(' ');
+        }
+        return text.toString().trim();
+    }
+
+    /** 邻接表按编号递增. */
+    private static void assertSortedLists(WordGraph graph, int node) {
+        int[] previous = {-1, -1};
+        graph.forEachSuccessor(node, (other, weight) -> {
+            assertTrue(other > previous[0]);
+            previous[0] = other;
+        });
+        graph.forEachPredecessor(node, (other, weight) -> {
+            assertTrue(other > previous[1]);
+            previous[1] = other;
+        });
+    }
+
+    private static void assertSameEdges(WordGraph expected, CompressedGraph actual) {
+        assertEquals(expected.nodeCount(), actual.nodeCount());
+        assertEquals(expected.edgeCount(), actual.edgeCount());
+        for (int v = 0; v < expected.nodeCount(); v++) {
+            String word = expected.word(v);
+            int id = actual.id(word);
+            assertEquals(word, actual.word(id));
+            assertEquals(expected.outDegree(v), actual.outDegree(id));
+            assertEquals(expected.inDegree(v), actual.inDegree(id));
+            assertSortedLists(actual, id);
+            assertEquals(new HashSet<>(GraphSnapshotTest.edges(expected, v, true)),
+                    new HashSet<>(GraphSnapshotTest.edges(actual, id, true)));
+            assertEquals(new HashSet<>(GraphSnapshotTest.edges(expected, v, false)),
+                    new HashSet<>(GraphSnapshotTest.edges(actual, id, false)));
+        }
+    }
+
+    @Test
+    public void testSameGraphAndQueries() throws IOException {
+        Map<String, Type> nodes = GraphSnapshotTest.typeGraphWithIncoming(
+                Main.processText("./file.txt") + " ünïcödé 漢字 to new");
+        FrozenGraph frozen = FrozenGraph.of(nodes);
+        CompressedGraph compressed = CompressedGraph.of(frozen);
+        assertSameEdges(frozen, compressed);
+        assertEquals(-1, compressed.id("djx"));
+        assertEquals(-1, compressed.id(""));
+        for (int a = 0; a < frozen.nodeCount(); a++) {
+            for (int b = 0; b < frozen.nodeCount(); b++) {
+                String w1 = frozen.word(a);
+                String w2 = frozen.word(b);
+                assertEquals(frozen.edgeWeight(a, b),
+                        compressed.edgeWeight(compressed.id(w1), compressed.id(w2)));
+                assertEquals(new HashSet<>(GraphQueries.bridgeWords(frozen, w1, w2)),
+                        new HashSet<>(GraphQueries.bridgeWords(compressed, w1, w2)));
+            }
+        }
+        ShortestPathTree expected = ShortestPathTree.compute(frozen, "to");
+        ShortestPathTree actual = ShortestPathTree.compute(compressed, "to");
+        for (int v = 0; v < frozen.nodeCount(); v++) {
+            assertEquals(expected.distance(v), actual.distance(compressed.id(frozen.word(v))));
+        }
+        String walk = new QueryService(compressed).randomWalk(7);
+        String[] steps = walk.split(" ");
+        for (int i = 1; i < steps.length; i++) {
+            assertTrue(frozen.edgeWeight(frozen.id(steps[i - 1]), frozen.id(steps[i])) > 0);
+        }
+    }
+
+    @Test
+    public void testFrequencyOrderAndSize() {
+        String text = zipfText(3, 20_000, 200_000);
+        Map<String, Type> nodes = GraphSnapshotTest.typeGraphWithIncoming(text);
+        FrozenGraph frozen = FrozenGraph.of(nodes);
+        CompressedGraph compressed = CompressedGraph.of(frozen);
+        assertSameEdges(frozen, compressed);
+        // word1 的出现次数最多，编号为 0；编号越大出现次数越少
+        assertEquals("word1", compressed.word(0));
+        long previous = Long.MAX_VALUE;
+        for (int v = 0; v < compressed.nodeCount(); v++) {
+            long[] sum = {0};
+            compressed.forEachPredecessor(v, (node, weight) -> sum[0] += weight);
+            long[] out = {0};
+            compressed.forEachSuccessor(v, (node, weight) -> out[0] += weight);
+            long frequency = Math.max(sum[0], out[0]);
+            assertTrue(frequency <= previous);
+            previous = frequency;
+        }
+        long typeBytes = FrozenGraph.estimatedBytes(nodes);
+        assertTrue(compressed.estimatedBytes() * 2 < frozen.estimatedBytes());
+        assertTrue(compressed.estimatedBytes() * 5 < typeBytes);
+    }
+}
@@ -0,0 +1,82 @@
+package org.example;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+
+public class DirectoryIngesterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testMatchesSequentialIngestion() throws IOException {
+        Path root = folder.newFolder("corpus").toPath();
+        Random random = new Random(4);
+        List<Path> texts = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            Path dir = root.resolve("d" + (i % 3)).resolve("e" + (i % 2));
+            Files.createDirectories(dir);
+            // 有的文件跨越多个批次
+            int words = i % 4 == 0 ? 3 * DirectoryIngester.BATCH_WORDS + 7 : 200 + i;
+            StringBuilder text = new StringBuilder("Header, line!\n");
+            for (int w = 0; w < words; w++) {
+                text.append("w").append((char) ('a' + random.nextInt(20)))
+                        .append(w % 17 == 0 ? ".\n" : " ");
+            }
+            Path file = dir.resolve("doc" + i + ".txt");
+            Files.writeString(file, text);
+            texts.add(file);
+        }
+        Files.writeString(root.resolve("notes.md"), "excluded words only here");
+        Files.writeString(root.resolve("empty.txt"), " 123 ,, ");
+        texts.add(root.resolve("empty.txt"));
+
+        Map<String, Type> expected = new HashMap<>();
+        for (Path file : texts) {
+            Type[] prev = {null};
+            WordTokenizer.forEachWord(file, word -> {
+                if (!word.isEmpty()) {
+                    prev[0] = Main.addWord(expected, prev[0], word);
+                }
+            });
+        }
+
+        Map<String, Type> nodes = new HashMap<>();
+        DirectoryIngester ingester = new DirectoryIngester(2, 3, 1);
+        List<DirectoryIngester.Progress> reports = new ArrayList<>();
+        DirectoryIngester.Progress progress = ingester.ingest(root, "*.txt", nodes, reports::add);
+        GraphSnapshotTest.assertSameGraph(expected, FrozenGraph.of(expected), FrozenGraph.of(nodes));
+        assertNull(nodes.get("excluded"));
+        assertEquals(13, progress.files());
+        assertEquals(progress.words(), reports.get(reports.size() - 1).words());
+        long bytes = 0;
+        for (Path file : texts) {
+            bytes += Files.size(file);
+        }
+        assertEquals(bytes, progress.bytes());
+        assertTrue(progress.toString().startsWith("files=13 "));
+    }
+
+    @Test
+    public void testMissingDirectoryFails() {
+        try {
+            new DirectoryIngester(1, 1, 1).ingest(folder.getRoot().toPath().resolve("missing"),
+                    null, new HashMap<>(), null);
+            fail("missing directory expected");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage().contains("missing"));
+        }
+    }
+}
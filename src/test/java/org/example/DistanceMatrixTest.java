@@ -0,0 +1,179 @@
+package org.example;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.foreign.Arena;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+
+public class DistanceMatrixTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /** 边数不超过 hops 的最短距离，逐轮对所有边做 Bellman-Ford. */
+    private static long[] hopBoundedDistances(WordGraph graph, int source, int hops) {
+        long[] distances = new long[graph.nodeCount()];
+        Arrays.fill(distances, Long.MAX_VALUE);
+        distances[source] = 0;
+        for (int round = 0; round < hops; round++) {
+            long[] next = distances.clone();
+            for (int v = 0; v < graph.nodeCount(); v++) {
+                long base = distances[v];
+                if (base != Long.MAX_VALUE) {
+                    graph.forEachSuccessor(v, (to, weight) ->
+                            next[to] = Math.min(next[to], base + weight));
+                }
+            }
+            distances = next;
+        }
+        return distances;
+    }
+
+    private static void assertMatchesReference(FrozenGraph graph, DistanceMatrix matrix) {
+        assertEquals(graph.nodeCount(), matrix.nodeCount());
+        for (int source = 0; source < graph.nodeCount(); source++) {
+            assertEquals(graph.word(source), matrix.word(source));
+            long[] expected = ShortestPathTreeTest.referenceDistances(graph, source);
+            for (int target = 0; target < graph.nodeCount(); target++) {
+                assertEquals(expected[target] == ShortestPathTree.UNREACHABLE
+                                ? DistanceMatrix.UNREACHABLE : expected[target],
+                        matrix.distance(source, target));
+            }
+        }
+    }
+
+    @Test
+    public void testDenseMatrixAndExport() throws IOException {
+        FrozenGraph graph = ShortestPathTreeTest.randomGraph(5, 80, 400);
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            DistanceMatrix matrix = DistanceMatrix.compute(graph, pool);
+            assertMatchesReference(graph, matrix);
+
+            Path file = folder.getRoot().toPath().resolve("heap.dist");
+            try (OutputStream out = Files.newOutputStream(file)) {
+                matrix.export(out);
+            }
+            Path mappedFile = folder.getRoot().toPath().resolve("mapped.dist");
+            try (Arena arena = Arena.ofShared()) {
+                assertMatchesReference(graph, DistanceMatrix.compute(graph, pool, mappedFile,
+                        arena));
+                assertMatchesReference(graph, DistanceMatrix.map(file, arena));
+            }
+            // 直接映射计算得到的文件与从堆上导出的文件完全相同
+            assertArrayEquals(Files.readAllBytes(file), Files.readAllBytes(mappedFile));
+
+            try (DistanceMatrix.RowReader rows =
+                         DistanceMatrix.RowReader.open(Files.newInputStream(file))) {
+                assertTrue(rows.isDense());
+                assertEquals(graph.nodeCount(), rows.words().length);
+                int count = 0;
+                while (rows.next()) {
+                    assertEquals(count++, rows.source());
+                    int reachable = 0;
+                    for (int target = 0; target < graph.nodeCount(); target++) {
+                        if (matrix.distance(rows.source(), target) != DistanceMatrix.UNREACHABLE) {
+                            assertEquals(target, rows.target(reachable));
+                            assertEquals(matrix.distance(rows.source(), target),
+                                    rows.distance(reachable++));
+                        }
+                    }
+                    assertEquals(reachable, rows.count());
+                }
+                assertEquals(graph.nodeCount(), count);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testBatchBoundedByEntries() {
+        // 稠密的大图每行可能有 n 个单词，行数随之减少，但每个线程至少一行
+        assertEquals(4, DistanceMatrix.batchRows(1 << 20, 0, 4));
+        assertEquals(16, DistanceMatrix.batchRows(1 << 20, 0, 16));
+        assertEquals(DistanceMatrix.BATCH_ROWS, DistanceMatrix.batchRows(1 << 20, 10, 4));
+        assertEquals(4, DistanceMatrix.batchRows(1 << 20, Integer.MAX_VALUE, 4));
+        assertEquals(60, DistanceMatrix.batchRows(60, 0, 4));
+        assertEquals(1, DistanceMatrix.batchRows(1, 0, 4));
+    }
+
+    @Test
+    public void testNearestRows() throws IOException {
+        FrozenGraph graph = ShortestPathTreeTest.randomGraph(9, 60, 300);
+        int[][] bounds = {{0, 0}, {0, 5}, {2, 0}, {3, 4},
+                {0, Integer.MAX_VALUE}, {2, Integer.MAX_VALUE}};
+        for (int[] bound : bounds) {
+            int maxHops = bound[0];
+            int topN = bound[1];
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            DistanceMatrix.exportNearest(graph, ForkJoinPool.commonPool(), maxHops, topN, out);
+            InputStream in = new ByteArrayInputStream(out.toByteArray());
+            try (DistanceMatrix.RowReader rows = DistanceMatrix.RowReader.open(in)) {
+                assertFalse(rows.isDense());
+                assertEquals(maxHops, rows.maxHops());
+                assertEquals(topN, rows.topN());
+                while (rows.next()) {
+                    int source = rows.source();
+                    long[] expected = maxHops == 0
+                            ? ShortestPathTreeTest.referenceDistances(graph, source)
+                            : hopBoundedDistances(graph, source, maxHops);
+                    long[] sorted = new long[graph.nodeCount() - 1];
+                    int reachable = 0;
+                    for (int v = 0; v < graph.nodeCount(); v++) {
+                        if (v != source && expected[v] != Long.MAX_VALUE) {
+                            sorted[reachable++] = expected[v];
+                        }
+                    }
+                    Arrays.sort(sorted, 0, reachable);
+                    int count = topN == 0 ? reachable : Math.min(topN, reachable);
+                    assertEquals(count, rows.count());
+                    for (int i = 0; i < count; i++) {
+                        // 距离相同的单词取舍不定，只比较距离与每个单词自己的距离
+                        assertEquals(sorted[i], rows.distance(i));
+                        assertNotEquals(source, rows.target(i));
+                        assertEquals(expected[rows.target(i)], rows.distance(i));
+                    }
+                }
+                assertEquals(graph.nodeCount() - 1, rows.source());
+            }
+        }
+    }
+
+    @Test
+    public void testMainExport() throws IOException {
+        Main.buildGraph(Main.processText("./file.txt"));
+        FrozenGraph graph = Main.freezeGraph();
+        Path file = folder.getRoot().toPath().resolve("main.dist");
+        Main.exportDistances(file.toString(), 0, 0);
+        try (Arena arena = Arena.ofConfined()) {
+            DistanceMatrix matrix = DistanceMatrix.map(file, arena);
+            // 其他测试也会向 Main 的图中写入文本，只与同一个图上的搜索比较
+            assertEquals(ShortestPathTree.compute(graph, "to").distance(graph.id("out")),
+                    matrix.distance(graph.id("to"), graph.id("out")));
+            assertEquals(DistanceMatrix.UNREACHABLE,
+                    matrix.distance(graph.id("civilizations"), graph.id("to")));
+        }
+        Main.exportDistances(file.toString(), 1, 0);
+        try (DistanceMatrix.RowReader rows =
+                     DistanceMatrix.RowReader.open(Files.newInputStream(file))) {
+            while (rows.next()) {
+                assertEquals(graph.outDegree(rows.source())
+                        - (graph.edgeWeight(rows.source(), rows.source()) > 0 ? 1 : 0),
+                        rows.count());
+            }
+        }
+    }
+}
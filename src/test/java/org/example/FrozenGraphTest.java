@@ -0,0 +1,111 @@
+package org.example;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+
+public class FrozenGraphTest {
+
+    static Map<String, Type> typeGraph(String processedText) {
+        Map<String, Type> nodes = new HashMap<>();
+        Type prev = null;
+        for (String word : processedText.split("\\s+")) {
+            Type node = nodes.computeIfAbsent(word, Type::new);
+            if (prev != null) {
+                prev.outgoingEdges.merge(node, 1, Integer::sum);
+            }
+            prev = node;
+        }
+        return nodes;
+    }
+
+    static FrozenGraph fileGraph() throws IOException {
+        return FrozenGraph.of(typeGraph(Main.processText("./file.txt")));
+    }
+
+    @Test
+    public void testSameEdgesAsTypeGraph() throws IOException {
+        Map<String, Type> nodes = typeGraph(Main.processText("./file.txt"));
+        FrozenGraph graph = FrozenGraph.of(nodes);
+        assertEquals(nodes.size(), graph.nodeCount());
+        long edges = 0;
+        for (Type node : nodes.values()) {
+            int from = graph.id(node.word);
+            assertEquals(node.word, graph.word(from));
+            for (Map.Entry<Type, Integer> edge : node.outgoingEdges.entrySet()) {
+                assertEquals((int) edge.getValue(), graph.edgeWeight(from, graph.id(edge.getKey().word)));
+                edges++;
+            }
+            assertEquals(node.outgoingEdges.size(), graph.outDegree(from));
+        }
+        assertEquals(edges, graph.edgeCount());
+        assertEquals(-1, graph.id("djx"));
+        assertEquals(3, graph.inDegree(graph.id("new")));
+    }
+
+    @Test
+    public void testBridgeWords() throws IOException {
+        FrozenGraph graph = fileGraph();
+        assertEquals(Collections.singletonList("seek"), GraphQueries.bridgeWords(graph, "to", "out"));
+        assertEquals(Collections.emptyList(), GraphQueries.bridgeWords(graph, "to", "new"));
+        assertEquals(Collections.singletonList("worlds"), GraphQueries.bridgeWords(graph, "new", "to"));
+        assertNull(GraphQueries.bridgeWords(graph, "djx", "to"));
+    }
+
+    @Test
+    public void testShortestPath() throws IOException {
+        FrozenGraph graph = fileGraph();
+        Set<String> expected = new HashSet<>(Arrays.asList("to seek out new ", "to explore strange new "));
+        assertTrue(expected.contains(GraphQueries.shortestPath(graph, "to", "new")));
+        assertEquals("to ", GraphQueries.shortestPath(graph, "to", "to"));
+        assertEquals(GraphQueries.NO_PATH, GraphQueries.shortestPath(graph, "to", "exercise"));
+        assertEquals(GraphQueries.NO_PATH, GraphQueries.shortestPath(graph, "civilizations", "to"));
+    }
+
+    @Test
+    public void testRandomWalkFollowsEdges() throws IOException {
+        FrozenGraph graph = fileGraph();
+        Random random = new Random(7);
+        for (int i = 0; i < 100; i++) {
+            String[] walk = GraphQueries.randomWalk(graph, random).split(" ");
+            for (int j = 0; j + 1 < walk.length; j++) {
+                assertTrue(graph.edgeWeight(graph.id(walk[j]), graph.id(walk[j + 1])) > 0);
+            }
+        }
+    }
+
+    @Test
+    public void testNeighbourhood() throws IOException {
+        FrozenGraph graph = fileGraph();
+        int[] members = GraphQueries.neighbourhood(graph, graph.id("strange"), 1, 10);
+        assertEquals("strange", graph.word(members[0]));
+        Set<String> words = new HashSet<>();
+        for (int member : members) {
+            words.add(graph.word(member));
+        }
+        assertEquals(new HashSet<>(Arrays.asList("strange", "explore", "new")), words);
+        assertEquals(graph.nodeCount(), GraphQueries.neighbourhood(graph, graph.id("to"), 10, 100).length);
+        assertEquals(4, GraphQueries.neighbourhood(graph, graph.id("to"), 10, 4).length);
+    }
+
+    @Test
+    public void testSmallerThanTypeGraph() {
+        Random random = new Random(1);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 200_000; i++) {
+            text.append('w').append((int) (1 / (random.nextDouble() + 1e-4))).append(' ');
+        }
+        Map<String, Type> nodes = typeGraph(text.toString().trim());
+        FrozenGraph graph = FrozenGraph.of(nodes);
+        assertTrue(graph.estimatedBytes() * 2 < FrozenGraph.estimatedBytes(nodes));
+    }
+}
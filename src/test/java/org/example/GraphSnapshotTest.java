@@ -0,0 +1,117 @@
+package org.example;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+
+public class GraphSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    static List<String> edges(WordGraph graph, int node, boolean outgoing) {
+        List<String> edges = new ArrayList<>();
+        WordGraph.EdgeVisitor visitor = (other, weight) -> edges.add(graph.word(other) + ":" + weight);
+        if (outgoing) {
+            graph.forEachSuccessor(node, visitor);
+        } else {
+            graph.forEachPredecessor(node, visitor);
+        }
+        return edges;
+    }
+
+    static void assertSameGraph(Map<String, Type> nodes, WordGraph expected, WordGraph actual) {
+        assertEquals(nodes.size(), actual.nodeCount());
+        assertEquals(expected.edgeCount(), actual.edgeCount());
+        for (Type node : nodes.values()) {
+            int id = actual.id(node.word);
+            assertEquals(expected.id(node.word), id);
+            assertEquals(node.word, actual.word(id));
+            assertEquals(node.outgoingEdges.size(), actual.outDegree(id));
+            assertEquals(node.incomingEdges.size(), actual.inDegree(id));
+            for (Map.Entry<Type, Integer> edge : node.outgoingEdges.entrySet()) {
+                assertEquals((int) edge.getValue(), actual.edgeWeight(id, actual.id(edge.getKey().word)));
+            }
+            assertEquals(edges(expected, id, true), edges(actual, id, true));
+            assertEquals(edges(expected, id, false), edges(actual, id, false));
+        }
+        assertEquals(-1, actual.id("not-a-word"));
+    }
+
+    static Map<String, Type> typeGraphWithIncoming(String text) {
+        Map<String, Type> nodes = FrozenGraphTest.typeGraph(text);
+        for (Type node : nodes.values()) {
+            for (Map.Entry<Type, Integer> edge : node.outgoingEdges.entrySet()) {
+                edge.getKey().incomingEdges.put(node, edge.getValue());
+            }
+        }
+        return nodes;
+    }
+
+    @Test
+    public void testRoundTripMatchesBuildGraph() throws IOException {
+        Main.clearGraph();
+        try {
+            Main.buildGraph(Main.processText("./file.txt") + " ünïcödé 漢字");
+            Map<String, Type> nodes = Main.nodes();
+            FrozenGraph frozen = Main.freezeGraph();
+            Path path = folder.newFile("graph.snapshot").toPath();
+            Main.saveSnapshot(path.toString());
+            GraphSnapshot snapshot = GraphSnapshot.open(path, true);
+            assertSameGraph(nodes, frozen, snapshot);
+            assertEquals(GraphQueries.shortestPath(frozen, "to", "civilizations"),
+                    GraphQueries.shortestPath(snapshot, "to", "civilizations"));
+            assertEquals(GraphQueries.bridgeWords(frozen, "to", "out"),
+                    GraphQueries.bridgeWords(snapshot, "to", "out"));
+        } finally {
+            // 其他测试向 Main 的图中追加文本，不要留下这里的单词
+            Main.clearGraph();
+        }
+    }
+
+    @Test
+    public void testRandomGraphRoundTrip() throws IOException {
+        FrozenGraph frozen = ShortestPathTreeTest.randomGraph(17, 2000, 20000);
+        Path path = folder.newFile("random.snapshot").toPath();
+        GraphSnapshot.write(frozen, path);
+        GraphSnapshot snapshot = GraphSnapshot.open(path, true);
+        for (int v = 0; v < frozen.nodeCount(); v++) {
+            assertEquals(frozen.word(v), snapshot.word(v));
+            assertEquals(v, snapshot.id(frozen.word(v)));
+            assertEquals(edges(frozen, v, true), edges(snapshot, v, true));
+            assertEquals(edges(frozen, v, false), edges(snapshot, v, false));
+        }
+    }
+
+    @Test
+    public void testCorruptionIsDetected() throws IOException {
+        Path path = folder.newFile("corrupt.snapshot").toPath();
+        GraphSnapshot.write(FrozenGraphTest.fileGraph(), path);
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(GraphSnapshot.HEADER_BYTES + 5);
+            file.write(0x7F);
+        }
+        GraphSnapshot.open(path, false);
+        try {
+            GraphSnapshot.open(path, true);
+            fail("checksum mismatch expected");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage().contains("checksum"));
+        }
+        try {
+            GraphSnapshot.open(Path.of("./file.txt"));
+            fail("bad magic expected");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage().contains("not a graph snapshot"));
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package org.example;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+public class GraphStoreTest {
+
+    private static String document(int writer, int doc, char part) {
+        return "doc" + writer + "x" + doc + part;
+    }
+
+    @Test
+    public void testIngestPublishesNewVersion() {
+        GraphStore store = new GraphStore();
+        GraphStore.Version empty = store.current();
+        GraphStore.Version first = store.ingest("to seek out", false);
+        assertEquals(1, first.number());
+        assertSame(first, store.current());
+        assertEquals(0, empty.graph().nodeCount());
+        assertSame(first, store.ingest("   ", true));
+        GraphStore.Version second = store.ingest("new worlds", true);
+        assertEquals(Collections.singletonList("out"), second.queries().bridgeWords("seek", "new"));
+        assertEquals(3, first.graph().nodeCount());
+    }
+
+    @Test
+    public void testLandmarksBuiltInBackground() throws Exception {
+        int threshold = Main.landmarkMinNodes;
+        Main.landmarkMinNodes = 1;
+        try {
+            GraphStore store = new GraphStore();
+            GraphStore.Version version = store.ingest("to seek out new worlds", false);
+            LandmarkIndex index = version.landmarkBuild().get();
+            assertSame(version.graph(), index.graph());
+            assertSame(index, version.queries().landmarks());
+            assertEquals(4, version.queries().estimate("to", "worlds"));
+            assertEquals("to seek out new worlds", version.queries().shortestPath("to", "worlds"));
+
+            // 随图一起加载的距离表直接使用，不再重建
+            GraphStore loaded = new GraphStore(version.graph(), index);
+            assertSame(index, loaded.current().queries().landmarks());
+            assertNull(loaded.current().landmarkBuild().get());
+        } finally {
+            Main.landmarkMinNodes = threshold;
+        }
+    }
+
+    @Test
+    public void testReadersSeeConsistentVersionsDuringIngestion() throws Exception {
+        int writers = 2;
+        int documents = 150;
+        GraphStore store = new GraphStore(FrozenGraphTest.fileGraph());
+        int baseWords = store.current().graph().nodeCount();
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 8);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            tasks.add(executor.submit(() -> {
+                for (int d = 0; d < documents; d++) {
+                    store.ingest(document(writer, d, 'a') + " " + document(writer, d, 'b')
+                            + " " + document(writer, d, 'c'), false);
+                }
+            }));
+        }
+        List<Future<Integer>> readers = new ArrayList<>();
+        for (int r = 0; r < 8; r++) {
+            long seed = r;
+            readers.add(executor.submit(() -> {
+                Random random = new Random(seed);
+                long lastVersion = -1;
+                int lastWords = 0;
+                int checks = 0;
+                while (writing.get() || checks == 0) {
+                    GraphStore.Version version = store.current();
+                    WordGraph graph = version.graph();
+                    assertTrue(version.number() >= lastVersion);
+                    assertTrue(graph.nodeCount() >= lastWords);
+                    lastVersion = version.number();
+                    lastWords = graph.nodeCount();
+                    // 每篇文档要么完整可见要么完全不可见
+                    assertEquals(0, (graph.nodeCount() - baseWords) % 3);
+                    long edges = 0;
+                    for (int v = 0; v < graph.nodeCount(); v++) {
+                        edges += graph.outDegree(v);
+                    }
+                    assertEquals(graph.edgeCount(), edges);
+                    int writer = random.nextInt(writers);
+                    int doc = random.nextInt(documents);
+                    String a = document(writer, doc, 'a');
+                    String c = document(writer, doc, 'c');
+                    if (graph.id(a) >= 0) {
+                        String b = document(writer, doc, 'b');
+                        assertEquals(Collections.singletonList(b),
+                                version.queries().bridgeWords(a, c));
+                        assertEquals(a + " " + b + " " + c,
+                                version.queries().shortestPath(a, c));
+                        assertEquals(version.queries().bridgeWords("to", "out"),
+                                Collections.singletonList("seek"));
+                    } else {
+                        assertEquals(-1, graph.id(c));
+                    }
+                    checks++;
+                }
+                return checks;
+            }));
+        }
+        for (Future<?> task : tasks) {
+            task.get();
+        }
+        writing.set(false);
+        for (Future<Integer> reader : readers) {
+            assertTrue(reader.get() > 0);
+        }
+        executor.shutdown();
+        assertEquals(writers * documents, store.current().number());
+        assertEquals(baseWords + 3 * writers * documents, store.current().graph().nodeCount());
+    }
+}
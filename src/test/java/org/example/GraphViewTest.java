@@ -0,0 +1,58 @@
+package org.example;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+
+public class GraphViewTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testPathColorsNeverRunOut() {
+        Set<String> colors = new HashSet<>();
+        for (int k = 0; k < 200; k++) {
+            String color = GraphView.pathColor(k);
+            assertTrue(color, color.matches("rgb\\(\\d+, \\d+, \\d+\\)"));
+            colors.add(color);
+        }
+        assertEquals("rgb(255, 0, 0)", GraphView.pathColor(0));
+        assertTrue(colors.size() > 190);
+    }
+
+    @Test
+    public void testHighlightAndExportReuseLayout() throws IOException {
+        GraphView view = new GraphView(FrozenGraphTest.fileGraph());
+        view.highlight("to seek out new ", GraphView.pathColor(0));
+        assertEquals(4, view.nodeCount());
+        assertEquals(3, view.edgeCount());
+        view.highlight("to explore strange new ", GraphView.pathColor(30));
+        assertEquals(6, view.nodeCount());
+        assertEquals(6, view.edgeCount());
+
+        Path first = folder.getRoot().toPath().resolve("first.png");
+        Path second = folder.getRoot().toPath().resolve("second.png");
+        assertEquals(first, view.saveImageAsync(first.toString()).join());
+        view.highlight("to seek out new ", GraphView.pathColor(1));
+        view.saveImage(second.toString());
+        // 第二次导出时结构没有变化，复用布局
+        assertEquals(1, view.layoutComputations());
+        for (Path image : new Path[] {first, second}) {
+            byte[] header = Files.readAllBytes(image);
+            assertEquals((byte) 0x89, header[0]);
+            assertEquals('P', header[1]);
+        }
+        view.highlight("new worlds to", GraphView.pathColor(2));
+        view.saveImage(second.toString());
+        assertEquals(2, view.layoutComputations());
+    }
+}
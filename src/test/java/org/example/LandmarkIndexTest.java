@@ -0,0 +1,166 @@
+package org.example;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+
+public class LandmarkIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /** 两段词表不同的随机文本首尾相接：后一段的单词到达不了前一段. */
+    static FrozenGraph twoPartGraph(long seed) {
+        Random random = new Random(seed);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 1500; i++) {
+            text.append('a').append(random.nextInt(150)).append(' ');
+        }
+        for (int i = 0; i < 500; i++) {
+            text.append('b').append(random.nextInt(80)).append(' ');
+        }
+        return FrozenGraph.of(FrozenGraphTest.typeGraph(text.toString().trim()));
+    }
+
+    @Test
+    public void testBoundsAndExactSearch() {
+        FrozenGraph graph = twoPartGraph(11);
+        LandmarkIndex index = LandmarkIndex.build(graph, 8);
+        assertEquals(8, index.landmarks().length);
+        ShortestPathEngine alt = new ShortestPathEngine(graph, index);
+        ShortestPathEngine plain = new ShortestPathEngine(graph);
+        long altSettled = 0;
+        long plainSettled = 0;
+        for (int source = 0; source < graph.nodeCount(); source += 7) {
+            long[] expected = ShortestPathTreeTest.referenceDistances(graph, source);
+            for (int target = 0; target < graph.nodeCount(); target++) {
+                long lower = index.lowerBound(source, target);
+                long upper = index.upperBound(source, target);
+                if (lower == Long.MAX_VALUE) {
+                    assertEquals(ShortestPathTree.UNREACHABLE, expected[target]);
+                }
+                if (expected[target] == ShortestPathTree.UNREACHABLE) {
+                    assertNull(alt.shortestPath(source, target));
+                    assertEquals(Long.MAX_VALUE, upper);
+                    continue;
+                }
+                assertTrue(lower <= expected[target]);
+                assertTrue(upper >= expected[target]);
+                long estimate = index.estimate(graph.word(source), graph.word(target));
+                assertEquals(lower, estimate);
+                if (isLandmark(index, source) || isLandmark(index, target)) {
+                    assertEquals(expected[target], estimate);
+                }
+                int[] path = alt.shortestPath(source, target);
+                assertEquals(expected[target], alt.lastDistance());
+                assertEquals(expected[target], ShortestPathTreeTest.pathWeight(graph, path));
+                altSettled += alt.lastSettledCount();
+                plain.shortestPath(source, target);
+                plainSettled += plain.lastSettledCount();
+            }
+        }
+        assertTrue(altSettled + " vs " + plainSettled, altSettled < plainSettled);
+        assertEquals(-1, index.estimate("a1", "djx"));
+        assertEquals(0, index.estimate("a1", "a1"));
+    }
+
+    private static boolean isLandmark(LandmarkIndex index, int node) {
+        for (int landmark : index.landmarks()) {
+            if (landmark == node) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        FrozenGraph graph = twoPartGraph(12);
+        LandmarkIndex index = LandmarkIndex.build(graph, 4);
+        Path file = folder.getRoot().toPath().resolve("graph.landmarks");
+        index.write(file);
+        LandmarkIndex loaded = LandmarkIndex.read(file, graph);
+        assertArrayEquals(index.landmarks(), loaded.landmarks());
+        for (int source = 0; source < graph.nodeCount(); source += 5) {
+            for (int target = 0; target < graph.nodeCount(); target += 3) {
+                assertEquals(index.lowerBound(source, target), loaded.lowerBound(source, target));
+                assertEquals(index.upperBound(source, target), loaded.upperBound(source, target));
+            }
+        }
+        try {
+            LandmarkIndex.read(file, twoPartGraph(13));
+            fail("landmarks of another graph were accepted");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage().contains("different graph"));
+        }
+    }
+
+    @Test
+    public void testMainRebuildsInBackground() throws Exception {
+        int threshold = Main.landmarkMinNodes;
+        Main.landmarkMinNodes = 1;
+        try {
+            Main.ingestDocument("landa landb landc landd", false);
+            // 第一次查询时距离表还没建好，用双向搜索
+            String expected = Main.shortestPath("landa", "landd");
+            LandmarkIndex first = Main.landmarkBuild().get();
+            assertSame(Main.freezeGraph(), first.graph());
+            assertEquals(expected, Main.shortestPath("landa", "landd"));
+            // 四个节点都是路标，估计值就是最短距离
+            assertEquals(3, Main.estimateDistance("landa", "landd"));
+            assertEquals(-1, Main.estimateDistance("landa", "djx"));
+
+            // 图变化后下一次查询在后台为新图重建
+            Main.ingestDocument("landa landd", false);
+            assertEquals("landa landd ", Main.shortestPath("landa", "landd"));
+            LandmarkIndex second = Main.landmarkBuild().get();
+            assertNotSame(first, second);
+            assertSame(Main.freezeGraph(), second.graph());
+            assertEquals("landb landc ", Main.shortestPath("landb", "landc"));
+
+            // 保存时不等待后台还没建好的距离表，建好后再写出
+            Main.ingestDocument("landd landa", false);
+            Path snapshot = folder.getRoot().toPath().resolve("graph.snapshot");
+            Main.saveSnapshot(snapshot.toString()).get();
+            GraphSnapshot opened = GraphSnapshot.open(snapshot);
+            LandmarkIndex loaded = LandmarkIndex.read(LandmarkIndex.pathFor(snapshot), opened);
+            assertEquals("landa landd",
+                    new QueryService(opened, 0, loaded).shortestPath("landa", "landd"));
+        } finally {
+            Main.landmarkMinNodes = threshold;
+            Main.clearGraph();
+        }
+    }
+
+    @Test
+    public void testTiedPathsBeforeAndAfterLandmarks() throws Exception {
+        int threshold = Main.landmarkMinNodes;
+        Main.landmarkMinNodes = 1;
+        try {
+            Main.clearGraph();
+            Main.buildGraph("tiea tieb tied tiea tiec tied");
+            List<String> tied = Main.allShortestPaths("tiea", "tied", 10);
+            assertEquals(2, tied.size());
+            // 双向搜索与 A* 选同一条
+            String before = Main.shortestPath("tiea", "tied");
+            // 换一个图版本避开缓存，先让距离表建好，之后的查询用 A*
+            Main.ingestDocument("tiex", false);
+            assertEquals(-1, Main.estimateDistance("tiea", "tied"));
+            Main.landmarkBuild().get();
+            String after = Main.shortestPath("tiea", "tied");
+            assertTrue(before, tied.contains(before));
+            assertEquals(before, after);
+            assertEquals(tied, Main.allShortestPaths("tiea", "tied", 10));
+        } finally {
+            Main.landmarkMinNodes = threshold;
+            Main.clearGraph();
+        }
+    }
+}
@@ -2,19 +2,30 @@ package org.example;
 
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import static org.junit.Assert.*;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Scanner;
 import java.util.Set;
+import java.util.TreeSet;
 
 
 public class MainTest {
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
     private final PrintStream originalOut = System.out;
     private Main main;
@@ -30,6 +41,21 @@ public class MainTest {
         System.setOut(originalOut);
     }
 
+    @Test
+    public void testPrintShortestPaths_EachPathOnce() throws IOException {
+        Main.buildGraph(Main.processText("./file.txt"));
+        String first = Main.printShortestPaths(Main.allShortestPaths("to", "new"));
+        String[] lines = outContent.toString().split("\\R");
+        assertEquals(3, lines.length);
+        assertEquals("共有 2 条等长的最短路径，前 2 条：", lines[0]);
+        assertEquals(first, lines[1]);
+        assertNotEquals(first, lines[2]);
+
+        outContent.reset();
+        String only = Main.printShortestPaths(Main.allShortestPaths("to", "out"));
+        assertEquals(only + System.lineSeparator(), outContent.toString());
+    }
+
     @Test
     public void testShortestPath_1() throws IOException {
         String word1 = "to";
@@ -43,6 +69,19 @@ public class MainTest {
         assertTrue(expectedResults.contains(result));
     }
 
+    @Test
+    public void testAllShortestPaths() throws IOException {
+        Set<String> expectedResults = new HashSet<>(Arrays.asList("to seek out new ", "to explore strange new "));
+        Main.buildGraph(Main.processText("./file.txt"));
+        AllShortestPaths paths = Main.allShortestPaths("to", "new");
+        assertEquals(2, paths.pathCount());
+        assertEquals(expectedResults, new HashSet<>(paths.pathStrings(10)));
+        assertEquals(2, Main.countShortestPaths("to", "new"));
+        assertEquals(1, Main.allShortestPaths("to", "new", 1).size());
+        assertNull(Main.allShortestPaths("to", "djx"));
+        assertEquals(0, Main.countShortestPaths("to", "djx"));
+    }
+
     @Test
     public void testShortestPath_2() throws IOException {
         String word1 = "to";
@@ -210,4 +249,111 @@ public class MainTest {
         assertEquals(expectedResult, result);
         assertEquals(expectedOutput, outContent.toString().trim());
     }
+
+    @Test
+    public void testIngestDocument_LinkPrevious() {
+        long version = Main.graphVersion();
+        Main.ingestDocument("ingestalpha ingestbeta", false);
+        Main.ingestDocument("ingestgamma ingestalpha", true);
+        assertEquals(version + 2, Main.graphVersion());
+        assertEquals("ingestbeta", Main.queryBridgeWords("ingestalpha", "ingestgamma"));
+        assertEquals("ingestgamma", Main.queryBridgeWords("ingestbeta", "ingestalpha"));
+    }
+
+    @Test
+    public void testIngestDocument_NoLink() {
+        Main.ingestDocument("ingestdelta ingestepsilon", false);
+        Main.ingestDocument("ingestzeta", false);
+        assertEquals("", Main.queryBridgeWords("ingestdelta", "ingestzeta"));
+        long version = Main.graphVersion();
+        Main.ingestDocument("  ", true);
+        assertEquals(version, Main.graphVersion());
+    }
+
+    @Test
+    public void testIngestDocument_RefreshesFrozenGraph() {
+        FrozenGraph before = Main.freezeGraph();
+        assertSame(before, Main.freezeGraph());
+        Main.ingestDocument("ingesteta ingesttheta", false);
+        FrozenGraph after = Main.freezeGraph();
+        assertNotSame(before, after);
+        assertEquals(-1, before.id("ingesteta"));
+        assertEquals("ingesteta ingesttheta ", Main.shortestPath("ingesteta", "ingesttheta"));
+    }
+
+    @Test
+    public void testShowNeighbourhood_Headless() {
+        boolean headless = Main.headless;
+        Main.headless = true;
+        try {
+            Main.ingestDocument("egoa egob egoc egod egoe", false);
+            assertEquals("egoc egod egob", Main.showNeighbourhood("egoc", 1));
+            assertEquals("egoc egod egob egoe egoa", Main.showNeighbourhood("egoc", 2));
+            assertNull(Main.showNeighbourhood("egox", 1));
+        } finally {
+            Main.headless = headless;
+        }
+    }
+
+    @Test
+    public void testQueryCache_InvalidatedOnChange() {
+        Main.ingestDocument("cachea cacheb cachec", false);
+        long hits = Main.queryCacheStats().hits();
+        assertEquals("cacheb", Main.queryBridgeWords("cachea", "cachec"));
+        assertEquals("cachea cacheb cachec ", Main.shortestPath("cachea", "cachec"));
+        assertEquals("cacheb", Main.queryBridgeWords("cachea", "cachec"));
+        assertEquals("cachea cacheb cachec ", Main.shortestPath("cachea", "cachec"));
+        assertEquals(hits + 2, Main.queryCacheStats().hits());
+        // 新的文本加了一条更短的边和另一个桥接词，旧结果不能再被返回
+        Main.ingestDocument("cachea cachec cachea cached cachec", false);
+        assertEquals(0, Main.queryCacheStats().size());
+        assertEquals(new TreeSet<>(Arrays.asList("cacheb", "cached")),
+                new TreeSet<>(Arrays.asList(Main.queryBridgeWords("cachea", "cachec").split(" "))));
+        assertEquals("cachea cachec ", Main.shortestPath("cachea", "cachec"));
+    }
+
+    @Test
+    public void testMain_StartsFromSnapshot() throws IOException {
+        boolean headless = Main.headless;
+        Scanner scanner = Main.scanner;
+        Path text = folder.getRoot().toPath().resolve("corpus.txt");
+        Files.copy(Paths.get("./file.txt"), text);
+        Path snapshot = Main.snapshotPathFor(text);
+        try {
+            // 不加 --reuse-snapshot 时不在文本旁边写文件
+            Main.scanner = new Scanner(text + "\n8\n");
+            Main.main(new String[] {"--headless"});
+            assertFalse(Files.exists(snapshot));
+
+            Main.scanner = new Scanner(text + "\n8\n");
+            Main.main(new String[] {"--headless", "--reuse-snapshot"});
+            assertTrue(Files.exists(snapshot));
+
+            // 第二次启动不读文本，加载快照后使用同样的菜单
+            Main.clearGraph();
+            outContent.reset();
+            Main.scanner = new Scanner(text + "\n1\nto\nout\n3\n1\nto\nnew\n6\nto\n1\n8\n");
+            Main.main(new String[] {"--headless", "--reuse-snapshot"});
+            String output = outContent.toString();
+            assertTrue(output.contains("已加载快照"));
+            assertTrue(output.contains("The bridge words from \"to\" to \"out\" is: seek"));
+            assertTrue(output.contains("共有 2 条等长的最短路径"));
+            assertTrue(output.contains("邻域：to "));
+
+            // 也可以直接指定快照
+            Main.clearGraph();
+            Main.scanner = new Scanner("8\n");
+            Main.main(new String[] {"--headless", "--snapshot", snapshot.toString()});
+            assertEquals("seek", Main.queryBridgeWords("to", "out"));
+
+            // 文本比快照新时重新建图
+            Files.setLastModifiedTime(text, FileTime.fromMillis(
+                    Files.getLastModifiedTime(snapshot).toMillis() + 1000));
+            assertFalse(Main.loadFreshSnapshot(text));
+        } finally {
+            Main.headless = headless;
+            Main.scanner = scanner;
+            Main.clearGraph();
+        }
+    }
 }
@@ -0,0 +1,89 @@
+package org.example;
+
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+
+public class MetricsTest {
+
+    @After
+    public void disableMetrics() {
+        Metrics.setEnabled(false);
+        Metrics.setSlowQueryNanos(100_000_000L);
+        Metrics.reset();
+    }
+
+    @Test
+    public void testHistogramPrecision() {
+        Random random = new Random(5);
+        for (int i = 0; i < 10_000; i++) {
+            long value = random.nextLong() >>> (1 + random.nextInt(63));
+            long bucketMax = LatencyHistogram.highestValue(LatencyHistogram.index(value));
+            assertTrue(value <= bucketMax);
+            assertTrue(bucketMax - value <= value / 32);
+        }
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long v = 1; v <= 100_000; v++) {
+            histogram.record(v);
+        }
+        assertEquals(100_000, histogram.count());
+        assertEquals(100_000, histogram.max());
+        assertEquals(50_000.5, histogram.mean(), 1e-9);
+        assertEquals(50_000, histogram.percentile(0.5), 50_000 / 32);
+        assertEquals(99_000, histogram.percentile(0.99), 99_000 / 32);
+        assertEquals(100_000, histogram.percentile(1.0));
+    }
+
+    @Test
+    public void testDisabledRecordsNothing() throws IOException {
+        Metrics.reset();
+        assertEquals(0, Metrics.start());
+        new QueryService(FrozenGraphTest.fileGraph()).shortestPath("to", "new");
+        assertEquals(0, Metrics.histogram(Metrics.Operation.SHORTEST_PATH).count());
+        // 建图阶段也不创建 JFR 事件；在局部的 GraphStore 中建图，不改动 Main 的全局状态
+        assertNull(Metrics.beginPhase());
+        new GraphStore().ingest("metricsa metricsb", false);
+        assertEquals(0, Metrics.histogram(Metrics.Operation.FREEZE_GRAPH).count());
+    }
+
+    @Test
+    public void testQueriesAndSlowQueryEvents() throws IOException {
+        Metrics.reset();
+        Metrics.setEnabled(true);
+        Metrics.setSlowQueryNanos(0);
+        QueryService service = new QueryService(FrozenGraphTest.fileGraph());
+        Path file = Files.createTempFile("metrics", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(SlowQueryEvent.class);
+            recording.start();
+            service.shortestPath("to", "new");
+            service.bridgeWords("to", "out");
+            recording.stop();
+            recording.dump(file);
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            assertEquals(2, events.size());
+            assertEquals("shortestPath", events.get(0).getString("operation"));
+            assertEquals("to -> new", events.get(0).getString("query"));
+            assertTrue(events.get(0).getLong("settledNodes") > 0);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        assertEquals(1, Metrics.histogram(Metrics.Operation.SHORTEST_PATH).count());
+        assertEquals(1, Metrics.histogram(Metrics.Operation.BRIDGE_WORDS).count());
+        assertTrue(Metrics.settledNodes() > 0);
+        assertEquals(2, Metrics.slowQueries());
+        assertTrue(Metrics.report().get(0).startsWith("bridgeWords count=1 "));
+        assertEquals("words=10 edges=12 maxOutDegree=3 maxInDegree=3",
+                Metrics.GraphStats.of(service.graph()).toString());
+    }
+}
@@ -0,0 +1,105 @@
+package org.example;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.nio.file.Path;
+import java.util.Map;
+
+
+public class OffHeapGraphTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testCopyMatchesFrozenGraph() throws IOException {
+        Map<String, Type> nodes = GraphSnapshotTest.typeGraphWithIncoming(
+                Main.processText("./file.txt") + " ünïcödé 漢字 to new");
+        FrozenGraph frozen = FrozenGraph.of(nodes);
+        try (Arena arena = Arena.ofConfined()) {
+            OffHeapGraph offHeap = OffHeapGraph.copyOf(frozen, arena);
+            GraphSnapshotTest.assertSameGraph(nodes, frozen, offHeap);
+            QueryService expected = new QueryService(frozen);
+            QueryService actual = new QueryService(offHeap);
+            assertEquals(expected.shortestPath("to", "civilizations"),
+                    actual.shortestPath("to", "civilizations"));
+            assertEquals(expected.bridgeWords("to", "out"), actual.bridgeWords("to", "out"));
+            assertEquals(expected.generateNewText("seek to explore new"),
+                    actual.generateNewText("seek to explore new"));
+            for (long seed = 0; seed < 20; seed++) {
+                assertEquals(expected.randomWalk(seed), actual.randomWalk(seed));
+            }
+        }
+    }
+
+    @Test
+    public void testIdComparesUtf8Bytes() throws IOException {
+        // 增补平面字符在 String 的字典序中排在 U+FF41 之前，在 UTF-8 字节序中排在之后
+        FrozenGraph frozen = FrozenGraph.of(GraphSnapshotTest.typeGraphWithIncoming(
+                "a ab abc \uFF41 \uFF41b \uD83D\uDE00 \uD83D\uDE00a z \u00E9 \u6F22"));
+        Path path = folder.newFile("order.snapshot").toPath();
+        GraphSnapshot.write(frozen, path);
+        try (Arena arena = Arena.ofConfined()) {
+            WordGraph[] graphs = {
+                OffHeapGraph.copyOf(frozen, arena), OffHeapGraph.map(path, arena),
+                GraphSnapshot.open(path),
+            };
+            for (WordGraph graph : graphs) {
+                for (int v = 0; v < frozen.nodeCount(); v++) {
+                    assertEquals(frozen.word(v), v, graph.id(frozen.word(v)));
+                }
+                for (String missing : new String[] {"", "b", "abcd", "\uFF41a", "\uD83D\uDE00b"}) {
+                    assertEquals(missing, -1, graph.id(missing));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMapSnapshot() throws IOException {
+        FrozenGraph frozen = ShortestPathTreeTest.randomGraph(17, 2000, 20000);
+        Path path = folder.newFile("random.snapshot").toPath();
+        GraphSnapshot.write(frozen, path);
+        OffHeapGraph mapped;
+        try (Arena arena = Arena.ofShared()) {
+            mapped = OffHeapGraph.map(path, arena);
+            assertEquals(frozen.edgeCount(), mapped.edgeCount());
+            for (int v = 0; v < frozen.nodeCount(); v++) {
+                assertEquals(frozen.word(v), mapped.word(v));
+                assertEquals(v, mapped.id(frozen.word(v)));
+                assertEquals(GraphSnapshotTest.edges(frozen, v, true),
+                        GraphSnapshotTest.edges(mapped, v, true));
+                assertEquals(GraphSnapshotTest.edges(frozen, v, false),
+                        GraphSnapshotTest.edges(mapped, v, false));
+            }
+            ShortestPathEngine engine = new ShortestPathEngine(mapped);
+            ShortestPathTree tree = ShortestPathTree.compute(frozen, 0);
+            for (int target = 0; target < frozen.nodeCount(); target += 7) {
+                engine.shortestPath(0, target);
+                assertEquals(tree.distance(target) == ShortestPathTree.UNREACHABLE
+                        ? Long.MAX_VALUE : tree.distance(target), engine.lastDistance());
+            }
+        }
+        try {
+            mapped.outDegree(0);
+            fail("access after the arena is closed");
+        } catch (IllegalStateException expected) {
+            // 映射已随 Arena 释放
+        }
+    }
+
+    @Test
+    public void testRejectsOtherFiles() {
+        try (Arena arena = Arena.ofConfined()) {
+            OffHeapGraph.map(Path.of("./file.txt"), arena);
+            fail("bad magic expected");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage().contains("not a graph snapshot"));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.example;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+
+public class ParallelGraphBuilderTest {
+
+    private static Map<String, Map<String, Integer>> sequential(String text) {
+        Map<String, Map<String, Integer>> graph = new HashMap<>();
+        String prev = null;
+        for (String word : text.split("\\s+")) {
+            graph.computeIfAbsent(word, k -> new HashMap<>());
+            if (prev != null) {
+                graph.get(prev).merge(word, 1, Integer::sum);
+            }
+            prev = word;
+        }
+        return graph;
+    }
+
+    private static Map<String, Map<String, Integer>> parallel(String text, int minChunk) {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Map<String, Map<String, Integer>> graph = new HashMap<>();
+            new ParallelGraphBuilder(pool, minChunk).count(text).forEach((word, edges) -> {
+                Map<String, Integer> out = new HashMap<>();
+                edges.forEach((target, weight) -> out.put(target, weight[0]));
+                graph.put(word, out);
+            });
+            return graph;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testSameGraphAsSequential() throws IOException {
+        String text = Main.processText("./file.txt");
+        assertEquals(sequential(text), parallel(text, 1));
+        assertEquals(sequential(text), parallel(text, ParallelGraphBuilder.DEFAULT_MIN_CHUNK));
+    }
+
+    @Test
+    public void testRandomTextWithSmallChunks() {
+        Random random = new Random(42);
+        String[] vocabulary = {"to", "seek", "out", "new", "life", "and", "civilizations"};
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            text.append(vocabulary[random.nextInt(vocabulary.length)]);
+            text.append(random.nextInt(10) == 0 ? "  \n" : " ");
+        }
+        for (int chunk : new int[] {1, 7, 100, 1 << 20}) {
+            assertEquals(sequential(text.toString()), parallel(text.toString(), chunk));
+        }
+    }
+
+    @Test
+    public void testSplitEdgeCases() {
+        for (String text : new String[] {"", " ", "a", " a b", "a b ", "\ta\t\tb a"}) {
+            assertEquals(text, sequential(text), parallel(text, 1));
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package org.example;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+public class QueryCacheTest {
+
+    @Test
+    public void testBoundedWithStats() {
+        QueryCache<Integer, String> cache = new QueryCache<>(100);
+        AtomicInteger loads = new AtomicInteger();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("v" + i, cache.get(i, k -> {
+                loads.incrementAndGet();
+                return "v" + k;
+            }));
+        }
+        assertEquals(1000, loads.get());
+        assertTrue(cache.size() <= 100);
+        QueryCache.Stats stats = cache.stats();
+        assertEquals(0, stats.hits());
+        assertEquals(1000, stats.misses());
+        assertEquals(1000 - cache.size(), stats.evictions());
+
+        assertNull(cache.get(-1, k -> null));
+        assertNull(cache.getIfPresent(-1));
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+        assertNull(cache.getIfPresent(999));
+    }
+
+    @Test
+    public void testHotKeysSurviveScan() {
+        QueryCache<Integer, Integer> cache = new QueryCache<>(200);
+        // 热点键先被访问多次，之后每个热点键夹在大量只出现一次的键之间
+        for (int round = 0; round < 5; round++) {
+            for (int hot = 0; hot < 50; hot++) {
+                cache.get(hot, k -> k);
+            }
+        }
+        for (int i = 0; i < 100_000; i++) {
+            cache.get(1000 + i, k -> k);
+            if (i % 1000 == 0) {
+                for (int hot = 0; hot < 50; hot++) {
+                    cache.get(hot, k -> k);
+                }
+            }
+        }
+        int present = 0;
+        for (int hot = 0; hot < 50; hot++) {
+            if (cache.getIfPresent(hot) != null) {
+                present++;
+            }
+        }
+        assertTrue("hot keys kept: " + present, present >= 45);
+        assertTrue(cache.size() <= 200);
+    }
+
+    @Test
+    public void testKeysIncludeVersion() {
+        QueryCache<QueryCache.Key, String> cache = new QueryCache<>(10);
+        cache.get(new QueryCache.Key(QueryCache.BRIDGE_WORDS, "a", "b", 1), k -> "old");
+        assertEquals("old",
+                cache.getIfPresent(new QueryCache.Key(QueryCache.BRIDGE_WORDS, "a", "b", 1)));
+        assertNull(cache.getIfPresent(new QueryCache.Key(QueryCache.BRIDGE_WORDS, "a", "b", 2)));
+        assertNull(cache.getIfPresent(new QueryCache.Key(QueryCache.SHORTEST_PATH, "a", "b", 1)));
+        assertNull(cache.getIfPresent(new QueryCache.Key(QueryCache.BRIDGE_WORDS, "b", "a", 1)));
+    }
+
+    @Test
+    public void testConcurrentMatchesUncached() throws Exception {
+        FrozenGraph graph = ShortestPathTreeTest.randomGraph(60, 200, 3000);
+        QueryService cached = new QueryService(graph, 500);
+        QueryService plain = new QueryService(graph);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int seed = t;
+                futures.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 2000; i++) {
+                        // 偏斜的访问：大多数查询落在少数节点上
+                        int a = random.nextInt(random.nextBoolean() ? 5 : graph.nodeCount());
+                        int b = random.nextInt(random.nextBoolean() ? 5 : graph.nodeCount());
+                        String w1 = graph.word(a);
+                        String w2 = graph.word(b);
+                        assertEquals(plain.bridgeWords(w1, w2), cached.bridgeWords(w1, w2));
+                        assertEquals(plain.shortestPath(w1, w2), cached.shortestPath(w1, w2));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(2, cached.cacheReport().size());
+        assertTrue(plain.cacheReport().isEmpty());
+    }
+
+    @Test
+    public void testCacheHitDoesNotBorrowEngine() throws Exception {
+        QueryService service = new QueryService(FrozenGraphTest.fileGraph(), 10);
+        String path = service.shortestPath("to", "seek");
+        // 借走池中所有的引擎，之后需要引擎的查询会一直等待
+        for (int i = 0; i < Runtime.getRuntime().availableProcessors(); i++) {
+            service.borrowEngine();
+        }
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> cached = executor.submit(() -> service.shortestPath("to", "seek"));
+            assertEquals(path, cached.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
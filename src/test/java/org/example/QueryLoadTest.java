@@ -0,0 +1,190 @@
+package org.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link QueryServer} 的压力测试客户端.
+ * 以固定的并发数发出桥接词、生成文本、最短路径和随机游走四类请求的混合，
+ * 每个请求在各自的虚拟线程中同步等待响应，最后报告吞吐量和延迟分位数。
+ * 放在测试代码中，由 {@link QueryServerTest} 调用，也可以在测试类路径上从命令行运行。
+ */
+public final class QueryLoadTest {
+
+    /**
+     * 一次压力测试的结果.
+     */
+    public static final class Result {
+        private final long[] latencies;
+        private final long failures;
+        private final long elapsedNanos;
+
+        Result(long[] latencies, long failures, long elapsedNanos) {
+            this.latencies = latencies;
+            this.failures = failures;
+            this.elapsedNanos = elapsedNanos;
+            Arrays.sort(latencies);
+        }
+
+        /**
+         * 延迟分位数.
+         *
+         * @param quantile 0 到 1 之间的分位.
+         * @return 纳秒；没有请求时返回 0.
+         */
+        public long percentile(double quantile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * latencies.length) - 1;
+            return latencies[Math.max(0, Math.min(index, latencies.length - 1))];
+        }
+
+        /**
+         * 状态码不是 2xx 或 404、或发生 I/O 错误的请求数.
+         *
+         * @return 失败数.
+         */
+        public long failures() {
+            return failures;
+        }
+
+        /**
+         * 每秒完成的请求数.
+         *
+         * @return 吞吐量.
+         */
+        public double requestsPerSecond() {
+            return elapsedNanos == 0 ? 0 : latencies.length * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "%d requests, %d failures, %.0f requests/s, "
+                            + "p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, max %.2f ms",
+                    latencies.length, failures, requestsPerSecond(), percentile(0.5) / 1e6,
+                    percentile(0.9) / 1e6, percentile(0.99) / 1e6, percentile(1.0) / 1e6);
+        }
+    }
+
+    private QueryLoadTest() {
+    }
+
+    /**
+     * 执行压力测试.
+     *
+     * @param base        服务地址，如 {@code http://localhost:8080}.
+     * @param words       构造请求参数用的单词.
+     * @param requests    请求总数.
+     * @param concurrency 同时等待响应的最大请求数.
+     * @param seed        随机种子.
+     * @return 结果.
+     * @throws InterruptedException 如果等待时被中断.
+     */
+    public static Result run(URI base, List<String> words, int requests, int concurrency,
+                             long seed) throws InterruptedException {
+        long[] latencies = new long[requests];
+        AtomicLong failures = new AtomicLong();
+        Semaphore inFlight = new Semaphore(concurrency);
+        SplittableRandom random = new SplittableRandom(seed);
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient client = HttpClient.newBuilder().executor(executor).build()) {
+            for (int i = 0; i < requests; i++) {
+                URI uri = base.resolve(randomRequest(words, random));
+                int index = i;
+                inFlight.acquire();
+                executor.execute(() -> {
+                    long begin = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(
+                                HttpRequest.newBuilder(uri).GET().build(),
+                                HttpResponse.BodyHandlers.discarding());
+                        int status = response.statusCode();
+                        if (status / 100 != 2 && status != 404) {
+                            failures.incrementAndGet();
+                        }
+                    } catch (IOException e) {
+                        failures.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        failures.incrementAndGet();
+                    } finally {
+                        latencies[index] = System.nanoTime() - begin;
+                        inFlight.release();
+                    }
+                });
+            }
+            inFlight.acquire(concurrency);
+        }
+        return new Result(latencies, failures.get(), System.nanoTime() - start);
+    }
+
+    private static String randomRequest(List<String> words, SplittableRandom random) {
+        String word1 = encode(words.get(random.nextInt(words.size())));
+        String word2 = encode(words.get(random.nextInt(words.size())));
+        switch (random.nextInt(4)) {
+            case 0:
+                return "/bridge?word1=" + word1 + "&word2=" + word2;
+            case 1:
+                return "/generate?text=" + word1 + "+" + word2 + "+" + word1;
+            case 2:
+                return "/path?start=" + word1 + "&end=" + word2;
+            default:
+                return "/walks?count=4&maxSteps=32&seed=" + random.nextInt();
+        }
+    }
+
+    private static String encode(String word) {
+        return URLEncoder.encode(word, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 命令行入口.
+     * 用法：{@code QueryLoadTest 服务地址 文本文件 [请求数] [并发数]}，
+     * 请求参数取自文本文件中的单词（最多前 10000 个不同的单词）。
+     *
+     * @param args 命令行参数.
+     * @throws IOException          如果读取文本失败.
+     * @throws InterruptedException 如果等待时被中断.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.err.println("usage: QueryLoadTest base-url text-file [requests] [concurrency]");
+            System.exit(2);
+        }
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+        int concurrency = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+        Set<String> distinct = new LinkedHashSet<>();
+        try (WordTokenizer tokenizer = WordTokenizer.open(Paths.get(args[1]))) {
+            for (String word = tokenizer.nextWord(); word != null && distinct.size() < 10_000;
+                    word = tokenizer.nextWord()) {
+                if (!word.isEmpty()) {
+                    distinct.add(word);
+                }
+            }
+        }
+        List<String> words = new ArrayList<>(distinct);
+        // 先预热，再正式测量
+        run(URI.create(args[0]), words, Math.min(requests, 10_000), concurrency, 1);
+        System.out.println(run(URI.create(args[0]), words, requests, concurrency, 2));
+    }
+}
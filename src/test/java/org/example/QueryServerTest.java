@@ -0,0 +1,117 @@
+package org.example;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+
+public class QueryServerTest {
+
+    private QueryServer server;
+    private URI base;
+
+    @Before
+    public void startServer() throws IOException {
+        server = new QueryServer(new GraphStore(FrozenGraphTest.fileGraph()),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        server.start();
+        base = URI.create("http://localhost:" + server.port());
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            return client.send(HttpRequest.newBuilder(base.resolve(path)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+        }
+    }
+
+    @Test
+    public void testQueries() throws IOException, InterruptedException {
+        assertEquals("{\"result\":[\"seek\"]}", get("/bridge?word1=to&word2=Out").body());
+        HttpResponse<String> missing = get("/bridge?word1=to&word2=djx");
+        assertEquals(404, missing.statusCode());
+        assertEquals("{\"error\":\"No \\\"djx\\\" in the graph !\"}", missing.body());
+        assertEquals(400, get("/path?start=to").statusCode());
+        assertEquals("{\"result\":\"seek to explore strange new\"}",
+                get("/generate?text=seek%20to+explore+new").body());
+        assertTrue(get("/path?start=to&end=new").body().endsWith(" new\"}"));
+        IllegalArgumentException malformed = assertThrows(IllegalArgumentException.class,
+                () -> QueryServer.parse("start=to%zz&end=new"));
+        assertTrue(malformed.getMessage().contains("malformed query string"));
+        assertEquals("{\"count\":2,\"result\":[\"to seek out new \"]}",
+                get("/paths?start=to&end=new&limit=1").body());
+        assertEquals(400, get("/paths?start=to&end=new&limit=x").statusCode());
+        String walks = get("/walks?count=3&seed=9").body();
+        assertEquals(walks, get("/walks?count=3&seed=9").body());
+        assertTrue(walks.startsWith("{\"result\":[\""));
+    }
+
+    @Test
+    public void testEstimate() throws IOException, InterruptedException {
+        // 小图没有距离表
+        assertEquals(503, get("/estimate?start=to&end=new").statusCode());
+        server.stop(0);
+        FrozenGraph graph = FrozenGraphTest.fileGraph();
+        LandmarkIndex index = LandmarkIndex.build(graph, graph.nodeCount());
+        server = new QueryServer(new GraphStore(graph, index),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        server.start();
+        base = URI.create("http://localhost:" + server.port());
+        // 所有节点都是路标时估计值就是最短距离
+        long distance =
+                ShortestPathTreeTest.referenceDistances(graph, graph.id("to"))[graph.id("new")];
+        assertEquals("{\"result\":" + distance + "}", get("/estimate?start=to&end=new").body());
+        assertEquals(404, get("/estimate?start=to&end=djx").statusCode());
+        assertEquals(400, get("/estimate?start=to").statusCode());
+    }
+
+    @Test
+    public void testIngest() throws IOException, InterruptedException {
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            HttpResponse<String> response = client.send(
+                    HttpRequest.newBuilder(base.resolve("/ingest?link=false"))
+                            .POST(HttpRequest.BodyPublishers.ofString("Out, brave Worlds!")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals("{\"version\":1,\"words\":11,\"edges\":14}", response.body());
+        }
+        assertEquals("{\"result\":[\"brave\",\"new\"]}", get("/bridge?word1=out&word2=worlds").body());
+    }
+
+    @Test
+    public void testIngestDecodesBodyAsUtf8() throws IOException, InterruptedException {
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            HttpResponse<String> response = client.send(
+                    HttpRequest.newBuilder(base.resolve("/ingest?link=false"))
+                            .POST(HttpRequest.BodyPublishers.ofByteArray(
+                                    "Straße, ÉCOLE".getBytes(StandardCharsets.UTF_8))).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode());
+        }
+        assertEquals("{\"result\":\"straße école\"}",
+                get("/path?start=stra%C3%9Fe&end=%C3%A9cole").body());
+    }
+
+    @Test
+    public void testConcurrentLoad() throws InterruptedException {
+        QueryLoadTest.Result result = QueryLoadTest.run(base,
+                Arrays.asList("to", "seek", "new", "worlds", "civilizations", "djx"), 2000, 500, 3);
+        assertEquals(0, result.failures());
+        assertTrue(result.percentile(0.5) <= result.percentile(0.99));
+    }
+}
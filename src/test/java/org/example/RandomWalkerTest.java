@@ -0,0 +1,58 @@
+package org.example;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+public class RandomWalkerTest {
+
+    @Test
+    public void testSamplingIsProportionalToWeight() {
+        // a -> b (1), a -> c (3), a -> d (6)
+        FrozenGraph graph = new FrozenGraph(new String[] {"a", "b", "c", "d"},
+                new int[] {0, 3, 3, 3, 3}, new int[] {1, 2, 3}, new int[] {1, 3, 6});
+        RandomWalker walker = new RandomWalker(graph);
+        SplittableRandom random = new SplittableRandom(1);
+        int[] counts = new int[4];
+        int samples = 200_000;
+        for (int i = 0; i < samples; i++) {
+            counts[walker.walk(0, random, 1)[1]]++;
+        }
+        assertEquals(0.1, counts[1] / (double) samples, 0.01);
+        assertEquals(0.3, counts[2] / (double) samples, 0.01);
+        assertEquals(0.6, counts[3] / (double) samples, 0.01);
+    }
+
+    @Test
+    public void testWalksAreReproducibleAndValid() {
+        FrozenGraph graph = ShortestPathTreeTest.randomGraph(9, 100, 2000);
+        RandomWalker walker = new RandomWalker(graph);
+        ConcurrentHashMap<Long, String> sequential = new ConcurrentHashMap<>();
+        ConcurrentHashMap<Long, String> parallel = new ConcurrentHashMap<>();
+        walker.walks(2000, 42, -1, false, (index, path, length) -> {
+            sequential.put(index, Arrays.toString(Arrays.copyOf(path, length)));
+            Set<Long> edges = new HashSet<>();
+            for (int i = 0; i + 1 < length; i++) {
+                assertTrue(graph.edgeWeight(path[i], path[i + 1]) > 0);
+                assertTrue(edges.add(((long) path[i] << 32) | path[i + 1]));
+            }
+        });
+        walker.walks(2000, 42, -1, true, (index, path, length) ->
+                parallel.put(index, Arrays.toString(Arrays.copyOf(path, length))));
+        assertEquals(2000, sequential.size());
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    public void testMaxSteps() {
+        FrozenGraph graph = ShortestPathTreeTest.randomGraph(9, 100, 2000);
+        RandomWalker walker = new RandomWalker(graph);
+        walker.walks(500, 1, 3, true, (index, path, length) -> assertTrue(length <= 4));
+    }
+}
@@ -0,0 +1,98 @@
+package org.example;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+
+public class ShortestPathEngineTest {
+
+    @Test
+    public void testBidirectionalMatchesSingleSource() {
+        FrozenGraph graph = ShortestPathTreeTest.randomGraph(11, 500, 4000);
+        ShortestPathEngine engine = new ShortestPathEngine(graph);
+        Random random = new Random(2);
+        for (int i = 0; i < 50; i++) {
+            int source = random.nextInt(graph.nodeCount());
+            ShortestPathTree tree = ShortestPathTree.compute(graph, source);
+            for (int j = 0; j < 40; j++) {
+                int target = random.nextInt(graph.nodeCount());
+                int[] path = engine.shortestPath(source, target);
+                if (tree.distance(target) == ShortestPathTree.UNREACHABLE) {
+                    assertNull(path);
+                    assertEquals(Long.MAX_VALUE, engine.lastDistance());
+                } else {
+                    assertEquals(source, path[0]);
+                    assertEquals(target, path[path.length - 1]);
+                    assertEquals(tree.distance(target), engine.lastDistance());
+                    assertEquals(tree.distance(target), ShortestPathTreeTest.pathWeight(graph, path));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testExploresFewerNodesOnChain() {
+        // 长链上相邻两点之间的查询只需要访问常数个节点
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            text.append('w').append(i).append(' ');
+        }
+        FrozenGraph graph = FrozenGraph.of(FrozenGraphTest.typeGraph(text.toString().trim()));
+        ShortestPathEngine engine = new ShortestPathEngine(graph);
+        assertEquals("w5000 w5001 ", engine.shortestPath("w5000", "w5001"));
+        assertTrue(engine.lastSettledCount() < 10);
+        assertEquals(GraphQueries.NO_PATH, engine.shortestPath("w5001", "w5000"));
+    }
+
+    /** 从终点倒推、每一步取编号最小的最短路径前驱得到的路径. */
+    static int[] smallestPredecessorPath(WordGraph graph, int source, int target) {
+        long[] distances = ShortestPathTreeTest.referenceDistances(graph, source);
+        if (distances[target] == ShortestPathTree.UNREACHABLE) {
+            return null;
+        }
+        List<Integer> reversed = new ArrayList<>();
+        reversed.add(target);
+        for (int node = target; node != source; ) {
+            int v = node;
+            int[] smallest = {Integer.MAX_VALUE};
+            graph.forEachPredecessor(v, (previous, weight) -> {
+                if (distances[previous] != ShortestPathTree.UNREACHABLE
+                        && distances[previous] + weight == distances[v]) {
+                    smallest[0] = Math.min(smallest[0], previous);
+                }
+            });
+            node = smallest[0];
+            reversed.add(node);
+        }
+        int[] path = new int[reversed.size()];
+        for (int i = 0; i < path.length; i++) {
+            path[i] = reversed.get(path.length - 1 - i);
+        }
+        return path;
+    }
+
+    @Test
+    public void testTiesBrokenTheSameWithAndWithoutLandmarks() {
+        // 权重是小整数，等长的最短路径很多
+        FrozenGraph graph = LandmarkIndexTest.twoPartGraph(21);
+        ShortestPathEngine plain = new ShortestPathEngine(graph);
+        ShortestPathEngine alt = new ShortestPathEngine(graph, LandmarkIndex.build(graph, 8));
+        int tied = 0;
+        for (int source = 0; source < graph.nodeCount(); source += 5) {
+            for (int target = 0; target < graph.nodeCount(); target += 3) {
+                int[] expected = smallestPredecessorPath(graph, source, target);
+                assertArrayEquals(expected, plain.shortestPath(source, target));
+                assertArrayEquals(expected, alt.shortestPath(source, target));
+                if (expected != null && AllShortestPaths.compute(graph, graph.word(source),
+                        graph.word(target)).pathCount() > 1) {
+                    tied++;
+                }
+            }
+        }
+        assertTrue(tied > 100);
+    }
+}
@@ -0,0 +1,107 @@
+package org.example;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+
+public class ShortestPathTreeTest {
+
+    static FrozenGraph randomGraph(long seed, int vocabulary, int length) {
+        Random random = new Random(seed);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append('w').append(random.nextInt(vocabulary)).append(' ');
+        }
+        Map<String, Type> nodes = FrozenGraphTest.typeGraph(text.toString().trim());
+        return FrozenGraph.of(nodes);
+    }
+
+    /** Bellman-Ford 作为参照. */
+    static long[] referenceDistances(WordGraph graph, int source) {
+        long[] distances = new long[graph.nodeCount()];
+        Arrays.fill(distances, ShortestPathTree.UNREACHABLE);
+        distances[source] = 0;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int v = 0; v < graph.nodeCount(); v++) {
+                if (distances[v] == ShortestPathTree.UNREACHABLE) {
+                    continue;
+                }
+                long base = distances[v];
+                boolean[] updated = {false};
+                graph.forEachSuccessor(v, (next, weight) -> {
+                    if (base + weight < distances[next]) {
+                        distances[next] = base + weight;
+                        updated[0] = true;
+                    }
+                });
+                changed |= updated[0];
+            }
+        }
+        return distances;
+    }
+
+    static long pathWeight(WordGraph graph, int[] path) {
+        long total = 0;
+        for (int i = 0; i + 1 < path.length; i++) {
+            int weight = graph.edgeWeight(path[i], path[i + 1]);
+            assertTrue(weight > 0);
+            total += weight;
+        }
+        return total;
+    }
+
+    @Test
+    public void testDistancesAndPaths() {
+        FrozenGraph graph = randomGraph(3, 300, 3000);
+        for (int source = 0; source < graph.nodeCount(); source += 37) {
+            ShortestPathTree tree = ShortestPathTree.compute(graph, source);
+            long[] expected = referenceDistances(graph, source);
+            for (int target = 0; target < graph.nodeCount(); target++) {
+                assertEquals(expected[target], tree.distance(target));
+                int[] path = tree.path(target);
+                if (expected[target] == ShortestPathTree.UNREACHABLE) {
+                    assertNull(path);
+                } else {
+                    assertEquals(source, path[0]);
+                    assertEquals(expected[target], pathWeight(graph, path));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testForEachPathVisitsEveryReachableNodeOnce() {
+        FrozenGraph graph = randomGraph(5, 200, 1500);
+        ShortestPathTree tree = ShortestPathTree.compute(graph, 0);
+        Set<Integer> seen = new HashSet<>();
+        tree.forEachPath((target, path, length) -> {
+            assertTrue(seen.add(target));
+            assertArrayEquals(tree.path(target), Arrays.copyOf(path, length));
+        });
+        for (int target = 1; target < graph.nodeCount(); target++) {
+            assertEquals(tree.distance(target) != ShortestPathTree.UNREACHABLE,
+                    seen.contains(target));
+        }
+        assertFalse(seen.contains(0));
+    }
+
+    @Test
+    public void testPathStringMatchesMainFormat() throws IOException {
+        FrozenGraph graph = FrozenGraphTest.fileGraph();
+        ShortestPathTree tree = ShortestPathTree.compute(graph, "to");
+        Set<String> expected = new HashSet<>(Arrays.asList("to seek out new ", "to explore strange new "));
+        assertTrue(expected.contains(tree.pathString("new")));
+        assertEquals("to ", tree.pathString("to"));
+        assertEquals(GraphQueries.NO_PATH, tree.pathString("djx"));
+        assertNull(ShortestPathTree.compute(graph, "djx"));
+    }
+}
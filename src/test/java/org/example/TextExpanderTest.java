@@ -0,0 +1,70 @@
+package org.example;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+
+public class TextExpanderTest {
+
+    private static final String[] INPUTS = {
+        "",
+        "   ",
+        "to out strange worlds",
+        "  and life to out new to out seek",
+        "explore new and\tnew\n\nseek new life and new civilizations to out ",
+    };
+
+    private final PrintStream originalOut = System.out;
+    private FrozenGraph graph;
+
+    @Before
+    public void setUp() throws IOException {
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+        Main.buildGraph(Main.processText("./file.txt"));
+        graph = Main.freezeGraph();
+    }
+
+    @After
+    public void restoreStreams() {
+        System.setOut(originalOut);
+    }
+
+    @Test
+    public void testSameAsGenerateNewText() {
+        TextExpander expander = new TextExpander(graph);
+        for (String input : INPUTS) {
+            assertEquals(input, Main.generateNewText(input), expander.expand(input));
+        }
+        assertEquals("to seek out strange new worlds", expander.expand("to out strange worlds"));
+    }
+
+    @Test
+    public void testSmallChunksInParallel() throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            for (int chunk : new int[] {1, 3, 8}) {
+                TextExpander expander = new TextExpander(graph, chunk);
+                for (String input : INPUTS) {
+                    StringBuilder sequential = new StringBuilder();
+                    expander.expand(new StringReader(input), sequential);
+                    StringBuilder parallel = new StringBuilder();
+                    expander.expand(new StringReader(input), parallel, executor, 2);
+                    String expected = Main.generateNewText(input);
+                    assertEquals(expected, sequential.toString());
+                    assertEquals(expected, parallel.toString());
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.example;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+
+
+public class TextNormalizerTest {
+
+    /** 以 ASCII 为主，夹杂各种标点、控制空白、非 ASCII 字母与空白、代理对和非法字节. */
+    private static final String[] PIECES = {
+        "The", "quick", "BROWN", "fox", " ", "  ", "\n", "\r\n", "\r", "\t", "\u000B", "\f",
+        "\u001C", "\u001F", ",", ".", "-", "'", "\\", "[x]", "{y}", "~", "`", "@", "42", "\u007F",
+        "\u0000", "é", "ÉCOLE", "ΟΔΟΣ", "Σ", "漢字", "　", " ", " ", "İ", "K",
+        "😀", "ß", "ǅ",
+    };
+
+    private static void assertSameAsScalar(byte[] text) {
+        String expected = TextNormalizer.normalizeScalar(new String(text));
+        assertEquals(expected, TextNormalizer.normalize(text, false));
+        assertEquals(expected, TextNormalizer.normalize(text, true));
+    }
+
+    private static byte[] randomText(Random random, int pieces, double asciiLetters) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < pieces; i++) {
+            if (random.nextDouble() < asciiLetters) {
+                text.append(PIECES[random.nextInt(4)]).append(' ');
+            } else {
+                text.append(PIECES[random.nextInt(PIECES.length)]);
+            }
+        }
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        // 少量截断的多字节序列
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] < 0 && random.nextInt(50) == 0) {
+                bytes[i] = 'x';
+            }
+        }
+        return bytes;
+    }
+
+    @Test
+    public void testMatchesScalarOnCorpus() throws IOException {
+        byte[] text = Files.readAllBytes(Paths.get("./file.txt"));
+        assertSameAsScalar(text);
+        assertEquals(TextNormalizer.normalizeScalar(new String(text)),
+                Main.processText("./file.txt"));
+    }
+
+    @Test
+    public void testMatchesScalarOnRandomText() {
+        Random random = new Random(25);
+        for (int round = 0; round < 2000; round++) {
+            // 长度跨过 32/64 字节的块边界
+            assertSameAsScalar(randomText(random, random.nextInt(80),
+                    round % 2 == 0 ? 0.95 : 0.5));
+        }
+        for (int length = 0; length < 200; length++) {
+            byte[] bytes = new byte[length];
+            for (int i = 0; i < length; i++) {
+                bytes[i] = (byte) random.nextInt(128);
+            }
+            assertSameAsScalar(bytes);
+        }
+    }
+
+    @Test
+    public void testEdgeCases() {
+        String[] texts = {
+            "", " ", "\r\n", "A", "Hello, World!\r\nIt's 2024.", "a\\b", "x\ry", "a \t b",
+            "\t\u001Cword\u001F\t", "ΟΔΟΣ ΟΔΟΣ.", "  Ünïcödé  ", "x".repeat(64) + "\r",
+            "\r" + "\n".repeat(70), "y".repeat(63) + "é" + "Z".repeat(65),
+        };
+        for (String text : texts) {
+            assertSameAsScalar(text.getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals("hello world it s", TextNormalizer.normalize(
+                "Hello, World!\r\nIt's 2024.".getBytes(StandardCharsets.UTF_8)));
+        assertEquals("ab", TextNormalizer.normalize("a\\b".getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,105 @@
+package org.example;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+
+public class WordTokenizerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static List<String> expected(Path path) throws IOException {
+        return Arrays.asList(Main.processText(path.toString()).split("\\s+"));
+    }
+
+    private static List<String> tokenize(Path path, int chunkBytes) throws IOException {
+        return tokenize(path, chunkBytes, TextNormalizer.byteLevelSafe());
+    }
+
+    private static List<String> tokenize(Path path, int chunkBytes, boolean byteLevel)
+            throws IOException {
+        List<String> words = new ArrayList<>();
+        try (WordTokenizer tokenizer = new WordTokenizer(path, chunkBytes, byteLevel)) {
+            for (String word = tokenizer.nextWord(); word != null; word = tokenizer.nextWord()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private Path write(String text) throws IOException {
+        Path path = folder.newFile().toPath();
+        Files.write(path, text.getBytes(Charset.defaultCharset()));
+        return path;
+    }
+
+    @Test
+    public void testSameWordsAsProcessText() throws IOException {
+        Path path = Paths.get("./file.txt");
+        assertEquals(expected(path), tokenize(path, WordTokenizer.DEFAULT_CHUNK_BYTES));
+    }
+
+    @Test
+    public void testEdgeCases() throws IOException {
+        String[] texts = {
+            "",
+            "   \r\n  ",
+            "Hello, World!\r\nIt's 2024 -- don't\tPANIC\u000B\fnow.",
+            "abc123def x_y a-b",
+            "\u001C lead \u001C mid\u001Cword \u001C",
+            "\u001C  wide space  nbsp",
+            "Ünïcödé ΣΊΣΥΦΟΣ straße İstanbul 漢字、かな。",
+            "emoji 😀 in𝐀side",
+        };
+        for (String text : texts) {
+            Path path = write(text);
+            assertEquals(text, expected(path), tokenize(path, WordTokenizer.DEFAULT_CHUNK_BYTES));
+        }
+    }
+
+    @Test
+    public void testChunkBoundaries() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            text.append("Wörd").append(i % 7).append(" 漢字-text,\n");
+        }
+        Path path = write(text.toString());
+        List<String> expected = expected(path);
+        for (int chunk : new int[] {16, 17, 31, 64, 1000}) {
+            assertEquals("chunk " + chunk, expected, tokenize(path, chunk));
+        }
+    }
+
+    @Test
+    public void testByteLevelChunksMatchProcessText() throws IOException {
+        // 切分点附近放上会被 trim 去掉的控制空白、数字和非 ASCII 字母
+        String[] pieces = {
+            "word", "Ab", "ΣΟΦΟΣ", "漢字", "é", " ", "\n", "\r\n", "\t", "\u001C", "\u001F",
+            "7", "\\", ",", "😀", "€", " ",
+        };
+        Random random = new Random(25);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            text.append(pieces[random.nextInt(pieces.length)]);
+        }
+        Path path = write(text.toString());
+        List<String> expected = expected(path);
+        for (int chunk : new int[] {16, 23, 100, 4096}) {
+            assertEquals("chunk " + chunk, expected, tokenize(path, chunk));
+            assertEquals("chunk " + chunk, expected, tokenize(path, chunk, false));
+        }
+    }
+}